@@ -0,0 +1,85 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.PriceTicks;
+import com.example.trading.service.eventlog.EventLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cost for the calling thread of recording a request in the {@link EventLog} against formatting and writing a log line
+ * synchronously, like the console appender did for the former per request INFO lines, and cost of the trace mode on
+ * the book mutations. Run with the gc profiler and compare gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventLogBenchmark {
+
+    private static final int RESTING_ORDERS = 100_000;
+    private static final int LEVELS = 100;
+
+    @Param({"0", "1", "100"})
+    public int traceSampling;
+
+    private final long bestBid = PriceTicks.toTicks(99.99d);
+    private final long tick = PriceTicks.toTicks(0.01d);
+
+    private EventLog eventLog;
+    private Thread drainerThread;
+    private volatile boolean running;
+    private PrintStream nullStream;
+    private OrderBook orderBook;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        eventLog = new EventLog(65536, traceSampling);
+        // drains without writing, the writer thread being off the measured path
+        running = true;
+        drainerThread = new Thread(() -> {
+            while (running) {
+                if (eventLog.drain((type, threadId, timeMillis, name, value1, value2, value3, value4) -> { }) == 0) {
+                    LockSupport.parkNanos(1000);
+                }
+            }
+        });
+        drainerThread.start();
+        nullStream = new PrintStream(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8);
+        orderBook = new OrderBook();
+        for (int i = 0; i < RESTING_ORDERS; i++) {
+            orderBook.addOrder(nextId++, bestBid - (i % LEVELS) * tick, 'B', 100);
+        }
+        orderBook.setEventLog(eventLog, "BENCH");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        drainerThread.join();
+    }
+
+    @Benchmark
+    public void recordRequest() {
+        eventLog.request("addOrder");
+    }
+
+    @Benchmark
+    public void writeRequestLine() {
+        nullStream.println(Instant.now() + "  INFO " + Thread.currentThread().getName()
+                + " c.e.t.w.c.OrderBookController : Calling method ---- addOrder ---");
+    }
+
+    @Benchmark
+    public void addAndRemoveOrder() {
+        long id = nextId++;
+        orderBook.addOrder(id, bestBid - (id % LEVELS) * tick, 'B', 100);
+        orderBook.removeOrder(id);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.codec.OrderBinaryCodec;
+import com.example.trading.service.codec.OrderMessageHandler;
+import com.example.trading.service.journal.OrderBookReplayer;
+import com.example.trading.service.journal.OrderJournal;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup cost of the {@link OrderJournal}: replay of a journal of generated commands, decoding only and into the
+ * books. Throughput is reported in replayed commands per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JournalReplayBenchmark {
+
+    private static final int EVENTS = 1_000_000;
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int LEVELS = 20;
+
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void writeJournal() throws IOException, InterruptedException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        OrderJournal orderJournal = newJournal();
+        orderJournal.replay(new OrderBookReplayer(new OrderBookRegistry("DEFAULT")));
+        OrderFlow flow = new OrderFlowGenerator(13, 0)
+                .withLevels(LEVELS)
+                .withAggressivePercent(5)
+                .withCancelPercent(30)
+                .withUpdatePercent(10)
+                .generate(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            switch (flow.getType(i)) {
+                case OrderFlow.CANCEL:
+                    orderJournal.onRemove("EURUSD", flow.getId(i));
+                    break;
+                case OrderFlow.UPDATE:
+                    orderJournal.onUpdate("EURUSD", flow.getId(i), flow.getSize(i));
+                    break;
+                default:
+                    orderJournal.onAdd("EURUSD", flow.getId(i), flow.getPrice(i), flow.getSide(i), flow.getSize(i));
+            }
+        }
+        orderJournal.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteJournal() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long replayDecodeOnly(Blackhole blackhole) {
+        return newJournal().replay(new OrderMessageHandler() {
+            @Override
+            public void onAdd(String instrument, long orderId, long priceTicks, char side, long size) {
+                blackhole.consume(orderId);
+            }
+
+            @Override
+            public void onRemove(String instrument, long orderId) {
+                blackhole.consume(orderId);
+            }
+
+            @Override
+            public void onUpdate(String instrument, long orderId, long newSize) {
+                blackhole.consume(orderId);
+            }
+
+            @Override
+            public void onReplace(String instrument, long orderId, long newPriceTicks, long newSize) {
+                blackhole.consume(orderId);
+            }
+        });
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public OrderBookRegistry replayIntoBooks() {
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        newJournal().replay(new OrderBookReplayer(orderBookRegistry));
+        return orderBookRegistry;
+    }
+
+    private OrderJournal newJournal() {
+        return new OrderJournal(directory, SEGMENT_SIZE, 100, new OrderBinaryCodec());
+    }
+}
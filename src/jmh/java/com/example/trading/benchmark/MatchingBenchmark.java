@@ -0,0 +1,69 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.service.OrderBook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a pre-generated order flow through the matching: passive orders around the touch, cancels of
+ * resting orders and aggressive orders crossing the spread. Throughput is reported in orders per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MatchingBenchmark {
+
+    private static final int FLOW_LENGTH = 1 << 20;
+    private static final int LEVELS = 20;
+    private static final int ORDERS_PER_LEVEL = 250;
+
+    @Param({"10", "25"})
+    private int aggressivePercent;
+
+    @Param({"20", "40"})
+    private int cancelPercent;
+
+    private OrderFlow flow;
+    private OrderBook orderBook;
+    private int cursor;
+    // shifts the ids each time the flow wraps around, so a resting id is never added twice
+    private long idOffset;
+    private long trades;
+
+    @Setup(Level.Trial)
+    public void generateFlow() {
+        // the ids below are taken by the populated book
+        flow = new OrderFlowGenerator(7, 2L * LEVELS * ORDERS_PER_LEVEL)
+                .withLevels(LEVELS)
+                .withAggressivePercent(aggressivePercent)
+                .withCancelPercent(cancelPercent)
+                .withUpdatePercent(0)
+                .generate(FLOW_LENGTH);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpBook() {
+        orderBook = new OrderBook();
+        orderBook.setTradeListener((takerOrderId, makerOrderId, priceTicks, size) -> trades++);
+        new OrderFlowGenerator(11, 0).withLevels(LEVELS).populate(orderBook, ORDERS_PER_LEVEL);
+        cursor = 0;
+        idOffset = 0;
+    }
+
+    @Benchmark
+    public void processOrder(Blackhole blackhole) {
+        int i = cursor;
+        if (++cursor == FLOW_LENGTH) {
+            cursor = 0;
+            idOffset += FLOW_LENGTH;
+        }
+        if (flow.getType(i) == OrderFlow.CANCEL) {
+            orderBook.removeOrder(flow.getId(i) + idOffset);
+        } else {
+            orderBook.addOrder(flow.getId(i) + idOffset, flow.getPrice(i), flow.getSide(i), flow.getSize(i));
+        }
+        blackhole.consume(trades);
+    }
+}
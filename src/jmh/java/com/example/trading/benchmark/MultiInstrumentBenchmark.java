@@ -0,0 +1,48 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Each benchmark thread (-PjmhThreads=N) works on its own instrument, or on one shared instrument,
+ * to show that the throughput scales with the threads as long as they touch different books.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MultiInstrumentBenchmark {
+
+    private static final long IDS_PER_THREAD = 1L << 40;
+
+    @Param({"true", "false"})
+    private boolean instrumentPerThread;
+
+    private final OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    @State(Scope.Thread)
+    public static class ThreadBook {
+        private OrderBook orderBook;
+        private long nextId;
+
+        @Setup(Level.Trial)
+        public void setUp(MultiInstrumentBenchmark benchmark) {
+            int thread = benchmark.threadCount.incrementAndGet();
+            orderBook = benchmark.orderBookRegistry.getOrderBook(benchmark.instrumentPerThread ? "INSTRUMENT-" + thread : "DEFAULT");
+            nextId = thread * IDS_PER_THREAD;
+            new OrderFlowGenerator(thread, nextId).withLevels(20).populate(orderBook, 10);
+            nextId += IDS_PER_THREAD / 2;
+        }
+    }
+
+    @Benchmark
+    public void addAndRemoveOrder(ThreadBook threadBook) {
+        long id = threadBook.nextId++;
+        threadBook.orderBook.addOrder(id, OrderFlowGenerator.MID - OrderFlowGenerator.TICK, 'B', 100);
+        threadBook.orderBook.removeOrder(id);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.PriceTicks;
+import com.example.trading.service.view.BookViewRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady state add / remove / update on a populated book. Run with the gc profiler (enabled in build.gradle)
+ * and check gc.alloc.rate.norm: it is expected to be ~0 bytes/op for the bare book. With `bookViews` the published
+ * book view copies the levels of the changed side on every mutation, about 20 bytes per level.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderBookAllocationBenchmark {
+
+    private static final int RESTING_ORDERS = 100_000;
+    private static final int LEVELS = 100;
+
+    private final long bestBid = PriceTicks.toTicks(99.99d);
+    private final long bestOffer = PriceTicks.toTicks(100.00d);
+    private final long tick = PriceTicks.toTicks(0.01d);
+
+    // attaches the book view publisher, as the application does
+    @Param({"false", "true"})
+    private boolean bookViews;
+
+    private OrderBook orderBook;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        if (bookViews) {
+            new BookViewRegistry(orderBookRegistry).start();
+        }
+        orderBook = orderBookRegistry.getOrderBook("DEFAULT");
+        for (int i = 0; i < RESTING_ORDERS; i++) {
+            orderBook.addOrder(nextId++, bestBid - (i % LEVELS) * tick, 'B', 100);
+            orderBook.addOrder(nextId++, bestOffer + (i % LEVELS) * tick, 'O', 100);
+        }
+    }
+
+    @Benchmark
+    public void addAndRemoveOrder() {
+        long id = nextId++;
+        orderBook.addOrder(id, bestBid - (id % LEVELS) * tick, 'B', 100);
+        orderBook.removeOrder(id);
+    }
+
+    @Benchmark
+    public void addAndRemoveOrderOnNewLevel() {
+        long id = nextId++;
+        orderBook.addOrder(id, bestBid - (LEVELS + 1) * tick, 'B', 100);
+        orderBook.removeOrder(id);
+    }
+
+    @Benchmark
+    public void updateOrder() {
+        orderBook.updateOrder(nextId++ % RESTING_ORDERS, 50 + nextId % 100);
+    }
+}
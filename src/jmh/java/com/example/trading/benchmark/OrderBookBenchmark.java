@@ -0,0 +1,165 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.model.dto.OrderAddRequestDto;
+import com.example.trading.model.dto.OrderDeleteRequestDto;
+import com.example.trading.model.entity.Order;
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.OrderBookService;
+import com.example.trading.service.PriceTicks;
+import com.example.trading.service.TickSizeRegistry;
+import com.example.trading.service.mapper.OrderMapper;
+import com.example.trading.service.metrics.OrderBookMetrics;
+import com.example.trading.service.view.BookViewRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hot paths of {@link OrderBook} and {@link OrderBookService} on a book of `depth` levels per side with
+ * `ordersPerLevel` orders each. The book is shared by the benchmark threads (-PjmhThreads=N), each thread replays
+ * its own generated flow. Throughput and sampled latency percentiles are reported, the allocation rate comes
+ * from the gc profiler enabled in build.gradle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderBookBenchmark {
+
+    private static final int FLOW_LENGTH = 1 << 18;
+    // every thread gets a disjoint id range
+    private static final long IDS_PER_THREAD = 1L << 40;
+
+    @Param({"10", "100", "1000"})
+    private int depth;
+
+    @Param({"1", "10", "100"})
+    private int ordersPerLevel;
+
+    @Param({"0", "50", "90"})
+    private int readPercent;
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private OrderBook orderBook;
+    private OrderBookService orderBookService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        orderBook = orderBookRegistry.getOrderBook("DEFAULT");
+        // published views as in the application, the service reads them
+        BookViewRegistry bookViewRegistry = new BookViewRegistry(orderBookRegistry);
+        bookViewRegistry.start();
+        // instrumented as in the application, the cost of the metrics is part of the measure
+        OrderBookMetrics orderBookMetrics = new OrderBookMetrics(new SimpleMeterRegistry(), orderBookRegistry, bookViewRegistry);
+        orderBookMetrics.start();
+        TickSizeRegistry tickSizeRegistry = new TickSizeRegistry(orderBookRegistry, "0.0001", "");
+        orderBookService = new OrderBookService(orderBookRegistry, new OrderMapper(tickSizeRegistry), bookViewRegistry, orderBookMetrics,
+                tickSizeRegistry, Optional.empty(), Optional.empty());
+        new OrderFlowGenerator(1, 0).withLevels(depth).populate(orderBook, ordersPerLevel);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadFlow {
+        private OrderFlow flow;
+        private int cursor;
+        // shifts the flow ids each time the flow wraps around, so a resting id is never added twice
+        private long idOffset;
+        private long nextId;
+
+        @Setup(Level.Trial)
+        public void setUp(OrderBookBenchmark benchmark) {
+            int thread = benchmark.threadCount.incrementAndGet();
+            flow = new OrderFlowGenerator(thread, thread * IDS_PER_THREAD)
+                    .withLevels(benchmark.depth)
+                    .withReadPercent(benchmark.readPercent)
+                    .generate(FLOW_LENGTH);
+            // ids of the add/remove pairs, in the upper half of the thread range
+            nextId = thread * IDS_PER_THREAD + IDS_PER_THREAD / 2;
+        }
+
+        int next() {
+            int index = cursor;
+            if (++cursor == FLOW_LENGTH) {
+                cursor = 0;
+                idOffset += FLOW_LENGTH;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Replays the generated flow, its read/write mix is driven by `readPercent`
+     */
+    @Benchmark
+    public Long mixedFlow(ThreadFlow threadFlow) {
+        OrderFlow flow = threadFlow.flow;
+        int i = threadFlow.next();
+        long id = flow.getId(i) + threadFlow.idOffset;
+        switch (flow.getType(i)) {
+            case OrderFlow.ADD:
+                orderBook.addOrder(id, flow.getPrice(i), flow.getSide(i), flow.getSize(i));
+                return null;
+            case OrderFlow.CANCEL:
+                orderBook.removeOrder(id);
+                return null;
+            case OrderFlow.UPDATE:
+                orderBook.updateOrder(id, flow.getSize(i));
+                return null;
+            default:
+                return orderBook.getTotalSize(flow.getSide(i), (int) flow.getSize(i));
+        }
+    }
+
+    @Benchmark
+    public void addAndRemoveOrder(ThreadFlow threadFlow) {
+        long id = threadFlow.nextId++;
+        orderBook.addOrder(id, OrderFlowGenerator.MID - OrderFlowGenerator.TICK, 'B', 100);
+        orderBook.removeOrder(id);
+    }
+
+    @Benchmark
+    public void updateOrder(ThreadFlow threadFlow) {
+        OrderFlow flow = threadFlow.flow;
+        int i = threadFlow.next();
+        orderBook.updateOrder(i % (2L * depth * ordersPerLevel), flow.getSize(i));
+    }
+
+    @Benchmark
+    public Double getPrice(ThreadFlow threadFlow) {
+        int i = threadFlow.next();
+        return orderBook.getPrice(threadFlow.flow.getSide(i), 1 + i % depth);
+    }
+
+    @Benchmark
+    public Long getTotalSize(ThreadFlow threadFlow) {
+        int i = threadFlow.next();
+        return orderBook.getTotalSize(threadFlow.flow.getSide(i), 1 + i % depth);
+    }
+
+    @Benchmark
+    public List<Order> getOrdersBySideInLevelAndTimeOrdered(ThreadFlow threadFlow) {
+        int i = threadFlow.next();
+        return orderBook.getOrdersBySideInLevelAndTimeOrdered(threadFlow.flow.getSide(i));
+    }
+
+    @Benchmark
+    public void serviceAddAndRemoveOrder(ThreadFlow threadFlow) {
+        long id = threadFlow.nextId++;
+        OrderAddRequestDto orderAddRequestDto = new OrderAddRequestDto();
+        orderAddRequestDto.setId(id);
+        orderAddRequestDto.setPrice(PriceTicks.toDecimal(OrderFlowGenerator.MID - OrderFlowGenerator.TICK, PriceTicks.SCALE));
+        orderAddRequestDto.setSide("B");
+        orderAddRequestDto.setSize(100L);
+        orderBookService.addOrder(orderAddRequestDto);
+
+        OrderDeleteRequestDto orderDeleteRequestDto = new OrderDeleteRequestDto();
+        orderDeleteRequestDto.setId(id);
+        orderBookService.removeOrder(orderDeleteRequestDto);
+    }
+}
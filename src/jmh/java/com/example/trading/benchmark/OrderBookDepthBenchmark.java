@@ -0,0 +1,66 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.model.entity.Order;
+import com.example.trading.service.OrderBook;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a single book event (add, then remove of the same order) while the book holds
+ * `depth` resting orders. The per event cost should stay flat when the depth grows for an existing level and for a
+ * level created and cleared at the best price, while creating and clearing a level in the middle of the ladder
+ * shifts the levels better than it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderBookDepthBenchmark {
+
+    private static final int ORDERS_PER_LEVEL = 10;
+    private static final double TICK = 0.01d;
+
+    @Param({"1000", "10000", "100000"})
+    private int depth;
+
+    private OrderBook orderBook;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orderBook = new OrderBook();
+        for (int i = 0; i < depth; i++) {
+            int level = i / ORDERS_PER_LEVEL;
+            orderBook.addOrder(new Order(i, 100.00d - level * TICK, 'B', 100));
+            orderBook.addOrder(new Order(depth + i, 100.01d + level * TICK, 'O', 100));
+        }
+        nextId = 2L * depth;
+    }
+
+    @Benchmark
+    public void addAndRemoveOrder() {
+        long id = nextId++;
+        orderBook.addOrder(new Order(id, 99.50d, 'B', 100));
+        orderBook.removeOrder(id);
+    }
+
+    @Benchmark
+    public void createAndClearBestLevel() {
+        long id = nextId++;
+        orderBook.addOrder(new Order(id, 100.00d + TICK / 2, 'B', 100));
+        orderBook.removeOrder(id);
+    }
+
+    @Benchmark
+    public void createAndClearMiddleLevel() {
+        long id = nextId++;
+        // between two existing levels, half of the ladder above it
+        orderBook.addOrder(new Order(id, 100.00d - (depth / ORDERS_PER_LEVEL / 2) * TICK - TICK / 2, 'B', 100));
+        orderBook.removeOrder(id);
+    }
+
+    @Benchmark
+    public Long getTotalSizeOfBestLevel() {
+        return orderBook.getTotalSize('B', 1);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.model.entity.Order;
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.engine.OrderBookEngine;
+import com.example.trading.service.engine.OrderCommand;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the concurrent mode (callers mutate the locked book directly) against the single-writer mode
+ * (callers publish into the ring buffer and wait for the engine thread), with several producer threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class OrderBookEngineBenchmark {
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private OrderBook orderBook;
+    private OrderBookEngine orderBookEngine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        orderBook = orderBookRegistry.getOrderBook("DEFAULT");
+        for (int i = 0; i < 1000; i++) {
+            orderBook.addOrder(new Order(ids.incrementAndGet(), 99.99d - (i % 20) * 0.01d, 'B', 100));
+            orderBook.addOrder(new Order(ids.incrementAndGet(), 100.00d + (i % 20) * 0.01d, 'O', 100));
+        }
+        orderBookEngine = new OrderBookEngine(orderBookRegistry, 65536, "order-book-engine");
+        orderBookEngine.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        orderBookEngine.close();
+    }
+
+    @Benchmark
+    public void concurrentAddAndRemove() {
+        long id = ids.incrementAndGet();
+        orderBook.addOrder(new Order(id, 99.95d, 'B', 100));
+        orderBook.removeOrder(id);
+    }
+
+    @Benchmark
+    public Long singleWriterAddAndRemove() {
+        long id = ids.incrementAndGet();
+        orderBookEngine.submit(OrderCommand.add("DEFAULT", new Order(id, 99.95d, 'B', 100)));
+        return orderBookEngine.submit(OrderCommand.remove("DEFAULT", id)).join();
+    }
+}
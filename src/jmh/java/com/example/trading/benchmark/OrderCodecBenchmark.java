@@ -0,0 +1,109 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.model.dto.OrderAddRequestDto;
+import com.example.trading.service.codec.OrderBinaryCodec;
+import com.example.trading.service.codec.OrderMessageHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding cost of an add order message: the JSON body consumed by the Jackson message converter against the
+ * {@link OrderBinaryCodec} layout. Run with the gc profiler to compare the allocation per message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderCodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OrderBinaryCodec codec = new OrderBinaryCodec();
+
+    private byte[] json;
+    private byte[] binary;
+    private BlackholeHandler handler;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws IOException {
+        OrderAddRequestDto dto = new OrderAddRequestDto();
+        dto.setInstrument("EURUSD");
+        dto.setId(123_456L);
+        dto.setPrice(new BigDecimal("123.45"));
+        dto.setSide("B");
+        dto.setSize(200L);
+        json = objectMapper.writeValueAsBytes(dto);
+
+        binary = new byte[OrderBinaryCodec.MESSAGE_LENGTH];
+        codec.encodeAdd(binary, 0, "EURUSD", 123_456L, 1_234_500L, 'B', 200L);
+        handler = new BlackholeHandler(blackhole);
+    }
+
+    @Benchmark
+    public OrderAddRequestDto decodeJson() throws IOException {
+        return objectMapper.readValue(json, OrderAddRequestDto.class);
+    }
+
+    @Benchmark
+    public void decodeBinary() {
+        codec.decode(binary, 0, handler);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        OrderAddRequestDto dto = new OrderAddRequestDto();
+        dto.setInstrument("EURUSD");
+        dto.setId(123_456L);
+        dto.setPrice(new BigDecimal("123.45"));
+        dto.setSide("B");
+        dto.setSize(200L);
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        codec.encodeAdd(binary, 0, "EURUSD", 123_456L, 1_234_500L, 'B', 200L);
+        return binary;
+    }
+
+    private static class BlackholeHandler implements OrderMessageHandler {
+        private final Blackhole blackhole;
+
+        BlackholeHandler(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onAdd(String instrument, long orderId, long priceTicks, char side, long size) {
+            blackhole.consume(instrument);
+            blackhole.consume(orderId);
+            blackhole.consume(priceTicks);
+            blackhole.consume(side);
+            blackhole.consume(size);
+        }
+
+        @Override
+        public void onRemove(String instrument, long orderId) {
+            blackhole.consume(instrument);
+            blackhole.consume(orderId);
+        }
+
+        @Override
+        public void onUpdate(String instrument, long orderId, long newSize) {
+            blackhole.consume(instrument);
+            blackhole.consume(orderId);
+            blackhole.consume(newSize);
+        }
+
+        @Override
+        public void onReplace(String instrument, long orderId, long newPriceTicks, long newSize) {
+            blackhole.consume(instrument);
+            blackhole.consume(orderId);
+            blackhole.consume(newPriceTicks);
+            blackhole.consume(newSize);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.trading.benchmark;
+
+/**
+ * A pre-generated sequence of book events kept in primitive arrays, so replaying it doesn't allocate
+ * and doesn't disturb the measured code.
+ */
+public class OrderFlow {
+
+    public static final byte ADD = 0;
+    public static final byte CANCEL = 1;
+    public static final byte UPDATE = 2;
+    public static final byte READ = 3;
+
+    final byte[] types;
+    final long[] ids;
+    final long[] prices;
+    final char[] sides;
+    // the new size for an update, the one based level for a read
+    final long[] sizes;
+
+    OrderFlow(int length) {
+        types = new byte[length];
+        ids = new long[length];
+        prices = new long[length];
+        sides = new char[length];
+        sizes = new long[length];
+    }
+
+    public int length() {
+        return types.length;
+    }
+
+    public byte getType(int index) {
+        return types[index];
+    }
+
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    public long getPrice(int index) {
+        return prices[index];
+    }
+
+    public char getSide(int index) {
+        return sides[index];
+    }
+
+    public long getSize(int index) {
+        return sizes[index];
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.PriceTicks;
+
+import java.util.Random;
+
+/**
+ * Reproducible synthetic order flow: the same seed always produces the same book and the same events.
+ * Passive orders rest within `levels` ticks of the mid, aggressive ones cross up to three levels,
+ * cancels and updates target recently added ids and reads pick a level of the populated depth.
+ */
+public class OrderFlowGenerator {
+
+    public static final long MID = PriceTicks.toTicks(100.00d);
+    public static final long TICK = PriceTicks.toTicks(0.01d);
+
+    private final Random random;
+    private final long firstId;
+    private long nextId;
+    private int levels = 20;
+    private int aggressivePercent = 10;
+    private int cancelPercent = 20;
+    private int updatePercent = 5;
+    private int readPercent = 0;
+
+    /**
+     * @param seed    - seed of the pseudo random sequence
+     * @param firstId - first order id handed out, use disjoint ranges for generators feeding the same book
+     */
+    public OrderFlowGenerator(long seed, long firstId) {
+        this.random = new Random(seed);
+        this.firstId = firstId;
+        this.nextId = firstId;
+    }
+
+    public OrderFlowGenerator withLevels(int levels) {
+        this.levels = levels;
+        return this;
+    }
+
+    public OrderFlowGenerator withAggressivePercent(int aggressivePercent) {
+        this.aggressivePercent = aggressivePercent;
+        return this;
+    }
+
+    public OrderFlowGenerator withCancelPercent(int cancelPercent) {
+        this.cancelPercent = cancelPercent;
+        return this;
+    }
+
+    public OrderFlowGenerator withUpdatePercent(int updatePercent) {
+        this.updatePercent = updatePercent;
+        return this;
+    }
+
+    public OrderFlowGenerator withReadPercent(int readPercent) {
+        this.readPercent = readPercent;
+        return this;
+    }
+
+    /**
+     * Rests `ordersPerLevel` orders on each of the `levels` levels of both sides, without crossing
+     */
+    public void populate(OrderBook orderBook, int ordersPerLevel) {
+        for (int level = 0; level < levels; level++) {
+            for (int i = 0; i < ordersPerLevel; i++) {
+                orderBook.addOrder(nextId++, MID - (level + 1) * TICK, 'B', randomSize());
+                orderBook.addOrder(nextId++, MID + level * TICK, 'O', randomSize());
+            }
+        }
+    }
+
+    public OrderFlow generate(int length) {
+        OrderFlow flow = new OrderFlow(length);
+        for (int i = 0; i < length; i++) {
+            int draw = random.nextInt(100);
+            char side = random.nextBoolean() ? 'B' : 'O';
+            flow.sides[i] = side;
+            if (draw < readPercent) {
+                flow.types[i] = OrderFlow.READ;
+                flow.sizes[i] = 1 + random.nextInt(levels);
+            } else if (draw < readPercent + cancelPercent) {
+                flow.types[i] = OrderFlow.CANCEL;
+                flow.ids[i] = recentId();
+            } else if (draw < readPercent + cancelPercent + updatePercent) {
+                flow.types[i] = OrderFlow.UPDATE;
+                flow.ids[i] = recentId();
+                flow.sizes[i] = randomSize();
+            } else {
+                flow.types[i] = OrderFlow.ADD;
+                flow.ids[i] = nextId++;
+                flow.sizes[i] = randomSize();
+                boolean aggressive = draw < readPercent + cancelPercent + updatePercent + aggressivePercent;
+                flow.prices[i] = aggressive ? aggressivePrice(side) : passivePrice(side);
+            }
+        }
+        return flow;
+    }
+
+    private long passivePrice(char side) {
+        int distance = random.nextInt(levels);
+        return side == 'B' ? MID - (distance + 1) * TICK : MID + distance * TICK;
+    }
+
+    private long aggressivePrice(char side) {
+        int distance = random.nextInt(3);
+        return side == 'B' ? MID + distance * TICK : MID - (distance + 1) * TICK;
+    }
+
+    private long recentId() {
+        return Math.max(firstId, nextId - 1 - random.nextInt(1000));
+    }
+
+    private long randomSize() {
+        return 1 + random.nextInt(500);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.model.enums.StorageType;
+import com.example.trading.service.LongIntIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order id index of a book holding {@link #orders} resting orders: lookup of a resting order, and insert of a new
+ * order with removal of the oldest one, so the size stays constant. `boxed` is a {@code ConcurrentHashMap<Long, Integer>}
+ * for reference. The memory taken by the index (heap and direct buffers) is printed at setup, the boxed index of
+ * 50M orders needs more than the 8 GB heap of the fork.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-XX:MaxDirectMemorySize=2g"})
+public class OrderIndexBenchmark {
+
+    @Param({"1000000", "10000000", "50000000"})
+    public int orders;
+
+    @Param({"heap", "off-heap", "boxed"})
+    public String index;
+
+    private LongIntIndex orderIndex;
+    private long oldestId;
+    private long nextId;
+    private long random = 42;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long memoryBefore = usedMemory();
+        orderIndex = index.equals("boxed") ? new BoxedIndex() : LongIntIndex.create(StorageType.fromProperty(index), orders);
+        for (int i = 0; i < orders; i++) {
+            orderIndex.put(nextId++, i);
+        }
+        long memory = usedMemory() - memoryBefore;
+        System.out.printf("%n%s index of %d orders: %d MB, %.1f bytes per order%n",
+                index, orders, memory >> 20, (double) memory / orders);
+    }
+
+    @Benchmark
+    public int lookup() {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        return orderIndex.get(oldestId + Math.floorMod(random, nextId - oldestId));
+    }
+
+    @Benchmark
+    public int insertAndRemoveOldest() {
+        orderIndex.put(nextId, (int) (nextId++ % orders));
+        return orderIndex.remove(oldestId++);
+    }
+
+    private static long usedMemory() {
+        System.gc();
+        long used = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        for (BufferPoolMXBean bufferPool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            used += bufferPool.getMemoryUsed();
+        }
+        return used;
+    }
+
+    private static class BoxedIndex implements LongIntIndex {
+        private final ConcurrentHashMap<Long, Integer> map = new ConcurrentHashMap<>();
+
+        @Override
+        public int get(long key) {
+            Integer value = map.get(key);
+            return value == null ? MISSING : value;
+        }
+
+        @Override
+        public int put(long key, int value) {
+            Integer previous = map.put(key, value);
+            return previous == null ? MISSING : previous;
+        }
+
+        @Override
+        public int remove(long key) {
+            Integer removed = map.remove(key);
+            return removed == null ? MISSING : removed;
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        // unknown, see the setup
+        @Override
+        public long memoryBytes() {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.model.enums.StorageType;
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.PriceTicks;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap against off-heap storage of a book of {@link #orders} resting orders: steady state add / remove / update,
+ * and a full collection with the book alive, which stands for the old generation pauses since the heap book is part
+ * of the live set the collector marks and copies. Run with the gc profiler to compare the collection counts and times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-XX:MaxDirectMemorySize=2g"})
+public class OrderStorageBenchmark {
+
+    private static final int LEVELS = 1000;
+
+    @Param({"1000000", "10000000"})
+    public int orders;
+
+    @Param({"heap", "off-heap"})
+    public String storage;
+
+    private final long bestBid = PriceTicks.toTicks(99.99d);
+    private final long tick = PriceTicks.toTicks(0.01d);
+
+    private OrderBook orderBook;
+    private long oldestId;
+    private long nextId;
+    private long updates;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StorageType storageType = StorageType.fromProperty(storage);
+        orderBook = new OrderBook(storageType, storageType, orders);
+        for (int i = 0; i < orders; i++) {
+            addOrder();
+        }
+    }
+
+    @Benchmark
+    public void addAndRemoveOldestOrder() {
+        addOrder();
+        orderBook.removeOrder(oldestId++);
+    }
+
+    @Benchmark
+    public void updateOrder() {
+        long update = updates++;
+        orderBook.updateOrder(oldestId + update % (nextId - oldestId), 1 + (update & 63));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5)
+    public void fullCollection() {
+        System.gc();
+    }
+
+    private void addOrder() {
+        long id = nextId++;
+        orderBook.addOrder(id, bestBid - (id % LEVELS) * tick, 'B', 100);
+    }
+}
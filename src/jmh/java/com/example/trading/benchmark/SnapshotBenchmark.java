@@ -0,0 +1,69 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.OrderBookSnapshot;
+import com.example.trading.service.snapshot.OrderBookSnapshotStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of the {@link OrderBookSnapshotStore} for large books: the copy taken under the book lock, the write of the
+ * file and the load on restart. The file holds {@link OrderBookSnapshotStore#ORDER_RECORD_LENGTH} bytes per order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class SnapshotBenchmark {
+
+    private static final int LEVELS = 1_000;
+
+    @Param({"1000000", "4000000"})
+    private int orders;
+
+    private Path directory;
+    private OrderBook orderBook;
+    private OrderBookSnapshot snapshot;
+    private OrderBookSnapshotStore orderBookSnapshotStore;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("snapshot-benchmark");
+        orderBook = new OrderBook();
+        new OrderFlowGenerator(17, 0).withLevels(LEVELS).populate(orderBook, orders / (2 * LEVELS));
+        snapshot = orderBook.snapshot(() -> 0L);
+        orderBookSnapshotStore = new OrderBookSnapshotStore(directory);
+        orderBookSnapshotStore.write(Map.of("EURUSD", snapshot));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public OrderBookSnapshot copyUnderLock() {
+        return orderBook.snapshot(() -> 0L);
+    }
+
+    @Benchmark
+    public Path write() {
+        return orderBookSnapshotStore.write(Map.of("EURUSD", snapshot));
+    }
+
+    @Benchmark
+    public Map<String, Long> load() {
+        return orderBookSnapshotStore.loadLatest(new OrderBookRegistry("DEFAULT"));
+    }
+}
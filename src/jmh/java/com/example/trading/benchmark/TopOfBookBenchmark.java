@@ -0,0 +1,108 @@
+package com.example.trading.benchmark;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.PriceTicks;
+import com.example.trading.service.view.BookView;
+import com.example.trading.service.view.BookViewRegistry;
+import com.example.trading.service.view.TopOfBook;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads of the best bid while one thread keeps mutating the top of the book: through the seqlock of
+ * {@link TopOfBook}, through the published {@link BookView} and through the read lock of the book. In every group one
+ * thread writes and three read, the gc profiler shows the reads allocate nothing.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TopOfBookBenchmark {
+
+    private static final int LEVELS = 100;
+
+    private final long bestBid = PriceTicks.toTicks(99.99d);
+    private final long tick = PriceTicks.toTicks(0.01d);
+
+    private OrderBook orderBook;
+    private BookViewRegistry bookViewRegistry;
+    private TopOfBook topOfBook;
+    private final TopOfBook.Snapshot snapshot = new TopOfBook.Snapshot();
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        orderBook = orderBookRegistry.getOrderBook("DEFAULT");
+        bookViewRegistry = new BookViewRegistry(orderBookRegistry);
+        bookViewRegistry.start();
+        for (int i = 0; i < LEVELS * 10; i++) {
+            orderBook.addOrder(nextId++, bestBid - (i % LEVELS) * tick, 'B', 100);
+        }
+        topOfBook = bookViewRegistry.getTopOfBook("DEFAULT");
+    }
+
+    @Benchmark
+    @Group("seqlock")
+    @GroupThreads(1)
+    public void writeSeqlock() {
+        addAndRemoveBestBid();
+    }
+
+    @Benchmark
+    @Group("seqlock")
+    @GroupThreads(3)
+    public long readSeqlock() {
+        return topOfBook.getPrice('B', 1);
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(1)
+    public void writeSnapshot() {
+        addAndRemoveBestBid();
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(3)
+    public long readSnapshot() {
+        topOfBook.read(snapshot);
+        return snapshot.getSpread();
+    }
+
+    @Benchmark
+    @Group("view")
+    @GroupThreads(1)
+    public void writeView() {
+        addAndRemoveBestBid();
+    }
+
+    @Benchmark
+    @Group("view")
+    @GroupThreads(3)
+    public long readView() {
+        return bookViewRegistry.getView("DEFAULT").getBids().getPrice(0);
+    }
+
+    @Benchmark
+    @Group("lock")
+    @GroupThreads(1)
+    public void writeLock() {
+        addAndRemoveBestBid();
+    }
+
+    @Benchmark
+    @Group("lock")
+    @GroupThreads(3)
+    public Double readLock() {
+        return orderBook.getPrice('B', 1);
+    }
+
+    private void addAndRemoveBestBid() {
+        long id = nextId++;
+        orderBook.addOrder(id, bestBid + tick, 'B', 100);
+        orderBook.removeOrder(id);
+    }
+}
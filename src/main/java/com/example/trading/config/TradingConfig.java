@@ -1,22 +1,49 @@
 package com.example.trading.config;
 
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.codec.OrderBinaryCodec;
+import com.example.trading.service.engine.OrderBookEngineGroup;
+import com.example.trading.service.eventlog.EventLog;
+import com.example.trading.service.journal.OrderBookReplayer;
+import com.example.trading.service.journal.OrderJournal;
+import com.example.trading.service.mapper.OrderMapper;
+import com.example.trading.service.snapshot.OrderBookSnapshotStore;
+import com.example.trading.service.snapshot.OrderBookSnapshotter;
+import com.example.trading.service.trade.TradePublisher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
 import org.springframework.jms.config.JmsListenerContainerFactory;
+import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
 import org.springframework.jms.support.converter.MessageConverter;
 import org.springframework.jms.support.converter.MessageType;
 
 import javax.jms.ConnectionFactory;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
 
 @Configuration
 public class TradingConfig {
+    /**
+     * The producers set the JMSXGroupID of the order messages to the instrument, so ActiveMQ delivers all the messages
+     * of an instrument to the same consumer: the instruments are spread over the `trading.jms.concurrency` consumer
+     * threads while the order within an instrument is kept.
+     */
     @Bean
-    public JmsListenerContainerFactory<?> myJmsFactory(ConnectionFactory connectionFactory, DefaultJmsListenerContainerFactoryConfigurer configurer) {
+    public JmsListenerContainerFactory<?> myJmsFactory(ConnectionFactory connectionFactory,
+                                                       DefaultJmsListenerContainerFactoryConfigurer configurer,
+                                                       @Value("${trading.jms.concurrency:1}") String concurrency) {
         DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
         configurer.configure(factory, connectionFactory);
+        factory.setConcurrency(concurrency);
         return factory;
     }
 
@@ -27,4 +54,107 @@ public class TradingConfig {
         converter.setTypeIdPropertyName("_type");
         return converter;
     }
+
+    /**
+     * The requests and messages are recorded when the event log is enabled, the book mutations only when
+     * `trading.eventlog.trace-sampling` is positive
+     */
+    @Bean(destroyMethod = "close")
+    public EventLog eventLog(OrderBookRegistry orderBookRegistry,
+                             MeterRegistry meterRegistry,
+                             @Value("${trading.eventlog.enabled:true}") boolean enabled,
+                             @Value("${trading.eventlog.capacity:65536}") int capacity,
+                             @Value("${trading.eventlog.trace-sampling:0}") int traceSampling) {
+        if (!enabled) {
+            return EventLog.NONE;
+        }
+        EventLog eventLog = new EventLog(capacity, traceSampling);
+        if (eventLog.isTracing()) {
+            orderBookRegistry.addOrderBookCustomizer((instrument, orderBook) -> orderBook.setEventLog(eventLog, instrument));
+        }
+        FunctionCounter.builder("trading.eventlog.dropped", eventLog, EventLog::getDroppedCount)
+                .description("Events dropped because the event log writer was behind")
+                .register(meterRegistry);
+        eventLog.start();
+        return eventLog;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "trading.engine.mode", havingValue = "single-writer")
+    public OrderBookEngineGroup orderBookEngineGroup(OrderBookRegistry orderBookRegistry,
+                                                     @Value("${trading.engine.threads:1}") int engineThreads,
+                                                     @Value("${trading.engine.ring-buffer-size:65536}") int ringBufferSize) {
+        OrderBookEngineGroup engineGroup = new OrderBookEngineGroup(orderBookRegistry, engineThreads, ringBufferSize);
+        engineGroup.start();
+        return engineGroup;
+    }
+
+    /**
+     * Rebuilds the books from the newest snapshot, when enabled, and from the journal commands which followed it,
+     * before anything else can mutate them, then journals every new mutation
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "trading.journal.enabled", havingValue = "true")
+    public OrderJournal orderJournal(OrderBookRegistry orderBookRegistry,
+                                     OrderBinaryCodec orderBinaryCodec,
+                                     Optional<OrderBookSnapshotStore> orderBookSnapshotStore,
+                                     @Value("${trading.journal.directory:journal}") String directory,
+                                     @Value("${trading.journal.segment-size:268435456}") int segmentSize,
+                                     @Value("${trading.journal.flush-interval-micros:100}") long flushIntervalMicros) {
+        OrderJournal orderJournal = new OrderJournal(Paths.get(directory), segmentSize, flushIntervalMicros, orderBinaryCodec);
+        Map<String, Long> instrumentToSequence = orderBookSnapshotStore
+                .map(snapshotStore -> snapshotStore.loadLatest(orderBookRegistry))
+                .orElse(Collections.emptyMap());
+        orderJournal.replay(instrument -> instrumentToSequence.getOrDefault(instrument, 0L), new OrderBookReplayer(orderBookRegistry));
+        orderBookRegistry.setJournal(orderJournal);
+        orderJournal.start();
+        return orderJournal;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "trading.snapshot.enabled", havingValue = "true")
+    public OrderBookSnapshotStore orderBookSnapshotStore(@Value("${trading.snapshot.directory:snapshot}") String directory) {
+        return new OrderBookSnapshotStore(Paths.get(directory));
+    }
+
+    /**
+     * The snapshots are only meaningful with the journal, which replays the commands following them
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "trading.snapshot.enabled", havingValue = "true")
+    public OrderBookSnapshotter orderBookSnapshotter(OrderBookRegistry orderBookRegistry,
+                                                     OrderJournal orderJournal,
+                                                     OrderBookSnapshotStore orderBookSnapshotStore,
+                                                     @Value("${trading.snapshot.interval-seconds:300}") long intervalSeconds) {
+        OrderBookSnapshotter orderBookSnapshotter = new OrderBookSnapshotter(orderBookRegistry, orderJournal, orderBookSnapshotStore);
+        orderBookSnapshotter.start(intervalSeconds);
+        return orderBookSnapshotter;
+    }
+
+    /**
+     * Sends the fills of every book on the `trading.trades.topic` topic. Depends on the journal so that the replay,
+     * which repeats the fills of the previous run, is over before the books get the trade listener.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "trading.trades.enabled", havingValue = "true")
+    public TradePublisher tradePublisher(OrderBookRegistry orderBookRegistry,
+                                         OrderMapper orderMapper,
+                                         EventLog eventLog,
+                                         ConnectionFactory connectionFactory,
+                                         MessageConverter jacksonJmsMessageConverter,
+                                         MeterRegistry meterRegistry,
+                                         Optional<OrderJournal> orderJournal,
+                                         @Value("${trading.trades.topic:TradeTopic}") String topic,
+                                         @Value("${trading.trades.queue-capacity:65536}") int queueCapacity) {
+        JmsTemplate jmsTemplate = new JmsTemplate(connectionFactory);
+        jmsTemplate.setPubSubDomain(true);
+        jmsTemplate.setMessageConverter(jacksonJmsMessageConverter);
+        TradePublisher tradePublisher = new TradePublisher(orderBookRegistry, orderMapper, eventLog,
+                trade -> jmsTemplate.convertAndSend(topic, trade), queueCapacity);
+        FunctionCounter.builder("trading.trades.dropped", tradePublisher, TradePublisher::getDroppedCount)
+                .description("Fills not sent on the topic because the publisher was behind")
+                .register(meterRegistry);
+        tradePublisher.start();
+        return tradePublisher;
+    }
 }
@@ -0,0 +1,36 @@
+package com.example.trading.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every HTTP request, and the asynchronous parts of the streamed responses, on its own virtual thread instead of
+ * the bounded Tomcat pool: thousands of concurrent pollers then cost memory rather than queueing for a worker.
+ * The book and the journal only block on {@link java.util.concurrent.locks.Lock}s, which unmount a waiting virtual
+ * thread instead of pinning its carrier.
+ */
+@Configuration
+@ConditionalOnProperty(name = "trading.web.virtual-threads", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        logger.info("HTTP requests run on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor()));
+    }
+}
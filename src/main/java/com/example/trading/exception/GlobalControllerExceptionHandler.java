@@ -31,6 +31,13 @@ public class GlobalControllerExceptionHandler extends ResponseEntityExceptionHan
     }
 
 
+    @ExceptionHandler(IllegalArgumentException.class)
+    public final ResponseEntity<Object> handleIllegalArgumentException(IllegalArgumentException ex) {
+        log.warn("Caught IllegalArgumentException: {}", ex.getLocalizedMessage());
+        ApiResponseDto error = ApiResponseDto.createApiResponseWithErrors("Bad Request", ex.getLocalizedMessage());
+        return new ResponseEntity(error, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public final ResponseEntity<Object> handleAccessDeniedException(AccessDeniedException ex) {
         log.error("Caught AccessDeniedException: ", ex);
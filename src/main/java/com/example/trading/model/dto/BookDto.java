@@ -0,0 +1,58 @@
+package com.example.trading.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Both sides of an instrument at one depth sequence, the orders only when requested
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookDto {
+
+    private String instrument;
+
+    private long sequence;
+
+    private List<LevelDto> bids;
+
+    private List<LevelDto> offers;
+
+    private List<OrderDto> bidOrders;
+
+    private List<OrderDto> offerOrders;
+
+    public BookDto(String instrument, long sequence, List<LevelDto> bids, List<LevelDto> offers,
+                   List<OrderDto> bidOrders, List<OrderDto> offerOrders) {
+        this.instrument = instrument;
+        this.sequence = sequence;
+        this.bids = bids;
+        this.offers = offers;
+        this.bidOrders = bidOrders;
+        this.offerOrders = offerOrders;
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public List<LevelDto> getBids() {
+        return bids;
+    }
+
+    public List<LevelDto> getOffers() {
+        return offers;
+    }
+
+    public List<OrderDto> getBidOrders() {
+        return bidOrders;
+    }
+
+    public List<OrderDto> getOfferOrders() {
+        return offerOrders;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.trading.model.dto;
+
+import java.util.List;
+
+/**
+ * Full depth of an instrument, the level updates with a greater sequence apply on top of it
+ */
+public class DepthSnapshotDto {
+
+    private String instrument;
+
+    private long sequence;
+
+    private List<LevelDto> bids;
+
+    private List<LevelDto> offers;
+
+    public DepthSnapshotDto(String instrument, long sequence, List<LevelDto> bids, List<LevelDto> offers) {
+        this.instrument = instrument;
+        this.sequence = sequence;
+        this.bids = bids;
+        this.offers = offers;
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public List<LevelDto> getBids() {
+        return bids;
+    }
+
+    public List<LevelDto> getOffers() {
+        return offers;
+    }
+}
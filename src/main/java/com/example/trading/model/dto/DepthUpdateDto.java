@@ -0,0 +1,26 @@
+package com.example.trading.model.dto;
+
+import java.util.List;
+
+/**
+ * Levels of an instrument changed by one mutation or one batch, each level once
+ */
+public class DepthUpdateDto {
+
+    private String instrument;
+
+    private List<LevelUpdateDto> levels;
+
+    public DepthUpdateDto(String instrument, List<LevelUpdateDto> levels) {
+        this.instrument = instrument;
+        this.levels = levels;
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public List<LevelUpdateDto> getLevels() {
+        return levels;
+    }
+}
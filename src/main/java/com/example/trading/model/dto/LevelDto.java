@@ -0,0 +1,30 @@
+package com.example.trading.model.dto;
+
+import java.math.BigDecimal;
+
+public class LevelDto {
+
+    private BigDecimal price;
+
+    private long totalSize;
+
+    private int orderCount;
+
+    public LevelDto(BigDecimal price, long totalSize, int orderCount) {
+        this.price = price;
+        this.totalSize = totalSize;
+        this.orderCount = orderCount;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+}
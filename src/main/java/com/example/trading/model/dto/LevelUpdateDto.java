@@ -0,0 +1,47 @@
+package com.example.trading.model.dto;
+
+import java.math.BigDecimal;
+
+public class LevelUpdateDto {
+
+    private String side;
+
+    private BigDecimal price;
+
+    private long totalSize;
+
+    private int orderCount;
+
+    private long sequence;
+
+    public LevelUpdateDto(char side, BigDecimal price, long totalSize, int orderCount, long sequence) {
+        this.side = "" + side;
+        this.price = price;
+        this.totalSize = totalSize;
+        this.orderCount = orderCount;
+        this.sequence = sequence;
+    }
+
+    public String getSide() {
+        return side;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    /**
+     * @return the new total size of the level, 0 when the level is gone
+     */
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+}
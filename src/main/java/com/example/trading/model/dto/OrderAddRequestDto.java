@@ -1,18 +1,29 @@
 package com.example.trading.model.dto;
 
 
+import java.math.BigDecimal;
 import java.util.StringJoiner;
 
 public class OrderAddRequestDto {
 
+    private String instrument;
+
     private Long id;
 
-    private Double price;
+    private BigDecimal price;
 
     private String side;
 
     private Long size;
 
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public void setInstrument(String instrument) {
+        this.instrument = instrument;
+    }
+
     public Long getId() {
         return id;
     }
@@ -21,11 +32,11 @@ public class OrderAddRequestDto {
         this.id = id;
     }
 
-    public Double getPrice() {
+    public BigDecimal getPrice() {
         return price;
     }
 
-    public void setPrice(Double price) {
+    public void setPrice(BigDecimal price) {
         this.price = price;
     }
 
@@ -48,6 +59,7 @@ public class OrderAddRequestDto {
     @Override
     public String toString() {
         return new StringJoiner(", ", OrderAddRequestDto.class.getSimpleName() + "[", "]")
+                .add("instrument=" + instrument)
                 .add("id=" + id)
                 .add("price=" + price)
                 .add("side=" + side)
@@ -0,0 +1,52 @@
+package com.example.trading.model.dto;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.util.StringJoiner;
+
+/**
+ * Amends the size of a resting order: a decrease keeps its time priority, an increase sends it to the end of its level
+ */
+public class OrderAmendRequestDto {
+
+    private String instrument;
+
+    private long id;
+
+    @NotNull
+    @Positive
+    private Long size;
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public void setInstrument(String instrument) {
+        this.instrument = instrument;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", OrderAmendRequestDto.class.getSimpleName() + "[", "]")
+                .add("instrument=" + instrument)
+                .add("id=" + id)
+                .add("size=" + size)
+                .toString();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.trading.model.dto;
+
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Orders of one instrument added in a single batch, the instrument of the orders themselves is ignored
+ */
+public class OrderBulkAddRequestDto {
+
+    private String instrument;
+
+    @NotEmpty
+    private List<OrderAddRequestDto> orders;
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public void setInstrument(String instrument) {
+        this.instrument = instrument;
+    }
+
+    public List<OrderAddRequestDto> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<OrderAddRequestDto> orders) {
+        this.orders = orders;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", OrderBulkAddRequestDto.class.getSimpleName() + "[", "]")
+                .add("instrument=" + instrument)
+                .add("orders=" + (orders == null ? 0 : orders.size()))
+                .toString();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.trading.model.dto;
+
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Orders of one instrument removed in a single batch
+ */
+public class OrderBulkCancelRequestDto {
+
+    private String instrument;
+
+    @NotEmpty
+    private List<Long> ids;
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public void setInstrument(String instrument) {
+        this.instrument = instrument;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", OrderBulkCancelRequestDto.class.getSimpleName() + "[", "]")
+                .add("instrument=" + instrument)
+                .add("ids=" + (ids == null ? 0 : ids.size()))
+                .toString();
+    }
+}
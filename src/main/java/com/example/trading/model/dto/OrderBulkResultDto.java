@@ -0,0 +1,37 @@
+package com.example.trading.model.dto;
+
+import java.util.List;
+
+/**
+ * Per-order outcome of a bulk request, in the order of the request. A cancel-all reports the orders it removed.
+ */
+public class OrderBulkResultDto {
+
+    private String instrument;
+
+    private List<OrderResultDto> results;
+
+    public OrderBulkResultDto() {
+    }
+
+    public OrderBulkResultDto(String instrument, List<OrderResultDto> results) {
+        this.instrument = instrument;
+        this.results = results;
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public void setInstrument(String instrument) {
+        this.instrument = instrument;
+    }
+
+    public List<OrderResultDto> getResults() {
+        return results;
+    }
+
+    public void setResults(List<OrderResultDto> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.trading.model.dto;
+
+import javax.validation.constraints.Pattern;
+import java.math.BigDecimal;
+import java.util.StringJoiner;
+
+/**
+ * Removes every order of an instrument, optionally only of one side and between two prices, both included
+ */
+public class OrderCancelAllRequestDto {
+
+    private String instrument;
+
+    @Pattern(regexp = "^(B|O)$", message = "only `B` or `O` types are allowed")
+    private String side;
+
+    private BigDecimal fromPrice;
+
+    private BigDecimal toPrice;
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public void setInstrument(String instrument) {
+        this.instrument = instrument;
+    }
+
+    public String getSide() {
+        return side;
+    }
+
+    public void setSide(String side) {
+        this.side = side;
+    }
+
+    public BigDecimal getFromPrice() {
+        return fromPrice;
+    }
+
+    public void setFromPrice(BigDecimal fromPrice) {
+        this.fromPrice = fromPrice;
+    }
+
+    public BigDecimal getToPrice() {
+        return toPrice;
+    }
+
+    public void setToPrice(BigDecimal toPrice) {
+        this.toPrice = toPrice;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", OrderCancelAllRequestDto.class.getSimpleName() + "[", "]")
+                .add("instrument=" + instrument)
+                .add("side=" + side)
+                .add("fromPrice=" + fromPrice)
+                .add("toPrice=" + toPrice)
+                .toString();
+    }
+}
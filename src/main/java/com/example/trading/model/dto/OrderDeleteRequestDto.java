@@ -2,8 +2,18 @@ package com.example.trading.model.dto;
 
 public class OrderDeleteRequestDto {
 
+    private String instrument;
+
     private long id;
 
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public void setInstrument(String instrument) {
+        this.instrument = instrument;
+    }
+
     public long getId() {
         return id;
     }
@@ -1,16 +1,18 @@
 package com.example.trading.model.dto;
 
+import java.math.BigDecimal;
+
 public class OrderDto {
 
     private long id;
 
-    private double price;
+    private BigDecimal price;
 
     private String side;
 
     private long size;
 
-    public OrderDto(long id, double price, char side, long size) {
+    public OrderDto(long id, BigDecimal price, char side, long size) {
         this.id = id;
         this.price = price;
         this.size = size;
@@ -21,7 +23,7 @@ public class OrderDto {
         return id;
     }
 
-    public double getPrice() {
+    public BigDecimal getPrice() {
         return price;
     }
 
@@ -0,0 +1,66 @@
+package com.example.trading.model.dto;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+import java.util.StringJoiner;
+
+/**
+ * Cancel-replace of a resting order with a new price and size, the order keeps its id but goes at the end of the new
+ * level and matches when the new price crosses the spread
+ */
+public class OrderReplaceRequestDto {
+
+    private String instrument;
+
+    private long id;
+
+    @NotNull
+    private BigDecimal price;
+
+    @NotNull
+    @Positive
+    private Long size;
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public void setInstrument(String instrument) {
+        this.instrument = instrument;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", OrderReplaceRequestDto.class.getSimpleName() + "[", "]")
+                .add("instrument=" + instrument)
+                .add("id=" + id)
+                .add("price=" + price)
+                .add("size=" + size)
+                .toString();
+    }
+}
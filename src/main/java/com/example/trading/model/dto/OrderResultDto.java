@@ -0,0 +1,50 @@
+package com.example.trading.model.dto;
+
+import com.example.trading.model.enums.OrderResultType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of one order of a bulk request, the message only when it was rejected
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderResultDto {
+
+    private Long id;
+
+    private OrderResultType result;
+
+    private String message;
+
+    public OrderResultDto() {
+    }
+
+    public OrderResultDto(Long id, OrderResultType result, String message) {
+        this.id = id;
+        this.result = result;
+        this.message = message;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public OrderResultType getResult() {
+        return result;
+    }
+
+    public void setResult(OrderResultType result) {
+        this.result = result;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
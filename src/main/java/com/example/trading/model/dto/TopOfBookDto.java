@@ -0,0 +1,48 @@
+package com.example.trading.model.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Best levels of both sides of an instrument at one depth sequence, the spread is null when a side is empty
+ */
+public class TopOfBookDto {
+
+    private String instrument;
+
+    private long sequence;
+
+    private List<LevelDto> bids;
+
+    private List<LevelDto> offers;
+
+    private BigDecimal spread;
+
+    public TopOfBookDto(String instrument, long sequence, List<LevelDto> bids, List<LevelDto> offers, BigDecimal spread) {
+        this.instrument = instrument;
+        this.sequence = sequence;
+        this.bids = bids;
+        this.offers = offers;
+        this.spread = spread;
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public List<LevelDto> getBids() {
+        return bids;
+    }
+
+    public List<LevelDto> getOffers() {
+        return offers;
+    }
+
+    public BigDecimal getSpread() {
+        return spread;
+    }
+}
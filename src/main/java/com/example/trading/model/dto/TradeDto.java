@@ -0,0 +1,57 @@
+package com.example.trading.model.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Fill of a resting order by an incoming one, at the price of the resting order
+ */
+public class TradeDto {
+
+    private String instrument;
+
+    private long takerOrderId;
+
+    private long makerOrderId;
+
+    private BigDecimal price;
+
+    private long size;
+
+    private long timestamp;
+
+    public TradeDto(String instrument, long takerOrderId, long makerOrderId, BigDecimal price, long size, long timestamp) {
+        this.instrument = instrument;
+        this.takerOrderId = takerOrderId;
+        this.makerOrderId = makerOrderId;
+        this.price = price;
+        this.size = size;
+        this.timestamp = timestamp;
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public long getTakerOrderId() {
+        return takerOrderId;
+    }
+
+    public long getMakerOrderId() {
+        return makerOrderId;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the time of the fill, in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -1,24 +1,33 @@
 package com.example.trading.model.entity;
 
+import com.example.trading.service.PriceTicks;
+
 public class Order {
     private long id; // id of order
-    private double price;
+    private long priceTicks; // price in ticks, see PriceTicks
     private char side; // B "Bid" or O "Offer "
     private long size;
 
-    public Order(long id, double price, char side, long size) {
+    public Order(long id, long priceTicks, char side, long size) {
         this.id = id;
-        this.price = price;
+        this.priceTicks = priceTicks;
         this.size = size;
         this.side = side;
     }
 
+    /**
+     * Convenience for the tests and the benchmarks, the price is rounded to the book resolution
+     */
+    public Order(long id, double price, char side, long size) {
+        this(id, PriceTicks.toTicks(price), side, size);
+    }
+
     public long getId() {
         return id;
     }
 
-    public double getPrice() {
-        return price;
+    public long getPriceTicks() {
+        return priceTicks;
     }
 
     public long getSize() {
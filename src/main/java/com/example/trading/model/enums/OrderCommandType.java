@@ -0,0 +1,5 @@
+package com.example.trading.model.enums;
+
+public enum OrderCommandType {
+    ADD, REMOVE, UPDATE, REPLACE, REMOVE_RANGE, BATCH
+}
@@ -0,0 +1,5 @@
+package com.example.trading.model.enums;
+
+public enum OrderResultType {
+    ACCEPTED, NOT_FOUND, REJECTED
+}
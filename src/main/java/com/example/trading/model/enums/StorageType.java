@@ -0,0 +1,14 @@
+package com.example.trading.model.enums;
+
+import java.util.Locale;
+
+public enum StorageType {
+    HEAP, OFF_HEAP;
+
+    /**
+     * @param property - heap or off-heap
+     */
+    public static StorageType fromProperty(String property) {
+        return valueOf(property.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.trading.service;
+
+/**
+ * Aggregated state of one price level
+ */
+public class DepthLevel {
+
+    private final long priceTicks;
+    private final long totalSize;
+    private final int orderCount;
+
+    public DepthLevel(long priceTicks, long totalSize, int orderCount) {
+        this.priceTicks = priceTicks;
+        this.totalSize = totalSize;
+        this.orderCount = orderCount;
+    }
+
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    public long getTotalSize() {
+        return totalSize;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.trading.service;
+
+/**
+ * Receives the price levels changed by a mutation of the {@link OrderBook}, or by a whole batch, each changed level
+ * being reported once with its final state. It is called on the mutating thread while the book is locked, so
+ * implementations must be cheap and must not call back into the book.
+ */
+public interface DepthListener {
+
+    /**
+     * Called once when the listener is added, with the depth the following updates apply to
+     *
+     * @param depthSnapshot - full depth of the book
+     */
+    default void onAttached(DepthSnapshot depthSnapshot) {
+    }
+
+    /**
+     * @param side       - B "Bid" or O "Offer"
+     * @param priceTicks - price of the level in ticks
+     * @param totalSize  - new total size of the level, 0 when the level is gone
+     * @param orderCount - new number of orders of the level, 0 when the level is gone
+     * @param sequence   - depth sequence of the book, incremented by one per level update
+     */
+    void onLevelUpdate(char side, long priceTicks, long totalSize, int orderCount, long sequence);
+
+    /**
+     * Called after the last level update of a mutation or of a batch
+     */
+    void onUpdateEnd();
+}
@@ -0,0 +1,44 @@
+package com.example.trading.service;
+
+import java.util.List;
+
+/**
+ * Aggregated depth of both sides of an {@link OrderBook}, best price first, at a depth sequence. The level updates
+ * with a greater sequence apply on top of it.
+ */
+public class DepthSnapshot {
+
+    private final long sequence;
+    private final List<DepthLevel> bids;
+    private final List<DepthLevel> offers;
+
+    public DepthSnapshot(long sequence, List<DepthLevel> bids, List<DepthLevel> offers) {
+        this.sequence = sequence;
+        this.bids = bids;
+        this.offers = offers;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public List<DepthLevel> getBids() {
+        return bids;
+    }
+
+    public List<DepthLevel> getOffers() {
+        return offers;
+    }
+
+    /**
+     * @param levels - maximum number of levels per side
+     * @return this snapshot truncated to the levels, sharing the level lists
+     */
+    public DepthSnapshot limit(int levels) {
+        if (bids.size() <= levels && offers.size() <= levels) {
+            return this;
+        }
+        return new DepthSnapshot(sequence, bids.subList(0, Math.min(levels, bids.size())),
+                offers.subList(0, Math.min(levels, offers.size())));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.trading.service;
+
+import java.util.Arrays;
+
+/**
+ * {@link OrderStore} in parallel primitive arrays, one per field.
+ * Not thread safe.
+ */
+class HeapOrderStore implements OrderStore {
+
+    private long[] ids;
+    private long[] prices;
+    private long[] sizes;
+    private long[] priorities;
+    private char[] sides;
+    private int[] previous;
+    private int[] next;
+
+    private int freeHead = NULL;
+    // slots below this index were handed out at least once
+    private int highWaterMark;
+    private int size;
+
+    HeapOrderStore(int initialCapacity) {
+        ids = new long[initialCapacity];
+        prices = new long[initialCapacity];
+        sizes = new long[initialCapacity];
+        priorities = new long[initialCapacity];
+        sides = new char[initialCapacity];
+        previous = new int[initialCapacity];
+        next = new int[initialCapacity];
+    }
+
+    @Override
+    public int allocate(long id, long price, char side, long size) {
+        int slot;
+        if (freeHead != NULL) {
+            slot = freeHead;
+            freeHead = next[slot];
+        } else {
+            if (highWaterMark == ids.length) {
+                grow();
+            }
+            slot = highWaterMark++;
+        }
+        ids[slot] = id;
+        prices[slot] = price;
+        sides[slot] = side;
+        sizes[slot] = size;
+        previous[slot] = NULL;
+        next[slot] = NULL;
+        this.size++;
+        return slot;
+    }
+
+    @Override
+    public void release(int slot) {
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+    }
+
+    @Override
+    public long getId(int slot) {
+        return ids[slot];
+    }
+
+    @Override
+    public long getPrice(int slot) {
+        return prices[slot];
+    }
+
+    @Override
+    public char getSide(int slot) {
+        return sides[slot];
+    }
+
+    @Override
+    public long getSize(int slot) {
+        return sizes[slot];
+    }
+
+    @Override
+    public void setSize(int slot, long size) {
+        sizes[slot] = size;
+    }
+
+    @Override
+    public void setPrice(int slot, long price) {
+        prices[slot] = price;
+    }
+
+    @Override
+    public long getPriority(int slot) {
+        return priorities[slot];
+    }
+
+    @Override
+    public void setPriority(int slot, long priority) {
+        priorities[slot] = priority;
+    }
+
+    @Override
+    public int getPrevious(int slot) {
+        return previous[slot];
+    }
+
+    @Override
+    public void setPrevious(int slot, int previousSlot) {
+        previous[slot] = previousSlot;
+    }
+
+    @Override
+    public int getNext(int slot) {
+        return next[slot];
+    }
+
+    @Override
+    public void setNext(int slot, int nextSlot) {
+        next[slot] = nextSlot;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, ids.length << 1);
+        ids = Arrays.copyOf(ids, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        sides = Arrays.copyOf(sides, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        next = Arrays.copyOf(next, capacity);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.trading.service;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing (linear probing) map from a primitive long key to a non negative int value, used to find the
+ * storage slot of an order by its id without boxing. Removal shifts the following entries back instead of
+ * leaving tombstones, so the map allocates only when it grows: 12 bytes per bucket, a power of two number of buckets
+ * at most half full. {@link OffHeapLongIntHashMap} is the same map outside of the heap.
+ * Not thread safe.
+ */
+class LongIntHashMap implements LongIntIndex {
+
+    static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    // MISSING marks a free bucket
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    LongIntHashMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    @Override
+    public int get(long key) {
+        int index = bucketOf(key);
+        while (values[index] != MISSING) {
+            if (keys[index] == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    @Override
+    public int put(long key, int value) {
+        int index = bucketOf(key);
+        while (values[index] != MISSING) {
+            if (keys[index] == key) {
+                int previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(values.length << 1);
+        }
+        return MISSING;
+    }
+
+    @Override
+    public int remove(long key) {
+        int index = bucketOf(key);
+        while (values[index] != MISSING) {
+            if (keys[index] == key) {
+                int removed = values[index];
+                shiftBack(index);
+                size--;
+                return removed;
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long memoryBytes() {
+        return (long) values.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * Moves back the entries of the probe sequence following the freed bucket, so that every entry stays reachable
+     * from its home bucket
+     *
+     * @param freed - the bucket of the removed entry
+     */
+    private void shiftBack(int freed) {
+        int index = freed;
+        while (true) {
+            index = (index + 1) & mask;
+            if (values[index] == MISSING) {
+                break;
+            }
+            int home = bucketOf(keys[index]);
+            // the entry can move to the freed bucket only if its home bucket isn't cyclically in (freed, index]
+            if (((index - home) & mask) >= ((index - freed) & mask)) {
+                keys[freed] = keys[index];
+                values[freed] = values[index];
+                freed = index;
+            }
+        }
+        values[freed] = MISSING;
+    }
+
+    private int bucketOf(long key) {
+        return hash(key) & mask;
+    }
+
+    static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * @return the power of two number of buckets holding the entries without growing
+     */
+    static int capacityFor(int expectedSize) {
+        return Integer.highestOneBit(Math.max(2, (int) Math.min(1 << 30, (long) (expectedSize / LOAD_FACTOR))) - 1) << 1;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, MISSING);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != MISSING) {
+                int index = bucketOf(oldKeys[i]);
+                while (values[index] != MISSING) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
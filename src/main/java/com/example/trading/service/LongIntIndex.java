@@ -0,0 +1,48 @@
+package com.example.trading.service;
+
+import com.example.trading.model.enums.StorageType;
+
+/**
+ * Map from the id of an order to its storage slot, with primitive keys and values. Not thread safe, the book
+ * accesses it under its lock.
+ */
+public interface LongIntIndex {
+
+    int MISSING = -1;
+
+    /**
+     * @param storage      - heap arrays or direct buffers
+     * @param expectedSize - entries held without growing
+     */
+    static LongIntIndex create(StorageType storage, int expectedSize) {
+        return storage == StorageType.OFF_HEAP
+                ? new OffHeapLongIntHashMap(expectedSize)
+                : new LongIntHashMap(expectedSize);
+    }
+
+    /**
+     * @param key - key
+     * @return the value of the key or {@link #MISSING}
+     */
+    int get(long key);
+
+    /**
+     * @param key   - key
+     * @param value - non negative value
+     * @return the previous value of the key or {@link #MISSING}
+     */
+    int put(long key, int value);
+
+    /**
+     * @param key - key
+     * @return the removed value or {@link #MISSING}
+     */
+    int remove(long key);
+
+    int size();
+
+    /**
+     * @return the bytes taken by the buckets, whatever the number of entries
+     */
+    long memoryBytes();
+}
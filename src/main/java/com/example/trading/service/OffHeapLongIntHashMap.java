@@ -0,0 +1,159 @@
+package com.example.trading.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static java.lang.String.format;
+
+/**
+ * {@link LongIntHashMap} with its buckets in direct buffers, so that an index of tens of millions of orders neither
+ * weighs on the heap size nor gets copied by the collector. Same probing, removal and 12 bytes per bucket, plus the
+ * bounds checks of the buffers. The buffers of a grown map are freed when the collector reclaims them, size it for
+ * the expected orders to avoid growing.
+ * Not thread safe.
+ */
+class OffHeapLongIntHashMap implements LongIntIndex {
+
+    // a buffer is indexed by an int, the keys of 2^27 buckets take 1 GiB
+    static final int MAX_CAPACITY = 1 << 27;
+
+    private ByteBuffer keys;
+    // MISSING marks a free bucket
+    private ByteBuffer values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    OffHeapLongIntHashMap(int expectedSize) {
+        allocate(Math.min(MAX_CAPACITY, LongIntHashMap.capacityFor(expectedSize)));
+    }
+
+    @Override
+    public int get(long key) {
+        int index = bucketOf(key);
+        int value;
+        while ((value = valueAt(index)) != MISSING) {
+            if (keyAt(index) == key) {
+                return value;
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    @Override
+    public int put(long key, int value) {
+        int index = bucketOf(key);
+        int previous;
+        while ((previous = valueAt(index)) != MISSING) {
+            if (keyAt(index) == key) {
+                setValue(index, value);
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        if (size == resizeThreshold && mask + 1 == MAX_CAPACITY) {
+            throw new IllegalStateException(format("Off-heap index is full with %d orders", size));
+        }
+        keys.putLong(index << 3, key);
+        setValue(index, value);
+        if (++size > resizeThreshold) {
+            rehash((mask + 1) << 1);
+        }
+        return MISSING;
+    }
+
+    @Override
+    public int remove(long key) {
+        int index = bucketOf(key);
+        int removed;
+        while ((removed = valueAt(index)) != MISSING) {
+            if (keyAt(index) == key) {
+                shiftBack(index);
+                size--;
+                return removed;
+            }
+            index = (index + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long memoryBytes() {
+        return (long) keys.capacity() + values.capacity();
+    }
+
+    /**
+     * See {@link LongIntHashMap}
+     *
+     * @param freed - the bucket of the removed entry
+     */
+    private void shiftBack(int freed) {
+        int index = freed;
+        while (true) {
+            index = (index + 1) & mask;
+            int value = valueAt(index);
+            if (value == MISSING) {
+                break;
+            }
+            long key = keyAt(index);
+            int home = bucketOf(key);
+            if (((index - home) & mask) >= ((index - freed) & mask)) {
+                keys.putLong(freed << 3, key);
+                setValue(freed, value);
+                freed = index;
+            }
+        }
+        setValue(freed, MISSING);
+    }
+
+    private long keyAt(int index) {
+        return keys.getLong(index << 3);
+    }
+
+    private int valueAt(int index) {
+        return values.getInt(index << 2);
+    }
+
+    private void setValue(int index, int value) {
+        values.putInt(index << 2, value);
+    }
+
+    private int bucketOf(long key) {
+        return LongIntHashMap.hash(key) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = ByteBuffer.allocateDirect(capacity << 3).order(ByteOrder.nativeOrder());
+        values = ByteBuffer.allocateDirect(capacity << 2).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < capacity; i++) {
+            setValue(i, MISSING);
+        }
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LongIntHashMap.LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        ByteBuffer oldKeys = keys;
+        ByteBuffer oldValues = values;
+        int oldCapacity = mask + 1;
+        allocate(capacity);
+        for (int i = 0; i < oldCapacity; i++) {
+            int value = oldValues.getInt(i << 2);
+            if (value != MISSING) {
+                long key = oldKeys.getLong(i << 3);
+                int index = bucketOf(key);
+                while (valueAt(index) != MISSING) {
+                    index = (index + 1) & mask;
+                }
+                keys.putLong(index << 3, key);
+                setValue(index, value);
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.trading.service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static java.lang.String.format;
+
+/**
+ * {@link OrderStore} in a direct buffer of fixed-size records, so that millions of resting orders neither weigh on
+ * the heap size nor get copied or scanned by the collector. A record is 48 bytes: id, price, size, previous, next,
+ * side and priority, the longs aligned on 8 bytes. The buffer of a grown store is freed when the collector reclaims it, size the
+ * store for the expected orders to avoid growing.
+ * Not thread safe.
+ */
+class OffHeapOrderStore implements OrderStore {
+
+    private static final int ID = 0;
+    private static final int PRICE = 8;
+    private static final int SIZE = 16;
+    private static final int PREVIOUS = 24;
+    private static final int NEXT = 28;
+    private static final int SIDE = 32;
+    private static final int PRIORITY = 40;
+    static final int RECORD_SIZE = 48;
+    // a buffer is indexed by an int
+    static final int MAX_CAPACITY = Integer.MAX_VALUE / RECORD_SIZE;
+
+    private ByteBuffer records;
+    private int capacity;
+
+    private int freeHead = NULL;
+    // slots below this index were handed out at least once
+    private int highWaterMark;
+    private int size;
+
+    OffHeapOrderStore(int initialCapacity) {
+        capacity = Math.max(16, Math.min(MAX_CAPACITY, initialCapacity));
+        records = ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    @Override
+    public int allocate(long id, long price, char side, long size) {
+        int slot;
+        if (freeHead != NULL) {
+            slot = freeHead;
+            freeHead = getNext(slot);
+        } else {
+            if (highWaterMark == capacity) {
+                grow();
+            }
+            slot = highWaterMark++;
+        }
+        int offset = slot * RECORD_SIZE;
+        records.putLong(offset + ID, id);
+        records.putLong(offset + PRICE, price);
+        records.putLong(offset + SIZE, size);
+        records.putInt(offset + PREVIOUS, NULL);
+        records.putInt(offset + NEXT, NULL);
+        records.putChar(offset + SIDE, side);
+        this.size++;
+        return slot;
+    }
+
+    @Override
+    public void release(int slot) {
+        setNext(slot, freeHead);
+        freeHead = slot;
+        size--;
+    }
+
+    @Override
+    public long getId(int slot) {
+        return records.getLong(slot * RECORD_SIZE + ID);
+    }
+
+    @Override
+    public long getPrice(int slot) {
+        return records.getLong(slot * RECORD_SIZE + PRICE);
+    }
+
+    @Override
+    public char getSide(int slot) {
+        return records.getChar(slot * RECORD_SIZE + SIDE);
+    }
+
+    @Override
+    public long getSize(int slot) {
+        return records.getLong(slot * RECORD_SIZE + SIZE);
+    }
+
+    @Override
+    public void setSize(int slot, long size) {
+        records.putLong(slot * RECORD_SIZE + SIZE, size);
+    }
+
+    @Override
+    public void setPrice(int slot, long price) {
+        records.putLong(slot * RECORD_SIZE + PRICE, price);
+    }
+
+    @Override
+    public long getPriority(int slot) {
+        return records.getLong(slot * RECORD_SIZE + PRIORITY);
+    }
+
+    @Override
+    public void setPriority(int slot, long priority) {
+        records.putLong(slot * RECORD_SIZE + PRIORITY, priority);
+    }
+
+    @Override
+    public int getPrevious(int slot) {
+        return records.getInt(slot * RECORD_SIZE + PREVIOUS);
+    }
+
+    @Override
+    public void setPrevious(int slot, int previousSlot) {
+        records.putInt(slot * RECORD_SIZE + PREVIOUS, previousSlot);
+    }
+
+    @Override
+    public int getNext(int slot) {
+        return records.getInt(slot * RECORD_SIZE + NEXT);
+    }
+
+    @Override
+    public void setNext(int slot, int nextSlot) {
+        records.putInt(slot * RECORD_SIZE + NEXT, nextSlot);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        if (capacity == MAX_CAPACITY) {
+            throw new IllegalStateException(format("Off-heap order store is full with %d orders", size));
+        }
+        capacity = (int) Math.min(MAX_CAPACITY, (long) capacity << 1);
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+        grown.put(0, records, 0, highWaterMark * RECORD_SIZE);
+        records = grown;
+    }
+}
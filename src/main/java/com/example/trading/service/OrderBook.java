@@ -1,235 +1,697 @@
 package com.example.trading.service;
 
 import com.example.trading.model.entity.Order;
-import com.example.trading.model.entity.OrdersByLevel;
 import com.example.trading.model.enums.OrderSideType;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Component;
-import org.springframework.util.CollectionUtils;
+import com.example.trading.model.enums.StorageType;
+import com.example.trading.service.codec.OrderMessageHandler;
+import com.example.trading.service.engine.OrderCommand;
+import com.example.trading.service.eventlog.EventLog;
+import com.example.trading.service.eventlog.EventType;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListSet;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
 
 import static java.lang.String.format;
 
-@Component
 public class OrderBook {
-    private final Logger logger = LoggerFactory.getLogger(OrderBook.class);
+    private static final int INITIAL_CAPACITY = 1024;
 
-    private Map<Long, Order> idToOrder = new ConcurrentHashMap<>();
-    private Map<Double, List<Order>> priceToBidList = new ConcurrentHashMap<>();
-    private Map<Double, List<Order>> priceToOfferList = new ConcurrentHashMap<>();
-
-    private List<OrdersByLevel> bidToOfferByLevels = new ArrayList<>();
-    private Comparator<Double> comparator = (Double::compareTo);
-    private ConcurrentSkipListSet<Double> bidPriceSet = new ConcurrentSkipListSet<>(comparator.reversed());
-    private ConcurrentSkipListSet<Double> offerPriceSet = new ConcurrentSkipListSet<>();
+    // the mutations take the write lock and the reads share the read lock. Unlike a monitor, a virtual thread
+    // blocked on it unmounts from its carrier thread
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+    private final OrderStore orderStore;
+    private final LongIntIndex idToSlot;
+    private PriceLadder bidLadder = new PriceLadder(true);
+    private PriceLadder offerLadder = new PriceLadder(false);
+    private TradeListener tradeListener = TradeListener.NONE;
+    private OrderMessageHandler journal;
+    private String instrument;
+    private DepthListener[] depthListeners = new DepthListener[0];
+    private long depthSequence;
+    // priority of the last order appended to a level
+    private long lastPriority;
+    // the depth updates of a batch are published once, at its end
+    private boolean inBatch;
+    private LongConsumer depthPublishTimer;
+    // present only in the sampled trace mode
+    private EventLog eventLog;
 
     public OrderBook() {
+        this(StorageType.HEAP, StorageType.HEAP, INITIAL_CAPACITY);
     }
 
-    public void addOrder(Order order) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(format("Calling method ---- addOrder --- for order : {}", order));
+    /**
+     * @param orderStorage   - storage of the resting orders, off-heap keeps them out of the collector's way
+     * @param indexStorage   - storage of the order id index, likewise
+     * @param expectedOrders - resting orders the storage and the index hold without growing
+     */
+    public OrderBook(StorageType orderStorage, StorageType indexStorage, int expectedOrders) {
+        orderStore = OrderStore.create(orderStorage, expectedOrders);
+        idToSlot = LongIntIndex.create(indexStorage, expectedOrders);
+    }
+
+    public void setTradeListener(TradeListener tradeListener) {
+        writeLock.lock();
+        try {
+            this.tradeListener = tradeListener;
+        } finally {
+            writeLock.unlock();
         }
-        if (order.getSide() == OrderSideType.BID.getSide()) {
-            List<Order> orderList = getBucketWithOrderList(priceToBidList, order.getPrice());
-            orderList.add(order);
-            bidPriceSet.add(order.getPrice());
-        } else {
-            List<Order> orderList = getBucketWithOrderList(priceToOfferList, order.getPrice());
-            orderList.add(order);
-            offerPriceSet.add(order.getPrice());
+    }
+
+    /**
+     * The listener receives the changed levels after every mutation, or after every batch
+     *
+     * @param depthListener - receiver of the level updates
+     */
+    public void addDepthListener(DepthListener depthListener) {
+        writeLock.lock();
+        try {
+            depthListeners = Arrays.copyOf(depthListeners, depthListeners.length + 1);
+            depthListeners[depthListeners.length - 1] = depthListener;
+            depthListener.onAttached(snapshotDepth(Integer.MAX_VALUE));
+        } finally {
+            writeLock.unlock();
         }
-        idToOrder.put(order.getId(), order);
-        assignLevels();
     }
 
-    public void removeOrder(long orderId) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(format("Calling method ---- removeOrder --- for orderId : {}", orderId));
+    /**
+     * @param depthPublishTimer - receives the nanoseconds spent publishing the changed levels of each mutation or
+     *                          batch to the depth listeners, null to stop timing
+     */
+    public void setDepthPublishTimer(LongConsumer depthPublishTimer) {
+        writeLock.lock();
+        try {
+            this.depthPublishTimer = depthPublishTimer;
+        } finally {
+            writeLock.unlock();
         }
-        Order order = idToOrder.get(orderId);
-        if (order == null) {
-            return;
+    }
+
+    /**
+     * Every accepted mutation is handed to the journal before it is applied, under the book lock so the journal
+     * keeps the order in which the mutations were applied. The journal only appends: the mutation is applied and its
+     * depth published to the listeners (views, streams, market data, trades) before the record is forced to disk.
+     * A crash in between loses a mutation the listeners have already seen, which the caller never got acknowledged.
+     *
+     * @param journal    - write-ahead journal, null to stop journaling
+     * @param instrument - instrument of the book, recorded with the commands
+     */
+    public void setJournal(OrderMessageHandler journal, String instrument) {
+        writeLock.lock();
+        try {
+            this.journal = journal;
+            this.instrument = instrument;
+        } finally {
+            writeLock.unlock();
         }
-        if (order.getSide() == OrderSideType.BID.getSide()) {
-            List<Order> orderList = getBucketWithOrderList(priceToBidList, order.getPrice());
-            orderList.remove(order);
-            if(orderList.size() == 0) {
-                bidPriceSet.remove(order.getPrice());
+    }
+
+    /**
+     * The mutations are traced to the event log, which samples them
+     *
+     * @param eventLog   - event log in the trace mode, null to stop tracing
+     * @param instrument - instrument of the book, recorded with the events
+     */
+    public void setEventLog(EventLog eventLog, String instrument) {
+        writeLock.lock();
+        try {
+            this.eventLog = eventLog;
+            this.instrument = instrument;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void addOrder(Order order) {
+        addOrder(order.getId(), order.getPriceTicks(), order.getSide(), order.getSize());
+    }
+
+    /**
+     * Matches the order against the opposite side while it crosses the spread, then rests the remaining size
+     * at the end of its price level. The book itself allocates nothing once it reached its steady size, but the
+     * depth listeners run inside the mutation: the {@link com.example.trading.service.view.BookViewRegistry} view
+     * copies the levels of the changed side, about 20 bytes per level, once per mutation or per batch
+     *
+     * @param orderId    - id of the order
+     * @param priceTicks - price in ticks, see {@link PriceTicks}
+     * @param side       - B "Bid" or O "Offer"
+     * @param size       - size of the order
+     */
+    public void addOrder(long orderId, long priceTicks, char side, long size) {
+        writeLock.lock();
+        try {
+            if (eventLog != null) {
+                eventLog.trace(EventType.ADD_ORDER, instrument, orderId, priceTicks, side, size);
             }
-        } else {
-            List<Order> orderList = getBucketWithOrderList(priceToOfferList, order.getPrice());
-            orderList.remove(order);
-            if(orderList.size() == 0) {
-                offerPriceSet.remove(order.getPrice());
+            if (idToSlot.get(orderId) != LongIntIndex.MISSING) {
+                throw new IllegalArgumentException(format("Order with id %d already exists", orderId));
+            }
+            if (journal != null) {
+                journal.onAdd(instrument, orderId, priceTicks, side, size);
             }
+            long remainingSize = match(orderId, priceTicks, side, size);
+            if (remainingSize > 0) {
+                int slot = orderStore.allocate(orderId, priceTicks, side, remainingSize);
+                PriceLadder ladder = getLadder(side);
+                ladder.getOrCreateLevel(priceTicks).append(orderStore, slot, ++lastPriority);
+                markChanged(ladder, priceTicks);
+                idToSlot.put(orderId, slot);
+            }
+            publishDepth();
+        } finally {
+            writeLock.unlock();
         }
-        idToOrder.remove(orderId);
-        assignLevels();
     }
 
-    public void updateOrder(long orderId, long newSize) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(format("Calling method ---- updateOrder --- for orderId : {} and size: {}", orderId, newSize));
+    /**
+     * @param orderId - id of the order
+     * @return false when the order isn't in the book, e.g. it was already filled
+     */
+    public boolean removeOrder(long orderId) {
+        writeLock.lock();
+        try {
+            if (eventLog != null) {
+                eventLog.trace(EventType.REMOVE_ORDER, instrument, orderId, 0, 0, 0);
+            }
+            int slot = idToSlot.remove(orderId);
+            if (slot == LongIntIndex.MISSING) {
+                return false;
+            }
+            if (journal != null) {
+                journal.onRemove(instrument, orderId);
+            }
+            PriceLadder ladder = getLadder(orderStore.getSide(slot));
+            PriceLevel level = ladder.getLevel(orderStore.getPrice(slot));
+            level.unlink(orderStore, slot);
+            ladder.removeLevelIfEmpty(level);
+            markChanged(ladder, orderStore.getPrice(slot));
+            orderStore.release(slot);
+            publishDepth();
+            return true;
+        } finally {
+            writeLock.unlock();
         }
-        Order order = idToOrder.get(orderId);
-        if (order == null) {
-            return;
+    }
+
+    /**
+     * Amends the size of a resting order in place: a decrease keeps its time priority, an increase sends it to the
+     * end of its level. An unknown order is ignored, like for a remove.
+     *
+     * @param orderId - id of the order
+     * @param newSize - new size of the order, positive: an order is taken out of the book by a remove
+     * @return false when the order isn't in the book
+     * @throws IllegalArgumentException when the new size isn't positive
+     */
+    public boolean updateOrder(long orderId, long newSize) {
+        writeLock.lock();
+        try {
+            if (eventLog != null) {
+                eventLog.trace(EventType.UPDATE_ORDER, instrument, orderId, newSize, 0, 0);
+            }
+            if (newSize <= 0) {
+                throw new IllegalArgumentException(format("Size of order %d must be positive, remove it instead", orderId));
+            }
+            return amendSize(orderId, newSize);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Amends the size of the order under the write lock, the size being already validated
+     */
+    private boolean amendSize(long orderId, long newSize) {
+        int slot = idToSlot.get(orderId);
+        if (slot == LongIntIndex.MISSING) {
+            return false;
+        }
+        long currentSize = orderStore.getSize(slot);
+        if (newSize == currentSize) {
+            return true;
+        }
+        if (journal != null) {
+            journal.onUpdate(instrument, orderId, newSize);
         }
-        Order newOrder = new Order(orderId, order.getPrice(), order.getSide(), newSize);
-        List<Order> orderList;
-        if (order.getSide() == OrderSideType.BID.getSide()) {
-            orderList = getBucketWithOrderList(priceToBidList, order.getPrice());
+        // the price remains the same, no need to modify the ladders
+        PriceLadder ladder = getLadder(orderStore.getSide(slot));
+        PriceLevel level = ladder.getLevel(orderStore.getPrice(slot));
+        if (newSize < currentSize) {
+            level.reduceSize(orderStore, slot, currentSize - newSize);
         } else {
-            orderList = getBucketWithOrderList(priceToOfferList, order.getPrice());
+            level.unlink(orderStore, slot);
+            orderStore.setSize(slot, newSize);
+            level.append(orderStore, slot, ++lastPriority);
         }
-        orderList.remove(order);
-        orderList.add(newOrder);
-        idToOrder.put(orderId, newOrder);
-        // no need to modify the priceQueues since the prices remains the same
-        assignLevels();
+        markChanged(ladder, orderStore.getPrice(slot));
+        publishDepth();
+        return true;
     }
 
-    public Double getPrice(char side, int level) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(format("Calling method ---- getPrice --- for side : {} and level: {}", side, level));
+    /**
+     * Cancel-replace of a resting order with a new price and size. The order keeps its id and its slot: it leaves its
+     * level, matches the opposite side when the new price crosses the spread and rests the remaining size at the end
+     * of the new level. Replacing with the same price is an amend, see {@link #updateOrder(long, long)}.
+     *
+     * @param orderId       - id of the order
+     * @param newPriceTicks - new price in ticks, see {@link PriceTicks}
+     * @param newSize       - new size of the order
+     * @return false when the order isn't in the book
+     */
+    public boolean replaceOrder(long orderId, long newPriceTicks, long newSize) {
+        writeLock.lock();
+        try {
+            if (eventLog != null) {
+                eventLog.trace(EventType.REPLACE_ORDER, instrument, orderId, newPriceTicks, newSize, 0);
+            }
+            if (newSize <= 0) {
+                throw new IllegalArgumentException(format("Size of order %d must be positive, remove it instead", orderId));
+            }
+            int slot = idToSlot.get(orderId);
+            if (slot == LongIntIndex.MISSING) {
+                return false;
+            }
+            long oldPriceTicks = orderStore.getPrice(slot);
+            if (newPriceTicks == oldPriceTicks) {
+                // traced once, as the replace it is
+                return amendSize(orderId, newSize);
+            }
+            if (journal != null) {
+                journal.onReplace(instrument, orderId, newPriceTicks, newSize);
+            }
+            char side = orderStore.getSide(slot);
+            PriceLadder ladder = getLadder(side);
+            PriceLevel oldLevel = ladder.getLevel(oldPriceTicks);
+            oldLevel.unlink(orderStore, slot);
+            ladder.removeLevelIfEmpty(oldLevel);
+            markChanged(ladder, oldPriceTicks);
+            // the order isn't resting while it matches
+            idToSlot.remove(orderId);
+            long remainingSize = match(orderId, newPriceTicks, side, newSize);
+            if (remainingSize > 0) {
+                orderStore.setPrice(slot, newPriceTicks);
+                orderStore.setSize(slot, remainingSize);
+                ladder.getOrCreateLevel(newPriceTicks).append(orderStore, slot, ++lastPriority);
+                markChanged(ladder, newPriceTicks);
+                idToSlot.put(orderId, slot);
+            } else {
+                orderStore.release(slot);
+            }
+            publishDepth();
+            return true;
+        } finally {
+            writeLock.unlock();
         }
-        if(bidToOfferByLevels.size() == 0) {
-            return null;
+    }
+
+    /**
+     * Removes every order of the side resting between the two prices, both included, level by level. Each removed
+     * order is journaled as a remove.
+     *
+     * @param side            - B "Bid" or O "Offer"
+     * @param minPriceTicks   - lowest price in ticks, {@link Long#MIN_VALUE} for no bound
+     * @param maxPriceTicks   - highest price in ticks, {@link Long#MAX_VALUE} for no bound
+     * @param removedOrderIds - receives the id of every removed order
+     * @return the number of removed orders
+     */
+    public int removeOrders(char side, long minPriceTicks, long maxPriceTicks, LongConsumer removedOrderIds) {
+        writeLock.lock();
+        try {
+            PriceLadder ladder = getLadder(side);
+            // the levels of the range are contiguous, starting from the best price of the range
+            int index = ladder.getLevelIndexFrom(side == OrderSideType.BID.getSide() ? maxPriceTicks : minPriceTicks);
+            int removed = 0;
+            while (index < ladder.getDepth()) {
+                PriceLevel level = ladder.getLevelAt(index);
+                long price = level.getPrice();
+                if (price < minPriceTicks || price > maxPriceTicks) {
+                    break;
+                }
+                while (!level.isEmpty()) {
+                    int slot = level.getHead();
+                    long orderId = orderStore.getId(slot);
+                    if (journal != null) {
+                        journal.onRemove(instrument, orderId);
+                    }
+                    level.unlink(orderStore, slot);
+                    idToSlot.remove(orderId);
+                    orderStore.release(slot);
+                    removedOrderIds.accept(orderId);
+                    removed++;
+                }
+                // the next level moves to the same index
+                ladder.removeLevelIfEmpty(level);
+                markChanged(ladder, price);
+            }
+            if (eventLog != null) {
+                eventLog.trace(EventType.REMOVE_ORDERS, instrument, side, minPriceTicks, maxPriceTicks, removed);
+            }
+            publishDepth();
+            return removed;
+        } finally {
+            writeLock.unlock();
         }
-        synchronized (bidToOfferByLevels) {
-            OrdersByLevel ordersByLevel = bidToOfferByLevels.get(level - 1);
-            if (side == OrderSideType.BID.getSide()) {
-                return ordersByLevel.getBidPrice();
+    }
+
+    /**
+     * Applies a single command to the book
+     *
+     * @param command - add, remove, update, replace, remove range or batch command
+     * @return false when the order of a remove, update or replace wasn't in the book
+     */
+    public boolean apply(OrderCommand command) {
+        writeLock.lock();
+        try {
+            switch (command.getType()) {
+                case ADD:
+                    addOrder(command.getOrderId(), command.getPriceTicks(), command.getSide(), command.getSize());
+                    return true;
+                case REMOVE:
+                    return removeOrder(command.getOrderId());
+                case UPDATE:
+                    return updateOrder(command.getOrderId(), command.getSize());
+                case REPLACE:
+                    return replaceOrder(command.getOrderId(), command.getPriceTicks(), command.getSize());
+                case REMOVE_RANGE:
+                    removeOrders(command.getSide(), command.getPriceTicks(), command.getMaxPriceTicks(), command::addRemovedOrderId);
+                    return true;
+                case BATCH:
+                    applyBatch(command.getCommands());
+                    return true;
+                default:
+                    throw new IllegalArgumentException("Unsupported command type " + command.getType());
             }
-            return  ordersByLevel.getOfferPrice();
+        } finally {
+            writeLock.unlock();
         }
     }
 
-    public Long getTotalSize(char side, int level) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(format("Calling method ---- getTotalSize --- for side : {} and level: {}", side, level));
+    /**
+     * Applies the commands in their order under a single acquisition of the book lock, so readers see either none or
+     * all of them, and publishes the changed levels once. A failing command doesn't stop the batch, its completion
+     * future is completed exceptionally and the next command is applied.
+     *
+     * @param commands - commands of the batch
+     * @return the number of failed commands
+     */
+    public int applyBatch(List<OrderCommand> commands) {
+        writeLock.lock();
+        try {
+            int failed = 0;
+            boolean nested = inBatch;
+            inBatch = true;
+            try {
+                for (OrderCommand command : commands) {
+                    try {
+                        command.complete(apply(command));
+                    } catch (RuntimeException e) {
+                        failed++;
+                        command.getCompletion().completeExceptionally(e);
+                    }
+                }
+            } finally {
+                inBatch = nested;
+            }
+            publishDepth();
+            return failed;
+        } finally {
+            writeLock.unlock();
         }
-        if(bidToOfferByLevels.size() == 0) {
-            return null;
+    }
+
+    public Double getPrice(char side, int level) {
+        readLock.lock();
+        try {
+            PriceLevel priceLevel = getLevel(side, level);
+            if (priceLevel == null) {
+                return null;
+            }
+            return PriceTicks.toPrice(priceLevel.getPrice());
+        } finally {
+            readLock.unlock();
         }
-        synchronized (bidToOfferByLevels) {
-            OrdersByLevel ordersByLevel = bidToOfferByLevels.get(level - 1);
-            if (side == OrderSideType.BID.getSide()) {
-                return ordersByLevel.getBidTotalSize();
+    }
+
+    public Long getTotalSize(char side, int level) {
+        readLock.lock();
+        try {
+            PriceLevel priceLevel = getLevel(side, level);
+            if (priceLevel == null) {
+                return null;
             }
-            return  ordersByLevel.getOfferTotalSize();
+            return priceLevel.getTotalSize();
+        } finally {
+            readLock.unlock();
         }
     }
 
     public List<Order> getOrdersBySideInLevelAndTimeOrdered(char side) {
-        if (logger.isDebugEnabled()) {
-            logger.debug(format("Calling method ---- getOrdersBySideInLevelAndTimeOrdered --- for side : {}", side));
-        }
-        List<Order> orders = new ArrayList<>();
-        synchronized (bidToOfferByLevels) {
-            for (OrdersByLevel ordersByLevel : bidToOfferByLevels) {
-                if (side == OrderSideType.BID.getSide()) {
-                    orders.addAll(ordersByLevel.getBidOrders());
-                } else {
-                    orders.addAll(ordersByLevel.getOfferOrders());
+        readLock.lock();
+        try {
+            List<Order> orders = new ArrayList<>();
+            PriceLadder ladder = getLadder(side);
+            for (int index = 0; index < ladder.getDepth(); index++) {
+                for (int slot = ladder.getLevelAt(index).getHead(); slot != OrderStore.NULL; slot = orderStore.getNext(slot)) {
+                    orders.add(toOrder(slot));
                 }
             }
+            return orders;
+        } finally {
+            readLock.unlock();
         }
-        return orders;
     }
 
     /**
-     * Returns the bucket from the provided map, or in case there isn't one it returns a new one ensuring
-     * using the double-checked locking that no concurrent threads can create  lists simultaneous
+     * Copies the resting orders into primitive arrays. Only the copy holds the book lock, the caller writes the
+     * snapshot out afterwards while the book keeps taking orders
      *
-     * @param map   - provided map
-     * @param price - key by which we search for the bucket
-     * @return the existing list of order or an empty {@link CopyOnWriteArrayList}
+     * @param sequence - read under the book lock, e.g. the last journal sequence: every command of the book up to it
+     *                 is in the snapshot and none after it
+     * @return the copy of the resting orders
      */
-    private List<Order> getBucketWithOrderList(Map<Double, List<Order>> map, double price) {
-        List<Order> bucket = map.get(price);
-        if (bucket != null) {
-            return bucket;
-        }
-        synchronized (map) {
-            bucket = map.get(price);
-            if (bucket == null) {
-                // later on we will use list.iterator() to get a snapshot to compute the levels
-                // In addition {@link CopyOnWriteArrayList} protects us when we do add or remove an element
-                bucket = new CopyOnWriteArrayList<>();
-                map.put(price, bucket);
+    public OrderBookSnapshot snapshot(LongSupplier sequence) {
+        readLock.lock();
+        try {
+            int orderCount = orderStore.size();
+            long[] ids = new long[orderCount];
+            long[] prices = new long[orderCount];
+            char[] sides = new char[orderCount];
+            long[] sizes = new long[orderCount];
+            int index = 0;
+            for (PriceLadder ladder : new PriceLadder[]{bidLadder, offerLadder}) {
+                for (int levelIndex = 0; levelIndex < ladder.getDepth(); levelIndex++) {
+                    for (int slot = ladder.getLevelAt(levelIndex).getHead(); slot != OrderStore.NULL; slot = orderStore.getNext(slot)) {
+                        ids[index] = orderStore.getId(slot);
+                        prices[index] = orderStore.getPrice(slot);
+                        sides[index] = orderStore.getSide(slot);
+                        sizes[index] = orderStore.getSize(slot);
+                        index++;
+                    }
+                }
             }
-            return bucket;
+            return new OrderBookSnapshot(sequence.getAsLong(), depthSequence, orderCount, ids, prices, sides, sizes);
+        } finally {
+            readLock.unlock();
         }
     }
 
     /**
-     * assign levels based on price-time priority.
+     * Copies the next orders of the side, in price-time priority, into the page. The book lock is held only for one
+     * page, a listing made of several pages isn't a snapshot of the book.
+     *
+     * @param side         - B "Bid" or O "Offer"
+     * @param fromLevel    - first level, one based
+     * @param toLevel      - last level included
+     * @param resume       - true to continue after the order of the cursor, false to start at the first level
+     * @param afterPrice    - price in ticks of the last order of the previous page
+     * @param afterOrderId  - id of the last order of the previous page
+     * @param afterPriority - time priority of the last order of the previous page. When that order left the book or
+     *                      lost its priority meanwhile, the listing resumes at the first order of the level appended
+     *                      after it, so no order is repeated nor skipped
+     * @param page          - page to fill, up to its capacity
      */
-    private synchronized void assignLevels() {
-        List<OrdersByLevel> ordersByLevels = new ArrayList<>();
-
-        // copy lists & maps in order to manipulate the elements references directly
+    public void fillPage(char side, int fromLevel, int toLevel, boolean resume, long afterPrice,
+                         long afterOrderId, long afterPriority, OrderPage page) {
+        readLock.lock();
+        try {
+            page.clear();
+            PriceLadder ladder = getLadder(side);
+            int lastIndex = Math.min(toLevel, ladder.getDepth()) - 1;
+            int levelIndex = fromLevel - 1;
+            int slot = OrderStore.NULL;
+            int cursorLevelIndex = resume ? ladder.getLevelIndexFrom(afterPrice) : -1;
+            if (cursorLevelIndex >= levelIndex) {
+                levelIndex = cursorLevelIndex;
+                int cursorSlot = idToSlot.get(afterOrderId);
+                if (cursorSlot != LongIntIndex.MISSING && orderStore.getSide(cursorSlot) == side
+                        && orderStore.getPrice(cursorSlot) == afterPrice
+                        && orderStore.getPriority(cursorSlot) == afterPriority) {
+                    // the cursor order kept its place
+                    slot = orderStore.getNext(cursorSlot);
+                } else if (cursorLevelIndex < ladder.getDepth()
+                        && ladder.getLevelAt(cursorLevelIndex).getPrice() == afterPrice) {
+                    slot = ladder.getLevelAt(cursorLevelIndex).getHead();
+                    while (slot != OrderStore.NULL && orderStore.getPriority(slot) <= afterPriority) {
+                        slot = orderStore.getNext(slot);
+                    }
+                }
+                if (slot == OrderStore.NULL && cursorLevelIndex < ladder.getDepth()
+                        && ladder.getLevelAt(cursorLevelIndex).getPrice() == afterPrice) {
+                    // the rest of the cursor level was listed
+                    levelIndex++;
+                }
+            }
+            for (; levelIndex <= lastIndex; levelIndex++) {
+                if (slot == OrderStore.NULL) {
+                    slot = ladder.getLevelAt(levelIndex).getHead();
+                }
+                for (; slot != OrderStore.NULL; slot = orderStore.getNext(slot)) {
+                    if (page.isFull()) {
+                        page.setHasMore(true);
+                        return;
+                    }
+                    page.add(orderStore.getId(slot), orderStore.getPrice(slot), orderStore.getSize(slot),
+                            orderStore.getPriority(slot));
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
 
-        List<Double> bidPrices = new LinkedList<>(Arrays.asList(bidPriceSet.toArray(new Double[bidPriceSet.size()])));
-        List<Double> offerPrices =  new LinkedList<>(Arrays.asList(offerPriceSet.toArray(new Double[offerPriceSet.size()])));
+    /**
+     * @param maxLevels - maximum number of levels per side
+     * @return the aggregated levels of both sides at the current depth sequence
+     */
+    public DepthSnapshot snapshotDepth(int maxLevels) {
+        readLock.lock();
+        try {
+            return new DepthSnapshot(depthSequence, copyLevels(bidLadder, maxLevels), copyLevels(offerLadder, maxLevels));
+        } finally {
+            readLock.unlock();
+        }
+    }
 
-        Map<Double, List<Order>> priceToBidListMap = synchronizedCopyMap(priceToBidList);
-        Map<Double, List<Order>> priceToOfferListMap = synchronizedCopyMap(priceToOfferList);
+    /**
+     * @param side - B "Bid" or O "Offer"
+     * @return the number of price levels of the side
+     */
+    public int getDepth(char side) {
+        readLock.lock();
+        try {
+            return getLadder(side).getDepth();
+        } finally {
+            readLock.unlock();
+        }
+    }
 
-        while (true) {
-            if (CollectionUtils.isEmpty(bidPrices) || CollectionUtils.isEmpty(offerPrices)) {
-                synchronized (bidToOfferByLevels) {
-                    bidToOfferByLevels.clear();
-                    bidToOfferByLevels.addAll(ordersByLevels);
+    /**
+     * Sweeps the opposite side in price-time priority: best price first and, inside a level, oldest order first.
+     * Fully filled resting orders leave the book, a partially filled one keeps its priority with the reduced size.
+     *
+     * @return the size of the incoming order left to rest
+     */
+    private long match(long orderId, long priceTicks, char side, long size) {
+        boolean isBid = side == OrderSideType.BID.getSide();
+        PriceLadder oppositeLadder = isBid ? offerLadder : bidLadder;
+        long remainingSize = size;
+        while (remainingSize > 0) {
+            PriceLevel bestLevel = oppositeLadder.getLevelAt(0);
+            if (bestLevel == null || (isBid ? bestLevel.getPrice() > priceTicks : bestLevel.getPrice() < priceTicks)) {
+                break;
+            }
+            markChanged(oppositeLadder, bestLevel.getPrice());
+            while (remainingSize > 0 && !bestLevel.isEmpty()) {
+                int makerSlot = bestLevel.getHead();
+                long makerSize = orderStore.getSize(makerSlot);
+                long fillSize = Math.min(remainingSize, makerSize);
+                tradeListener.onTrade(orderId, orderStore.getId(makerSlot), bestLevel.getPrice(), fillSize);
+                remainingSize -= fillSize;
+                if (fillSize == makerSize) {
+                    bestLevel.unlink(orderStore, makerSlot);
+                    idToSlot.remove(orderStore.getId(makerSlot));
+                    orderStore.release(makerSlot);
+                } else {
+                    bestLevel.reduceSize(orderStore, makerSlot, fillSize);
                 }
-                logger.info("assignLevels finished");
-                return;
             }
-            Double highestBid = bidPrices.get(0);
-            Double lowestOffer = offerPrices.get(0);
+            oppositeLadder.removeLevelIfEmpty(bestLevel);
+        }
+        return remainingSize;
+    }
 
-            /// copy lists so we can modify them directly
-            List<Order> bidList = priceToBidListMap.get(highestBid);
-            List<Order> offerList = priceToOfferListMap.get(lowestOffer);
+    private void markChanged(PriceLadder ladder, long price) {
+        if (depthListeners.length > 0) {
+            ladder.markChanged(price);
+        }
+    }
 
-            if (CollectionUtils.isEmpty(bidList) || CollectionUtils.isEmpty(offerList)) {
-                logger.info("assignLevels finished");
-                synchronized (bidToOfferByLevels) {
-                    bidToOfferByLevels.clear();
-                    bidToOfferByLevels.addAll(ordersByLevels);
-                }
-                return;
-            }
+    /**
+     * Reports every level changed since the last call, with its current state, unless a batch is running
+     */
+    private void publishDepth() {
+        if (inBatch || depthListeners.length == 0) {
+            return;
+        }
+        if (bidLadder.getChangedCount() + offerLadder.getChangedCount() == 0) {
+            return;
+        }
+        long start = depthPublishTimer == null ? 0 : System.nanoTime();
+        publishChangedLevels(bidLadder, OrderSideType.BID.getSide());
+        publishChangedLevels(offerLadder, OrderSideType.OFFER.getSide());
+        for (DepthListener depthListener : depthListeners) {
+            depthListener.onUpdateEnd();
+        }
+        if (depthPublishTimer != null) {
+            depthPublishTimer.accept(System.nanoTime() - start);
+        }
+    }
 
-            ordersByLevels.add(new OrdersByLevel(bidList, offerList));
+    private void publishChangedLevels(PriceLadder ladder, char side) {
+        for (int i = 0; i < ladder.getChangedCount(); i++) {
+            long price = ladder.getChangedPrice(i);
+            PriceLevel level = ladder.getLevel(price);
+            long totalSize = level == null ? 0 : level.getTotalSize();
+            int orderCount = level == null ? 0 : level.getOrderCount();
+            depthSequence++;
+            for (DepthListener depthListener : depthListeners) {
+                depthListener.onLevelUpdate(side, price, totalSize, orderCount, depthSequence);
+            }
+        }
+        ladder.clearChanged();
+    }
 
-            bidPrices.remove(0);
-            offerPrices.remove(0);
+    private static List<DepthLevel> copyLevels(PriceLadder ladder, int maxLevels) {
+        int depth = Math.min(ladder.getDepth(), maxLevels);
+        List<DepthLevel> levels = new ArrayList<>(depth);
+        for (int index = 0; index < depth; index++) {
+            PriceLevel level = ladder.getLevelAt(index);
+            levels.add(new DepthLevel(level.getPrice(), level.getTotalSize(), level.getOrderCount()));
         }
+        return levels;
+    }
+
+    private Order toOrder(int slot) {
+        return new Order(orderStore.getId(slot), orderStore.getPrice(slot), orderStore.getSide(slot), orderStore.getSize(slot));
+    }
+
+    private PriceLadder getLadder(char side) {
+        return side == OrderSideType.BID.getSide() ? bidLadder : offerLadder;
     }
 
     /**
-     * Returns a copy for the provided map by using synchronized blocks
+     * The levels of each side are independent of the other side
      *
-     * @param map - provided map
-     * @return a new {@link HashMap} with the same values
+     * @param side  - B "Bid" or O "Offer"
+     * @param level - one based level, 1 being the best price of the side
+     * @return the price level of the provided side or null in case the side isn't that deep
      */
-    private Map<Double, List<Order>> synchronizedCopyMap(Map<Double, List<Order>> map) {
-        Map<Double, List<Order>> newMap = new HashMap<>();
-        synchronized (map) {
-            for (Map.Entry<Double, List<Order>> entry : map.entrySet()) {
-                List<Order> listOrder = new LinkedList<>();
-                entry.getValue().iterator().forEachRemaining(listOrder::add);
-                newMap.put(entry.getKey(), listOrder);
-            }
-        }
-        return newMap;
+    private PriceLevel getLevel(char side, int level) {
+        return getLadder(side).getLevelAt(level - 1);
     }
 }
@@ -0,0 +1,111 @@
+package com.example.trading.service;
+
+import com.example.trading.model.enums.StorageType;
+import com.example.trading.service.codec.OrderMessageHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static java.lang.String.format;
+
+/**
+ * One {@link OrderBook} per instrument. Requests without an instrument go to the default one,
+ * so the clients written before the multi-instrument support keep working.
+ * The books are created on first use, at most `trading.book.max-instruments` of them, so a client can't grow the
+ * registry without bound by sending made-up instruments.
+ */
+@Component
+public class OrderBookRegistry {
+
+    private final String defaultInstrument;
+    private final StorageType orderStorage;
+    private final StorageType indexStorage;
+    private final int expectedOrders;
+    private final int maxInstruments;
+    private final AtomicInteger orderBookCount = new AtomicInteger();
+    private final Map<String, OrderBook> instrumentToOrderBook = new ConcurrentHashMap<>();
+    // applied to every book, existing or created afterwards
+    private final List<BiConsumer<String, OrderBook>> orderBookCustomizers = new CopyOnWriteArrayList<>();
+
+    public OrderBookRegistry(String defaultInstrument) {
+        this(defaultInstrument, "heap", "heap", 1024, 1024);
+    }
+
+    @Autowired
+    public OrderBookRegistry(@Value("${trading.default-instrument:DEFAULT}") String defaultInstrument,
+                             @Value("${trading.book.order-storage:heap}") String orderStorage,
+                             @Value("${trading.book.index-storage:heap}") String indexStorage,
+                             @Value("${trading.book.expected-orders:1024}") int expectedOrders,
+                             @Value("${trading.book.max-instruments:1024}") int maxInstruments) {
+        this.defaultInstrument = defaultInstrument;
+        this.orderStorage = StorageType.fromProperty(orderStorage);
+        this.indexStorage = StorageType.fromProperty(indexStorage);
+        this.expectedOrders = expectedOrders;
+        this.maxInstruments = maxInstruments;
+    }
+
+    /**
+     * @param instrument - instrument symbol, null for the default instrument
+     * @return the book of the instrument, created on first use
+     * @throws IllegalArgumentException when the instrument is new and the registry already holds the maximum number of
+     *                                  books
+     */
+    public OrderBook getOrderBook(String instrument) {
+        return instrumentToOrderBook.computeIfAbsent(resolveInstrument(instrument), this::createOrderBook);
+    }
+
+    /**
+     * Journals the mutations of the existing books and of the ones created afterwards
+     *
+     * @param journal - write-ahead journal of the commands
+     */
+    public void setJournal(OrderMessageHandler journal) {
+        addOrderBookCustomizer((instrument, orderBook) -> orderBook.setJournal(journal, instrument));
+    }
+
+    /**
+     * Customizes the existing books and the ones created afterwards, e.g. to attach listeners
+     *
+     * @param orderBookCustomizer - called with the instrument and its book
+     */
+    public synchronized void addOrderBookCustomizer(BiConsumer<String, OrderBook> orderBookCustomizer) {
+        orderBookCustomizers.add(orderBookCustomizer);
+        instrumentToOrderBook.forEach(orderBookCustomizer);
+    }
+
+    /**
+     * @param instrument - instrument symbol, null for the default instrument
+     * @return the book of the instrument or null when nothing was ever sent for it
+     */
+    public OrderBook findOrderBook(String instrument) {
+        return instrumentToOrderBook.get(resolveInstrument(instrument));
+    }
+
+    public Map<String, OrderBook> getOrderBooks() {
+        return instrumentToOrderBook;
+    }
+
+    public String resolveInstrument(String instrument) {
+        return instrument == null || instrument.isBlank() ? defaultInstrument : instrument;
+    }
+
+    private OrderBook createOrderBook(String instrument) {
+        if (orderBookCount.incrementAndGet() > maxInstruments) {
+            orderBookCount.decrementAndGet();
+            throw new IllegalArgumentException(format("Unknown instrument %s, the maximum of %d instruments is reached",
+                    instrument, maxInstruments));
+        }
+        OrderBook orderBook = new OrderBook(orderStorage, indexStorage, expectedOrders);
+        for (BiConsumer<String, OrderBook> orderBookCustomizer : orderBookCustomizers) {
+            orderBookCustomizer.accept(instrument, orderBook);
+        }
+        return orderBook;
+    }
+}
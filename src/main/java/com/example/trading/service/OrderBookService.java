@@ -1,71 +1,543 @@
 package com.example.trading.service;
 
+import com.example.trading.model.dto.BookDto;
 import com.example.trading.model.dto.OrderAddRequestDto;
+import com.example.trading.model.dto.OrderAmendRequestDto;
+import com.example.trading.model.dto.OrderBulkAddRequestDto;
+import com.example.trading.model.dto.OrderBulkCancelRequestDto;
+import com.example.trading.model.dto.OrderBulkResultDto;
+import com.example.trading.model.dto.OrderCancelAllRequestDto;
 import com.example.trading.model.dto.OrderDeleteRequestDto;
 import com.example.trading.model.dto.OrderDto;
+import com.example.trading.model.dto.OrderReplaceRequestDto;
+import com.example.trading.model.dto.OrderResultDto;
+import com.example.trading.model.dto.TopOfBookDto;
 import com.example.trading.model.entity.Order;
+import com.example.trading.model.enums.OrderCommandType;
+import com.example.trading.model.enums.OrderResultType;
+import com.example.trading.model.enums.OrderSideType;
+import com.example.trading.service.engine.OrderBookEngineGroup;
+import com.example.trading.service.engine.OrderCommand;
+import com.example.trading.service.journal.OrderJournal;
 import com.example.trading.service.mapper.OrderMapper;
+import com.example.trading.service.metrics.OrderBookMetrics;
+import com.example.trading.service.view.BookView;
+import com.example.trading.service.view.BookViewRegistry;
+import com.example.trading.service.view.TopOfBook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-
-import static java.lang.String.format;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class OrderBookService {
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private OrderBook orderBook;
+    private OrderBookRegistry orderBookRegistry;
     private OrderMapper orderMapper;
+    // present only in the single-writer mode, in which all the mutations go through the engine threads
+    private OrderBookEngineGroup orderBookEngineGroup;
+    // present only when the journal is enabled, the mutations return once they are durable
+    private OrderJournal orderJournal;
+    private BookViewRegistry bookViewRegistry;
+    private OrderBookMetrics orderBookMetrics;
+    private TickSizeRegistry tickSizeRegistry;
 
-    public OrderBookService(OrderBook orderBook, OrderMapper orderMapper) {
-        this.orderBook = orderBook;
+    public OrderBookService(OrderBookRegistry orderBookRegistry, OrderMapper orderMapper, BookViewRegistry bookViewRegistry,
+                            OrderBookMetrics orderBookMetrics, TickSizeRegistry tickSizeRegistry,
+                            Optional<OrderBookEngineGroup> orderBookEngineGroup,
+                            Optional<OrderJournal> orderJournal) {
+        this.orderBookRegistry = orderBookRegistry;
         this.orderMapper = orderMapper;
+        this.bookViewRegistry = bookViewRegistry;
+        this.orderBookMetrics = orderBookMetrics;
+        this.tickSizeRegistry = tickSizeRegistry;
+        this.orderBookEngineGroup = orderBookEngineGroup.orElse(null);
+        this.orderJournal = orderJournal.orElse(null);
     }
 
     public void addOrder(OrderAddRequestDto orderAddRequestDto) {
-        if(logger.isDebugEnabled()) {
-            logger.debug(format("Calling method ---- addOrder --- for orderAddRequestDto : {}" , orderAddRequestDto));
-        }
+        Order newOrder = orderMapper.mapToOrder(orderAddRequestDto.getInstrument(), orderAddRequestDto);
+
+        addOrder(orderAddRequestDto.getInstrument(), newOrder.getId(), newOrder.getPriceTicks(), newOrder.getSide(), newOrder.getSize());
+    }
 
-        Order newOrder = orderMapper.mapToOrder(orderAddRequestDto);
+    /**
+     * Primitive variant used by the binary messages, in the concurrent mode it allocates neither a dto nor an {@link Order}
+     *
+     * @param instrument - instrument symbol, null for the default instrument
+     * @throws IllegalArgumentException when the side isn't B or O, the size isn't positive or the price isn't a
+     *                                  multiple of the tick size of the instrument
+     */
+    public void addOrder(String instrument, long orderId, long priceTicks, char side, long size) {
+        // the binary messages bypass the validation of the dtos
+        if (side != 'B' && side != 'O') {
+            throw new IllegalArgumentException("only `B` or `O` types are allowed");
+        }
+        if (size <= 0) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+        String resolvedInstrument = orderBookRegistry.resolveInstrument(instrument);
+        tickSizeRegistry.validateTicks(resolvedInstrument, priceTicks);
 
-        orderBook.addOrder(newOrder);
+        long start = System.nanoTime();
+        if (orderBookEngineGroup != null) {
+            join(orderBookEngineGroup.submit(OrderCommand.add(resolvedInstrument, orderId, priceTicks, side, size)));
+        } else {
+            orderBookRegistry.getOrderBook(resolvedInstrument).addOrder(orderId, priceTicks, side, size);
+        }
+        orderBookMetrics.recordOperation(OrderCommandType.ADD, start);
+        awaitJournal();
     }
 
     public void removeOrder(OrderDeleteRequestDto orderDeleteRequestDto) {
-        if(logger.isDebugEnabled()) {
-            logger.debug(format("Calling method ---- removeOrder --- for orderDeleteRequestDto : {}" , orderDeleteRequestDto));
+        removeOrder(orderDeleteRequestDto.getInstrument(), orderDeleteRequestDto.getId());
+    }
+
+    /**
+     * @param instrument - instrument symbol, null for the default instrument
+     */
+    public void removeOrder(String instrument, long orderId) {
+        String resolvedInstrument = orderBookRegistry.resolveInstrument(instrument);
+
+        long start = System.nanoTime();
+        if (orderBookEngineGroup != null) {
+            join(orderBookEngineGroup.submit(OrderCommand.remove(resolvedInstrument, orderId)));
+        } else {
+            orderBookRegistry.getOrderBook(resolvedInstrument).removeOrder(orderId);
         }
+        orderBookMetrics.recordOperation(OrderCommandType.REMOVE, start);
+        awaitJournal();
+    }
 
-        orderBook.removeOrder(orderDeleteRequestDto.getId());
+    public void amendOrder(OrderAmendRequestDto orderAmendRequestDto) {
+        updateOrder(orderAmendRequestDto.getInstrument(), orderAmendRequestDto.getId(), orderAmendRequestDto.getSize());
     }
 
-    public Double getPrice(char side, int levelId) {
-        if(logger.isDebugEnabled()) {
-            logger.debug(format("Calling method ---- getPrice --- for side : {} and level: {}" , side, levelId));
+    /**
+     * Amends the size of the order, see {@link OrderBook#updateOrder(long, long)} for the priority rules
+     *
+     * @param instrument - instrument symbol, null for the default instrument
+     */
+    public void updateOrder(String instrument, long orderId, long newSize) {
+        String resolvedInstrument = orderBookRegistry.resolveInstrument(instrument);
+
+        long start = System.nanoTime();
+        if (orderBookEngineGroup != null) {
+            join(orderBookEngineGroup.submit(OrderCommand.update(resolvedInstrument, orderId, newSize)));
+        } else {
+            orderBookRegistry.getOrderBook(resolvedInstrument).updateOrder(orderId, newSize);
         }
+        orderBookMetrics.recordOperation(OrderCommandType.UPDATE, start);
+        awaitJournal();
+    }
 
-        return orderBook.getPrice(side, levelId);
+    public void replaceOrder(OrderReplaceRequestDto orderReplaceRequestDto) {
+        replaceOrder(orderReplaceRequestDto.getInstrument(), orderReplaceRequestDto.getId(),
+                tickSizeRegistry.toTicks(orderReplaceRequestDto.getInstrument(), orderReplaceRequestDto.getPrice()),
+                orderReplaceRequestDto.getSize());
     }
 
-    public Long getTotalSize(char side, int levelId) {
-        if(logger.isDebugEnabled()) {
-            logger.debug(format("Calling method ---- getTotalSize --- for side : {} and level: {}" , side, levelId));
+    /**
+     * Cancel-replace of the order, see {@link OrderBook#replaceOrder(long, long, long)}
+     *
+     * @param instrument - instrument symbol, null for the default instrument
+     * @throws IllegalArgumentException when the new price isn't a multiple of the tick size of the instrument
+     */
+    public void replaceOrder(String instrument, long orderId, long newPriceTicks, long newSize) {
+        String resolvedInstrument = orderBookRegistry.resolveInstrument(instrument);
+        tickSizeRegistry.validateTicks(resolvedInstrument, newPriceTicks);
+
+        long start = System.nanoTime();
+        if (orderBookEngineGroup != null) {
+            join(orderBookEngineGroup.submit(OrderCommand.replace(resolvedInstrument, orderId, newPriceTicks, newSize)));
+        } else {
+            orderBookRegistry.getOrderBook(resolvedInstrument).replaceOrder(orderId, newPriceTicks, newSize);
         }
+        orderBookMetrics.recordOperation(OrderCommandType.REPLACE, start);
+        awaitJournal();
+    }
 
-        return orderBook.getTotalSize(side, levelId);
+    /**
+     * Adds the orders of one instrument atomically: a single acquisition of the book and a single publication of the
+     * changed levels for the whole request. An invalid or rejected order doesn't stop the others.
+     *
+     * @return the outcome of each order, in the order of the request
+     */
+    public OrderBulkResultDto addOrders(OrderBulkAddRequestDto orderBulkAddRequestDto) {
+        String resolvedInstrument = orderBookRegistry.resolveInstrument(orderBulkAddRequestDto.getInstrument());
+        List<OrderAddRequestDto> orders = orderBulkAddRequestDto.getOrders();
+        List<OrderResultDto> results = new ArrayList<>(orders.size());
+        List<OrderCommand> commands = new ArrayList<>(orders.size());
+        for (OrderAddRequestDto order : orders) {
+            String error = validate(order);
+            if (error != null) {
+                results.add(new OrderResultDto(order.getId(), OrderResultType.REJECTED, error));
+                continue;
+            }
+            try {
+                commands.add(OrderCommand.add(resolvedInstrument, orderMapper.mapToOrder(resolvedInstrument, order)));
+                // filled once the batch was applied
+                results.add(null);
+            } catch (IllegalArgumentException e) {
+                results.add(new OrderResultDto(order.getId(), OrderResultType.REJECTED, e.getMessage()));
+            }
+        }
+        applyAtomically(resolvedInstrument, commands);
+        int commandIndex = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, toResult(commands.get(commandIndex++)));
+            }
+        }
+        return new OrderBulkResultDto(resolvedInstrument, results);
     }
 
-    public List<OrderDto> getOrdersBySideInLevelAndTimeOrdered(char side) {
-        if(logger.isDebugEnabled()) {
-            logger.debug(format("Calling method ---- getOrdersBySideInLevelAndTimeOrdered --- for side : {}" , side));
+    /**
+     * Removes the orders of one instrument atomically, an unknown order being reported as not found
+     *
+     * @return the outcome of each order, in the order of the request
+     */
+    public OrderBulkResultDto removeOrders(OrderBulkCancelRequestDto orderBulkCancelRequestDto) {
+        String resolvedInstrument = orderBookRegistry.resolveInstrument(orderBulkCancelRequestDto.getInstrument());
+        List<Long> ids = orderBulkCancelRequestDto.getIds();
+        List<OrderCommand> commands = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("Order ids of a bulk cancel must not be null");
+            }
+            commands.add(OrderCommand.remove(resolvedInstrument, id));
+        }
+        applyAtomically(resolvedInstrument, commands);
+        List<OrderResultDto> results = new ArrayList<>(commands.size());
+        for (OrderCommand command : commands) {
+            results.add(toResult(command));
         }
+        return new OrderBulkResultDto(resolvedInstrument, results);
+    }
 
+    /**
+     * Removes atomically every order of the instrument, of one side or both, resting between the two prices
+     *
+     * @return the removed orders
+     */
+    public OrderBulkResultDto removeAllOrders(OrderCancelAllRequestDto orderCancelAllRequestDto) {
+        String resolvedInstrument = orderBookRegistry.resolveInstrument(orderCancelAllRequestDto.getInstrument());
+        long minPriceTicks = orderCancelAllRequestDto.getFromPrice() == null ? Long.MIN_VALUE : PriceTicks.toTicks(orderCancelAllRequestDto.getFromPrice());
+        long maxPriceTicks = orderCancelAllRequestDto.getToPrice() == null ? Long.MAX_VALUE : PriceTicks.toTicks(orderCancelAllRequestDto.getToPrice());
+        if (minPriceTicks > maxPriceTicks) {
+            throw new IllegalArgumentException("fromPrice must not be greater than toPrice");
+        }
+        String side = orderCancelAllRequestDto.getSide();
+        if (side != null && !"B".equals(side) && !"O".equals(side)) {
+            throw new IllegalArgumentException("only `B` or `O` types are allowed");
+        }
+        List<OrderCommand> commands = new ArrayList<>(2);
+        for (OrderSideType sideType : OrderSideType.values()) {
+            if (side == null || side.charAt(0) == sideType.getSide()) {
+                commands.add(OrderCommand.removeRange(resolvedInstrument, sideType.getSide(), minPriceTicks, maxPriceTicks));
+            }
+        }
+        applyAtomically(resolvedInstrument, commands);
+        List<OrderResultDto> results = new ArrayList<>();
+        for (OrderCommand command : commands) {
+            for (Long removedOrderId : command.getRemovedOrderIds()) {
+                results.add(new OrderResultDto(removedOrderId, OrderResultType.ACCEPTED, null));
+            }
+        }
+        return new OrderBulkResultDto(resolvedInstrument, results);
+    }
+
+    /**
+     * Applies the add, delete, amend and replace requests as one batch, keeping their order within each instrument.
+     * The commands of an instrument are applied under a single acquisition of its book lock, through its engine thread
+     * as one batch command in the single-writer mode.
+     *
+     * @param requests - {@link OrderAddRequestDto}, {@link OrderDeleteRequestDto}, {@link OrderAmendRequestDto} and
+     *                 {@link OrderReplaceRequestDto} instances
+     * @return the number of requests which couldn't be applied
+     */
+    public int applyBatch(List<?> requests) {
+        int failed = 0;
+        Map<String, List<OrderCommand>> instrumentToCommands = new LinkedHashMap<>();
+        for (Object request : requests) {
+            try {
+                OrderCommand command = toCommand(request);
+                instrumentToCommands.computeIfAbsent(command.getInstrument(), key -> new ArrayList<>()).add(command);
+            } catch (RuntimeException e) {
+                logger.warn("Skipping invalid order request {}", request, e);
+                failed++;
+            }
+        }
+
+        long start = System.nanoTime();
+        if (orderBookEngineGroup == null) {
+            for (Map.Entry<String, List<OrderCommand>> entry : instrumentToCommands.entrySet()) {
+                try {
+                    failed += orderBookRegistry.getOrderBook(entry.getKey()).applyBatch(entry.getValue());
+                } catch (RuntimeException e) {
+                    // e.g. no more books can be created, the other instruments still apply
+                    logger.warn("Skipping the {} order requests of {}", entry.getValue().size(), entry.getKey(), e);
+                    failed += entry.getValue().size();
+                }
+            }
+            orderBookMetrics.recordOperation(OrderCommandType.BATCH, start);
+            awaitJournal();
+            return failed;
+        }
+        // one batch command per instrument, each applied under a single acquisition of its book by its engine thread
+        List<CompletableFuture<Long>> completions = new ArrayList<>(instrumentToCommands.size());
+        for (Map.Entry<String, List<OrderCommand>> entry : instrumentToCommands.entrySet()) {
+            completions.add(orderBookEngineGroup.submit(OrderCommand.batch(entry.getKey(), entry.getValue())));
+        }
+        int index = 0;
+        for (Map.Entry<String, List<OrderCommand>> entry : instrumentToCommands.entrySet()) {
+            try {
+                join(completions.get(index++));
+            } catch (RuntimeException e) {
+                // the batch failed before applying any of its commands, which are never completed
+                logger.warn("Skipping the {} order requests of {}", entry.getValue().size(), entry.getKey(), e);
+                failed += entry.getValue().size();
+                continue;
+            }
+            for (OrderCommand command : entry.getValue()) {
+                if (command.getCompletion().handle((sequence, error) -> error != null).join()) {
+                    failed++;
+                }
+            }
+        }
+        orderBookMetrics.recordOperation(OrderCommandType.BATCH, start);
+        awaitJournal();
+        return failed;
+    }
+
+    /**
+     * Reads the {@link TopOfBook} for the best levels and the published {@link BookView} for the deeper ones, so the
+     * polling never waits for the writers of the book
+     */
+    public BigDecimal getPrice(String instrument, char side, int levelId) {
+        if (levelId <= TopOfBook.LEVELS) {
+            long priceTicks = bookViewRegistry.getTopOfBook(instrument).getPrice(side, levelId);
+            return priceTicks == TopOfBook.MISSING ? null : tickSizeRegistry.toPrice(instrument, priceTicks);
+        }
+        BookView.SideView sideView = getSideView(instrument, side);
+        return levelId > sideView.getDepth() ? null : tickSizeRegistry.toPrice(instrument, sideView.getPrice(levelId - 1));
+    }
+
+    /**
+     * Reads like {@link #getPrice(String, char, int)}
+     */
+    public Long getTotalSize(String instrument, char side, int levelId) {
+        if (levelId <= TopOfBook.LEVELS) {
+            long totalSize = bookViewRegistry.getTopOfBook(instrument).getTotalSize(side, levelId);
+            return totalSize == TopOfBook.MISSING ? null : totalSize;
+        }
+        BookView.SideView sideView = getSideView(instrument, side);
+        return levelId > sideView.getDepth() ? null : sideView.getTotalSize(levelId - 1);
+    }
+
+    /**
+     * The best levels of both sides and the spread as of one sequence, read from the {@link TopOfBook} without locking
+     *
+     * @param instrument - instrument symbol, null for the default instrument
+     * @param levels     - levels per side, up to {@link TopOfBook#LEVELS}
+     */
+    public TopOfBookDto getTopOfBook(String instrument, int levels) {
+        TopOfBook.Snapshot snapshot = new TopOfBook.Snapshot();
+        bookViewRegistry.getTopOfBook(instrument).read(snapshot);
+        return orderMapper.mapToTopOfBookDto(orderBookRegistry.resolveInstrument(instrument), snapshot, levels);
+    }
+
+    public List<OrderDto> getOrdersBySideInLevelAndTimeOrdered(String instrument, char side) {
+        OrderBook orderBook = orderBookRegistry.findOrderBook(instrument);
+        if (orderBook == null) {
+            return Collections.emptyList();
+        }
         List<Order> orders = orderBook.getOrdersBySideInLevelAndTimeOrdered(side);
 
-        return orderMapper.mapToOrderDtos(orders);
+        return orderMapper.mapToOrderDtos(instrument, orders);
+    }
+
+    /**
+     * Fills the page with the next orders of the side in price-time priority, without any intermediate list
+     *
+     * @param instrument - instrument symbol, null for the default instrument
+     * @param fromLevel  - first level, one based
+     * @param toLevel    - last level included
+     * @param cursor     - {@link OrderPage#getNextCursor()} of the previous page, null for the first page
+     * @param page       - page to fill
+     */
+    public void fillOrderPage(String instrument, char side, int fromLevel, int toLevel, String cursor, OrderPage page) {
+        OrderBook orderBook = orderBookRegistry.findOrderBook(instrument);
+        if (orderBook == null) {
+            page.clear();
+            return;
+        }
+        if (cursor == null) {
+            orderBook.fillPage(side, fromLevel, toLevel, false, 0, 0, 0, page);
+            return;
+        }
+        int separator = cursor.indexOf(':');
+        int prioritySeparator = cursor.indexOf(':', separator + 1);
+        try {
+            orderBook.fillPage(side, fromLevel, toLevel, true, Long.parseLong(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1, prioritySeparator)),
+                    Long.parseLong(cursor.substring(prioritySeparator + 1)), page);
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+    }
+
+    /**
+     * @param instrument - instrument symbol, null for the default instrument
+     * @return the depth sequence of the latest published view of the book, read without locking
+     */
+    public long getBookSequence(String instrument) {
+        return bookViewRegistry.getView(instrument).getSequence();
+    }
+
+    /**
+     * The aggregated depth comes from the published immutable view and never locks the book. With the orders, both
+     * sides are copied in one acquisition of the book lock so they reflect the same sequence.
+     *
+     * @param instrument    - instrument symbol, null for the default instrument
+     * @param includeOrders - true to add the orders of both sides in time priority
+     */
+    public BookDto getBook(String instrument, boolean includeOrders) {
+        if (!includeOrders) {
+            return orderMapper.mapToBookDto(bookViewRegistry.getView(instrument));
+        }
+        OrderBook orderBook = orderBookRegistry.findOrderBook(instrument);
+        if (orderBook == null) {
+            return orderMapper.mapToBookDto(bookViewRegistry.getView(instrument));
+        }
+        return orderMapper.mapToBookDto(orderBookRegistry.resolveInstrument(instrument), orderBook.snapshot(() -> 0L));
+    }
+
+    private BookView.SideView getSideView(String instrument, char side) {
+        BookView bookView = bookViewRegistry.getView(instrument);
+        return side == OrderSideType.BID.getSide() ? bookView.getBids() : bookView.getOffers();
+    }
+
+    /**
+     * Waits for the fsync covering everything journaled so far, a whole batch shares a single wait. The request or
+     * message is acknowledged only then, though the mutations were already published by the book, see
+     * {@link OrderBook#setJournal}
+     */
+    private void awaitJournal() {
+        if (orderJournal != null) {
+            long start = System.nanoTime();
+            orderJournal.awaitDurable(orderJournal.getAppendedSequence());
+            orderBookMetrics.recordJournalAwait(start);
+        }
+    }
+
+    /**
+     * Applies the commands of one instrument under a single acquisition of its book, through its engine thread in the
+     * single-writer mode, then waits for the journal
+     */
+    private void applyAtomically(String resolvedInstrument, List<OrderCommand> commands) {
+        if (commands.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (orderBookEngineGroup != null) {
+            join(orderBookEngineGroup.submit(OrderCommand.batch(resolvedInstrument, commands)));
+        } else {
+            orderBookRegistry.getOrderBook(resolvedInstrument).applyBatch(commands);
+        }
+        orderBookMetrics.recordOperation(OrderCommandType.BATCH, start);
+        awaitJournal();
+    }
+
+    /**
+     * Waits for a command of the engine, rethrowing its failure as thrown by the book so a rejected command still
+     * reaches the caller as an {@link IllegalArgumentException}
+     */
+    private static void join(CompletableFuture<Long> completion) {
+        try {
+            completion.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static OrderResultDto toResult(OrderCommand command) {
+        Throwable error = command.getCompletion().handle((sequence, e) -> e).join();
+        if (error != null) {
+            return new OrderResultDto(command.getOrderId(), OrderResultType.REJECTED, error.getMessage());
+        }
+        return new OrderResultDto(command.getOrderId(), command.isApplied() ? OrderResultType.ACCEPTED : OrderResultType.NOT_FOUND, null);
+    }
+
+    /**
+     * @return the reason why the order can't be added, null when it is valid
+     */
+    private static String validate(OrderAddRequestDto order) {
+        if (order.getId() == null) {
+            return "Missing order id";
+        }
+        if (order.getPrice() == null) {
+            return "Missing price";
+        }
+        if (!"B".equals(order.getSide()) && !"O".equals(order.getSide())) {
+            return "only `B` or `O` types are allowed";
+        }
+        if (order.getSize() == null || order.getSize() <= 0) {
+            return "Size must be positive";
+        }
+        return null;
+    }
+
+    private static void validateSize(Long size) {
+        if (size == null || size <= 0) {
+            throw new IllegalArgumentException("Size must be positive");
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException when the request is invalid, the batch counts it as failed
+     */
+    private OrderCommand toCommand(Object request) {
+        if (request instanceof OrderAddRequestDto) {
+            OrderAddRequestDto orderAddRequestDto = (OrderAddRequestDto) request;
+            String reason = validate(orderAddRequestDto);
+            if (reason != null) {
+                throw new IllegalArgumentException(reason);
+            }
+            String resolvedInstrument = orderBookRegistry.resolveInstrument(orderAddRequestDto.getInstrument());
+            return OrderCommand.add(resolvedInstrument, orderMapper.mapToOrder(resolvedInstrument, orderAddRequestDto));
+        }
+        if (request instanceof OrderDeleteRequestDto) {
+            OrderDeleteRequestDto orderDeleteRequestDto = (OrderDeleteRequestDto) request;
+            return OrderCommand.remove(orderBookRegistry.resolveInstrument(orderDeleteRequestDto.getInstrument()),
+                    orderDeleteRequestDto.getId());
+        }
+        if (request instanceof OrderAmendRequestDto) {
+            OrderAmendRequestDto orderAmendRequestDto = (OrderAmendRequestDto) request;
+            validateSize(orderAmendRequestDto.getSize());
+            return OrderCommand.update(orderBookRegistry.resolveInstrument(orderAmendRequestDto.getInstrument()),
+                    orderAmendRequestDto.getId(), orderAmendRequestDto.getSize());
+        }
+        if (request instanceof OrderReplaceRequestDto) {
+            OrderReplaceRequestDto orderReplaceRequestDto = (OrderReplaceRequestDto) request;
+            validateSize(orderReplaceRequestDto.getSize());
+            String resolvedInstrument = orderBookRegistry.resolveInstrument(orderReplaceRequestDto.getInstrument());
+            return OrderCommand.replace(resolvedInstrument, orderReplaceRequestDto.getId(),
+                    tickSizeRegistry.toTicks(resolvedInstrument, orderReplaceRequestDto.getPrice()), orderReplaceRequestDto.getSize());
+        }
+        throw new IllegalArgumentException("Unsupported order request " + request);
     }
 }
@@ -0,0 +1,64 @@
+package com.example.trading.service;
+
+/**
+ * Copy of the resting orders of an {@link OrderBook} taken at a sequence point: the bid side then the offer side,
+ * best price first and, inside a level, in time priority. Adding the orders to an empty book in this order rebuilds
+ * the same book.
+ */
+public class OrderBookSnapshot {
+
+    private final long sequence;
+    private final long depthSequence;
+    private final int orderCount;
+    private final long[] ids;
+    private final long[] prices;
+    private final char[] sides;
+    private final long[] sizes;
+
+    OrderBookSnapshot(long sequence, long depthSequence, int orderCount, long[] ids, long[] prices, char[] sides, long[] sizes) {
+        this.sequence = sequence;
+        this.depthSequence = depthSequence;
+        this.orderCount = orderCount;
+        this.ids = ids;
+        this.prices = prices;
+        this.sides = sides;
+        this.sizes = sizes;
+    }
+
+    /**
+     * @return the journal sequence of the last command reflected in the snapshot
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return the depth sequence of the book when the snapshot was taken, see {@link DepthListener}
+     */
+    public long getDepthSequence() {
+        return depthSequence;
+    }
+
+    public int getOrderCount() {
+        return orderCount;
+    }
+
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @return the price in ticks, see {@link PriceTicks}
+     */
+    public long getPrice(int index) {
+        return prices[index];
+    }
+
+    public char getSide(int index) {
+        return sides[index];
+    }
+
+    public long getSize(int index) {
+        return sizes[index];
+    }
+}
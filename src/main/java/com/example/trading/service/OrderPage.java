@@ -0,0 +1,90 @@
+package com.example.trading.service;
+
+/**
+ * Reusable buffer receiving a page of orders of one side from {@link OrderBook#fillPage}, in primitive arrays so
+ * listing a large book allocates only the buffer itself
+ */
+public class OrderPage {
+
+    private final long[] ids;
+    private final long[] prices;
+    private final long[] sizes;
+    private final long[] priorities;
+    private int count;
+    private boolean hasMore;
+
+    public OrderPage(int capacity) {
+        ids = new long[capacity];
+        prices = new long[capacity];
+        sizes = new long[capacity];
+        priorities = new long[capacity];
+    }
+
+    public int getCapacity() {
+        return ids.length;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return true when orders of the requested range remain after the page
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    /**
+     * @return the cursor resuming after the last order of the page, null when there are no more orders
+     */
+    public String getNextCursor() {
+        if (!hasMore || count == 0) {
+            return null;
+        }
+        return prices[count - 1] + ":" + ids[count - 1] + ":" + priorities[count - 1];
+    }
+
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @return the price in ticks, see {@link PriceTicks}
+     */
+    public long getPrice(int index) {
+        return prices[index];
+    }
+
+    public long getSize(int index) {
+        return sizes[index];
+    }
+
+    /**
+     * @return the time priority of the order in its level, see {@link OrderBook#fillPage}
+     */
+    public long getPriority(int index) {
+        return priorities[index];
+    }
+
+    void clear() {
+        count = 0;
+        hasMore = false;
+    }
+
+    boolean isFull() {
+        return count == ids.length;
+    }
+
+    void add(long id, long price, long size, long priority) {
+        ids[count] = id;
+        prices[count] = price;
+        sizes[count] = size;
+        priorities[count] = priority;
+        count++;
+    }
+
+    void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.trading.service;
+
+import com.example.trading.model.enums.StorageType;
+
+/**
+ * Storage of the resting orders: every order is a slot index to its fields.
+ * The previous/next links chain the orders of a price level in time priority (intrusive doubly linked list)
+ * and chain the released slots into a free list, so the storage allocates only when it grows.
+ * Not thread safe.
+ */
+interface OrderStore {
+
+    int NULL = -1;
+
+    /**
+     * @param storage         - heap arrays or a direct buffer
+     * @param initialCapacity - orders held without growing
+     */
+    static OrderStore create(StorageType storage, int initialCapacity) {
+        return storage == StorageType.OFF_HEAP
+                ? new OffHeapOrderStore(initialCapacity)
+                : new HeapOrderStore(initialCapacity);
+    }
+
+    /**
+     * Takes a slot from the free list, or a never used one, and fills it with the order fields
+     *
+     * @return the slot of the order, not linked in any level yet
+     */
+    int allocate(long id, long price, char side, long size);
+
+    void release(int slot);
+
+    long getId(int slot);
+
+    long getPrice(int slot);
+
+    char getSide(int slot);
+
+    long getSize(int slot);
+
+    void setSize(int slot, long size);
+
+    void setPrice(int slot, long price);
+
+    /**
+     * @return the time priority of the order in its level, the lower the older, see {@link PriceLevel#append}
+     */
+    long getPriority(int slot);
+
+    void setPriority(int slot, long priority);
+
+    int getPrevious(int slot);
+
+    void setPrevious(int slot, int previousSlot);
+
+    int getNext(int slot);
+
+    void setNext(int slot, int nextSlot);
+
+    /**
+     * @return number of live orders
+     */
+    int size();
+}
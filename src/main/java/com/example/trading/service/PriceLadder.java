@@ -0,0 +1,169 @@
+package com.example.trading.service;
+
+import java.util.Arrays;
+
+/**
+ * The price levels of one side of the book, kept in an array sorted from the worst price to the best one.
+ * A level is created when the first order arrives at its price and dropped when the last one leaves,
+ * so a mutation only touches the level of the order and the level is found by binary search on the price ticks.
+ * Inserting or dropping a level shifts the levels better than it: the levels come and go mostly around the best
+ * price, where only a few are shifted, while a level created or cleared deep in a large ladder costs a copy of the
+ * levels above it (see OrderBookDepthBenchmark). The array keeps the access to the n-th level constant, which a
+ * tree would make logarithmic for every depth read.
+ * Dropped levels go back to a pool, so a ladder of a stable depth allocates nothing.
+ * Not thread safe, the owning {@link OrderBook} guards the access.
+ */
+class PriceLadder {
+
+    private final boolean descending;
+    // levels[0] is the worst price and levels[depth - 1] the best one
+    private PriceLevel[] levels = new PriceLevel[16];
+    private int depth;
+    private PriceLevel[] pool = new PriceLevel[16];
+    private int poolSize;
+    // prices of the levels changed since the last call to clearChanged, each one once
+    private final LongIntHashMap changedIndex = new LongIntHashMap(16);
+    private long[] changedPrices = new long[16];
+    private int changedCount;
+
+    /**
+     * @param descending - true for the bid side (highest price first), false for the offer side
+     */
+    PriceLadder(boolean descending) {
+        this.descending = descending;
+    }
+
+    /**
+     * @param price - price in ticks
+     * @return the level of the price or null when no order rests at that price
+     */
+    PriceLevel getLevel(long price) {
+        int position = positionOf(price);
+        return position < 0 ? null : levels[position];
+    }
+
+    /**
+     * Returns the level for the provided price, or in case there isn't one it takes one from the pool and inserts it
+     * at its position in the ladder
+     *
+     * @param price - price in ticks
+     * @return the existing or the newly inserted {@link PriceLevel}
+     */
+    PriceLevel getOrCreateLevel(long price) {
+        int position = positionOf(price);
+        if (position >= 0) {
+            return levels[position];
+        }
+        int insertionPoint = -(position + 1);
+        if (depth == levels.length) {
+            levels = Arrays.copyOf(levels, depth << 1);
+        }
+        System.arraycopy(levels, insertionPoint, levels, insertionPoint + 1, depth - insertionPoint);
+        PriceLevel level = poolSize > 0 ? pool[--poolSize] : new PriceLevel();
+        level.reset(price);
+        levels[insertionPoint] = level;
+        depth++;
+        return level;
+    }
+
+    /**
+     * Drops the provided level from the ladder if there are no more orders resting on it
+     *
+     * @param level - level from this ladder
+     */
+    void removeLevelIfEmpty(PriceLevel level) {
+        if (!level.isEmpty()) {
+            return;
+        }
+        int position = positionOf(level.getPrice());
+        System.arraycopy(levels, position + 1, levels, position, depth - position - 1);
+        levels[--depth] = null;
+        if (poolSize == pool.length) {
+            pool = Arrays.copyOf(pool, poolSize << 1);
+        }
+        pool[poolSize++] = level;
+    }
+
+    /**
+     * @param index - zero based index, 0 being the best price
+     * @return the level at the provided index or null when the ladder is not that deep
+     */
+    PriceLevel getLevelAt(int index) {
+        if (index < 0 || index >= depth) {
+            return null;
+        }
+        return levels[depth - 1 - index];
+    }
+
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @param price - price in ticks
+     * @return the index of the level of the price or, when there is none, of the first level after it
+     */
+    int getLevelIndexFrom(long price) {
+        int position = positionOf(price);
+        // without a level at the price, the first level after it is the one below the insertion point
+        return position >= 0 ? depth - 1 - position : depth + position + 1;
+    }
+
+    /**
+     * Records that the level of the price changed, a price already recorded is ignored
+     *
+     * @param price - price in ticks
+     */
+    void markChanged(long price) {
+        if (changedIndex.get(price) != LongIntHashMap.MISSING) {
+            return;
+        }
+        if (changedCount == changedPrices.length) {
+            changedPrices = Arrays.copyOf(changedPrices, changedCount << 1);
+        }
+        changedIndex.put(price, changedCount);
+        changedPrices[changedCount++] = price;
+    }
+
+    int getChangedCount() {
+        return changedCount;
+    }
+
+    long getChangedPrice(int index) {
+        return changedPrices[index];
+    }
+
+    void clearChanged() {
+        for (int i = 0; i < changedCount; i++) {
+            changedIndex.remove(changedPrices[i]);
+        }
+        changedCount = 0;
+    }
+
+    /**
+     * Binary search of the price in the array of the levels, worst price first
+     *
+     * @param price - price in ticks
+     * @return the position of the price in the array, or (-(insertion point) - 1) when the price has no level
+     */
+    private int positionOf(long price) {
+        int low = 0;
+        int high = depth - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compare = Long.compare(levels[middle].getPrice(), price);
+            // the bids go up from the lowest price, the offers down from the highest one
+            if (!descending) {
+                compare = -compare;
+            }
+            if (compare < 0) {
+                low = middle + 1;
+            } else if (compare > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.trading.service;
+
+/**
+ * A price level of one side of the book: the head and the tail of the intrusive list of its orders
+ * in the {@link OrderStore}, oldest order first, plus the running total size and order count of the level.
+ * Instances are pooled by the {@link PriceLadder}.
+ * Not thread safe.
+ */
+class PriceLevel {
+
+    private long price;
+    private int head = OrderStore.NULL;
+    private int tail = OrderStore.NULL;
+    private int orderCount;
+    private long totalSize;
+
+    void reset(long price) {
+        this.price = price;
+        this.head = OrderStore.NULL;
+        this.tail = OrderStore.NULL;
+        this.orderCount = 0;
+        this.totalSize = 0;
+    }
+
+    /**
+     * Links the order at the end of the level, i.e. with the lowest time priority
+     *
+     * @param priority - greater than the priority of every order appended to the book before, so the priorities of a
+     *                 level increase from its head to its tail
+     */
+    void append(OrderStore store, int slot, long priority) {
+        store.setPriority(slot, priority);
+        store.setPrevious(slot, tail);
+        store.setNext(slot, OrderStore.NULL);
+        if (tail == OrderStore.NULL) {
+            head = slot;
+        } else {
+            store.setNext(tail, slot);
+        }
+        tail = slot;
+        orderCount++;
+        totalSize += store.getSize(slot);
+    }
+
+    void unlink(OrderStore store, int slot) {
+        int previous = store.getPrevious(slot);
+        int next = store.getNext(slot);
+        if (previous == OrderStore.NULL) {
+            head = next;
+        } else {
+            store.setNext(previous, next);
+        }
+        if (next == OrderStore.NULL) {
+            tail = previous;
+        } else {
+            store.setPrevious(next, previous);
+        }
+        orderCount--;
+        totalSize -= store.getSize(slot);
+    }
+
+    /**
+     * Decreases the size of the order in place, keeping its time priority
+     */
+    void reduceSize(OrderStore store, int slot, long quantity) {
+        store.setSize(slot, store.getSize(slot) - quantity);
+        totalSize -= quantity;
+    }
+
+    long getTotalSize() {
+        return totalSize;
+    }
+
+    boolean isEmpty() {
+        return orderCount == 0;
+    }
+
+    long getPrice() {
+        return price;
+    }
+
+    int getHead() {
+        return head;
+    }
+
+    int getOrderCount() {
+        return orderCount;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.trading.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point prices: inside the book a price is a long number of ticks of 1 / {@link #TICKS_PER_UNIT}, the api carries
+ * exact decimals. The double conversions only serve the metrics, the event log, the tests and the benchmarks.
+ */
+public final class PriceTicks {
+
+    public static final int SCALE = 4;
+    public static final long TICKS_PER_UNIT = 10_000L;
+    /**
+     * Length of a buffer holding any formatted price
+     */
+    public static final int MAX_FORMATTED_LENGTH = 21;
+
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1_000L, 10_000L};
+
+    private PriceTicks() {
+    }
+
+    public static long toTicks(double price) {
+        return Math.round(price * TICKS_PER_UNIT);
+    }
+
+    public static double toPrice(long ticks) {
+        return (double) ticks / TICKS_PER_UNIT;
+    }
+
+    /**
+     * @param price - exact price
+     * @return the ticks of the price
+     * @throws IllegalArgumentException when the price has more decimals than the book resolution
+     */
+    public static long toTicks(BigDecimal price) {
+        try {
+            return price.movePointRight(SCALE).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format("Price %s is finer than the price resolution of %d decimals",
+                    price.toPlainString(), SCALE));
+        }
+    }
+
+    /**
+     * @param ticks - price in ticks
+     * @param scale - number of decimals, up to {@link #SCALE}
+     * @return the exact price with the given decimals, or with {@link #SCALE} decimals when the ticks need more
+     */
+    public static BigDecimal toDecimal(long ticks, int scale) {
+        return BigDecimal.valueOf(ticks, SCALE).setScale(isRepresentable(ticks, scale) ? scale : SCALE);
+    }
+
+    /**
+     * Writes the price like {@link #toDecimal(long, int)} without allocating
+     *
+     * @param ticks  - price in ticks
+     * @param scale  - number of decimals, up to {@link #SCALE}
+     * @param buffer - receives the chars, at least {@link #MAX_FORMATTED_LENGTH} long
+     * @return the number of written chars
+     */
+    public static int format(long ticks, int scale, char[] buffer) {
+        int decimals = isRepresentable(ticks, scale) ? scale : SCALE;
+        long value = Math.abs(ticks / POWERS_OF_TEN[SCALE - decimals]);
+        // digits are written backwards from the end of the buffer, then moved to its start
+        int position = buffer.length;
+        for (int i = 0; i < decimals; i++) {
+            buffer[--position] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        if (decimals > 0) {
+            buffer[--position] = '.';
+        }
+        do {
+            buffer[--position] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        if (ticks < 0) {
+            buffer[--position] = '-';
+        }
+        int length = buffer.length - position;
+        System.arraycopy(buffer, position, buffer, 0, length);
+        return length;
+    }
+
+    private static boolean isRepresentable(long ticks, int scale) {
+        return ticks % POWERS_OF_TEN[SCALE - scale] == 0;
+    }
+}
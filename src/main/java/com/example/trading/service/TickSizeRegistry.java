@@ -0,0 +1,110 @@
+package com.example.trading.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Tick size of each instrument, `trading.tick-size.default` unless `trading.tick-size.instruments` lists the
+ * instrument, e.g. `EURUSD=0.0005,AAPL=0.01`. A tick size must be a multiple of the book resolution of 0.0001, see
+ * {@link PriceTicks}: a finer tick size, like the 0.00001 fractional pip of some currency pairs, isn't supported and
+ * fails the startup. The prices entering the books are validated against it and the prices leaving them are written
+ * with its number of decimals.
+ */
+@Component
+public class TickSizeRegistry {
+
+    private final OrderBookRegistry orderBookRegistry;
+    private final TickSize defaultTickSize;
+    private final Map<String, TickSize> instrumentToTickSize = new HashMap<>();
+
+    public TickSizeRegistry(OrderBookRegistry orderBookRegistry,
+                            @Value("${trading.tick-size.default:0.0001}") String defaultTickSize,
+                            @Value("${trading.tick-size.instruments:}") String instrumentTickSizes) {
+        this.orderBookRegistry = orderBookRegistry;
+        this.defaultTickSize = new TickSize(new BigDecimal(defaultTickSize.trim()));
+        for (String instrumentTickSize : instrumentTickSizes.split(",")) {
+            if (instrumentTickSize.isBlank()) {
+                continue;
+            }
+            int separator = instrumentTickSize.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected instrument=tickSize, got " + instrumentTickSize);
+            }
+            instrumentToTickSize.put(instrumentTickSize.substring(0, separator).trim(),
+                    new TickSize(new BigDecimal(instrumentTickSize.substring(separator + 1).trim())));
+        }
+    }
+
+    /**
+     * @param instrument - instrument symbol, null for the default instrument
+     * @param price      - price of an order, in units
+     * @return the price in ticks
+     * @throws IllegalArgumentException when the price is missing or isn't a multiple of the tick size
+     */
+    public long toTicks(String instrument, BigDecimal price) {
+        if (price == null) {
+            throw new IllegalArgumentException("Missing price");
+        }
+        long priceTicks = PriceTicks.toTicks(price);
+        validateTicks(instrument, priceTicks);
+        return priceTicks;
+    }
+
+    /**
+     * Validation of the prices which come already in ticks, e.g. in the binary messages. Costs a lookup and a modulo.
+     *
+     * @param instrument - instrument symbol, null for the default instrument
+     * @param priceTicks - price in ticks
+     * @throws IllegalArgumentException when the price isn't a multiple of the tick size
+     */
+    public void validateTicks(String instrument, long priceTicks) {
+        TickSize tickSize = getTickSize(instrument);
+        if (priceTicks % tickSize.ticks != 0) {
+            throw new IllegalArgumentException(format("Price %s of %s is not a multiple of the tick size %s",
+                    PriceTicks.toDecimal(priceTicks, PriceTicks.SCALE).stripTrailingZeros().toPlainString(),
+                    orderBookRegistry.resolveInstrument(instrument), tickSize.size.toPlainString()));
+        }
+    }
+
+    /**
+     * @param instrument - instrument symbol, null for the default instrument
+     * @return the price with the decimals of the tick size of the instrument
+     */
+    public BigDecimal toPrice(String instrument, long priceTicks) {
+        return PriceTicks.toDecimal(priceTicks, getScale(instrument));
+    }
+
+    /**
+     * @param instrument - instrument symbol, null for the default instrument
+     * @return the number of decimals of the prices of the instrument
+     */
+    public int getScale(String instrument) {
+        return getTickSize(instrument).scale;
+    }
+
+    private TickSize getTickSize(String instrument) {
+        TickSize tickSize = instrumentToTickSize.get(orderBookRegistry.resolveInstrument(instrument));
+        return tickSize == null ? defaultTickSize : tickSize;
+    }
+
+    private static class TickSize {
+        private final BigDecimal size;
+        private final long ticks;
+        private final int scale;
+
+        private TickSize(BigDecimal size) {
+            if (size.signum() <= 0) {
+                throw new IllegalArgumentException("Tick size must be positive, got " + size.toPlainString());
+            }
+            this.size = size.stripTrailingZeros();
+            this.ticks = PriceTicks.toTicks(this.size);
+            this.scale = Math.max(0, this.size.scale());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.trading.service;
+
+/**
+ * Receives the fills generated by the matching of the {@link OrderBook}. It is called on the matching thread
+ * while the book is locked, so implementations must be cheap and must not call back into the book.
+ */
+@FunctionalInterface
+public interface TradeListener {
+
+    TradeListener NONE = (takerOrderId, makerOrderId, priceTicks, size) -> {
+    };
+
+    /**
+     * @param takerOrderId - id of the incoming order
+     * @param makerOrderId - id of the resting order
+     * @param priceTicks   - execution price in ticks, i.e. the price of the resting order
+     * @param size         - executed size
+     */
+    void onTrade(long takerOrderId, long makerOrderId, long priceTicks, long size);
+}
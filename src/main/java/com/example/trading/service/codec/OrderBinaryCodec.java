@@ -0,0 +1,156 @@
+package com.example.trading.service.codec;
+
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact fixed-layout binary encoding of the order commands, big endian:
+ * <pre>
+ * offset  size  field
+ *      0     1  type: 1 add, 2 remove, 3 update, 4 replace
+ *      1     1  side: 'B' or 'O', 0 when not relevant
+ *      2     8  order id
+ *     10     8  price in ticks, see {@link com.example.trading.service.PriceTicks}, the new price for a replace
+ *     18     8  size, the new size for an update or a replace
+ *     26     1  length of the instrument, 0 for the default instrument
+ *     27    16  instrument, US-ASCII, zero padded
+ * </pre>
+ * Decoding reads the fields straight into primitives; the instrument strings are cached so the steady state decoding
+ * doesn't allocate.
+ */
+@Component
+public class OrderBinaryCodec {
+
+    public static final int MESSAGE_LENGTH = 43;
+    public static final int MAX_INSTRUMENT_LENGTH = 16;
+
+    public static final byte TYPE_ADD = 1;
+    public static final byte TYPE_REMOVE = 2;
+    public static final byte TYPE_UPDATE = 3;
+    public static final byte TYPE_REPLACE = 4;
+
+    private static final int TYPE_OFFSET = 0;
+    private static final int SIDE_OFFSET = 1;
+    private static final int ORDER_ID_OFFSET = 2;
+    private static final int PRICE_OFFSET = 10;
+    private static final int SIZE_OFFSET = 18;
+    private static final int INSTRUMENT_LENGTH_OFFSET = 26;
+    private static final int INSTRUMENT_OFFSET = 27;
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final int INSTRUMENT_CACHE_SIZE = 1024;
+
+    // racy but safe: the strings are immutable and always compared against the decoded bytes before use
+    private final String[] instrumentCache = new String[INSTRUMENT_CACHE_SIZE];
+
+    public void encodeAdd(byte[] buffer, int offset, String instrument, long orderId, long priceTicks, char side, long size) {
+        encode(buffer, offset, TYPE_ADD, instrument, orderId, priceTicks, side, size);
+    }
+
+    public void encodeRemove(byte[] buffer, int offset, String instrument, long orderId) {
+        encode(buffer, offset, TYPE_REMOVE, instrument, orderId, 0, (char) 0, 0);
+    }
+
+    public void encodeUpdate(byte[] buffer, int offset, String instrument, long orderId, long newSize) {
+        encode(buffer, offset, TYPE_UPDATE, instrument, orderId, 0, (char) 0, newSize);
+    }
+
+    public void encodeReplace(byte[] buffer, int offset, String instrument, long orderId, long newPriceTicks, long newSize) {
+        encode(buffer, offset, TYPE_REPLACE, instrument, orderId, newPriceTicks, (char) 0, newSize);
+    }
+
+    /**
+     * Decodes the message at the offset and hands it to the handler
+     *
+     * @param buffer  - buffer holding at least {@link #MESSAGE_LENGTH} bytes from the offset
+     * @param offset  - start of the message
+     * @param handler - receiver of the decoded command
+     */
+    public void decode(byte[] buffer, int offset, OrderMessageHandler handler) {
+        byte type = buffer[offset + TYPE_OFFSET];
+        long orderId = (long) LONG_VIEW.get(buffer, offset + ORDER_ID_OFFSET);
+        String instrument = decodeInstrument(buffer, offset);
+        switch (type) {
+            case TYPE_ADD:
+                handler.onAdd(instrument, orderId,
+                        (long) LONG_VIEW.get(buffer, offset + PRICE_OFFSET),
+                        (char) buffer[offset + SIDE_OFFSET],
+                        (long) LONG_VIEW.get(buffer, offset + SIZE_OFFSET));
+                break;
+            case TYPE_REMOVE:
+                handler.onRemove(instrument, orderId);
+                break;
+            case TYPE_UPDATE:
+                handler.onUpdate(instrument, orderId, (long) LONG_VIEW.get(buffer, offset + SIZE_OFFSET));
+                break;
+            case TYPE_REPLACE:
+                handler.onReplace(instrument, orderId,
+                        (long) LONG_VIEW.get(buffer, offset + PRICE_OFFSET),
+                        (long) LONG_VIEW.get(buffer, offset + SIZE_OFFSET));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown order message type " + type);
+        }
+    }
+
+    private void encode(byte[] buffer, int offset, byte type, String instrument, long orderId, long priceTicks, char side, long size) {
+        buffer[offset + TYPE_OFFSET] = type;
+        buffer[offset + SIDE_OFFSET] = (byte) side;
+        LONG_VIEW.set(buffer, offset + ORDER_ID_OFFSET, orderId);
+        LONG_VIEW.set(buffer, offset + PRICE_OFFSET, priceTicks);
+        LONG_VIEW.set(buffer, offset + SIZE_OFFSET, size);
+        int instrumentLength = instrument == null ? 0 : instrument.length();
+        if (instrumentLength > MAX_INSTRUMENT_LENGTH) {
+            throw new IllegalArgumentException("Instrument " + instrument + " is longer than " + MAX_INSTRUMENT_LENGTH);
+        }
+        buffer[offset + INSTRUMENT_LENGTH_OFFSET] = (byte) instrumentLength;
+        for (int i = 0; i < MAX_INSTRUMENT_LENGTH; i++) {
+            buffer[offset + INSTRUMENT_OFFSET + i] = i < instrumentLength ? (byte) instrument.charAt(i) : 0;
+        }
+    }
+
+    /**
+     * @param buffer - buffer holding the message
+     * @param offset - start of the message
+     * @return the instrument of the message, null for the default instrument
+     */
+    public String decodeInstrument(byte[] buffer, int offset) {
+        int length = buffer[offset + INSTRUMENT_LENGTH_OFFSET];
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0 || length > MAX_INSTRUMENT_LENGTH) {
+            throw new IllegalArgumentException("Invalid instrument length " + length);
+        }
+        int start = offset + INSTRUMENT_OFFSET;
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + buffer[start + i];
+        }
+        int index = hash & (INSTRUMENT_CACHE_SIZE - 1);
+        String cached = instrumentCache[index];
+        if (cached != null && matches(cached, buffer, start, length)) {
+            return cached;
+        }
+        String instrument = new String(buffer, start, length, StandardCharsets.US_ASCII);
+        instrumentCache[index] = instrument;
+        return instrument;
+    }
+
+    private static boolean matches(String instrument, byte[] buffer, int start, int length) {
+        if (instrument.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (instrument.charAt(i) != buffer[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.trading.service.codec;
+
+/**
+ * Receives the commands decoded by the {@link OrderBinaryCodec} as primitives.
+ */
+public interface OrderMessageHandler {
+
+    void onAdd(String instrument, long orderId, long priceTicks, char side, long size);
+
+    void onRemove(String instrument, long orderId);
+
+    void onUpdate(String instrument, long orderId, long newSize);
+
+    void onReplace(String instrument, long orderId, long newPriceTicks, long newSize);
+}
@@ -0,0 +1,77 @@
+package com.example.trading.service.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer / single-consumer queue of {@link OrderCommand}s.
+ * Producers claim a position with a CAS on the tail, the claimed position becomes the sequence number of the command,
+ * so the engine applies the commands exactly in sequence order. Each slot carries its own sequence telling
+ * whether it is free for the producer of the given lap or published for the consumer.
+ */
+class CommandRingBuffer {
+
+    private final int mask;
+    private final OrderCommand[] slots;
+    private final AtomicLongArray slotSequences;
+    private final AtomicLong tail = new AtomicLong();
+    // only touched by the consumer thread
+    private long head;
+
+    /**
+     * @param capacity - number of slots, must be a power of two
+     */
+    CommandRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two, got " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.slots = new OrderCommand[capacity];
+        this.slotSequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slotSequences.set(i, i);
+        }
+    }
+
+    /**
+     * Publishes the command if there is a free slot, never blocks
+     *
+     * @param command - command to publish
+     * @return false when the buffer is full
+     */
+    boolean offer(OrderCommand command) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long available = slotSequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    command.setSequence(position);
+                    slots[index] = command;
+                    slotSequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (available < 0) {
+                return false;
+            }
+            // another producer claimed the position in the meantime, retry with the new tail
+        }
+    }
+
+    /**
+     * Must be called only by the consumer thread
+     *
+     * @return the next command in sequence order or null when nothing was published yet
+     */
+    OrderCommand poll() {
+        int index = (int) head & mask;
+        if (slotSequences.get(index) != head + 1) {
+            return null;
+        }
+        OrderCommand command = slots[index];
+        slots[index] = null;
+        slotSequences.lazySet(index, head + slots.length);
+        head++;
+        return command;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.trading.service.engine;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-writer execution mode of the {@link OrderBook}: every mutation is published into a lock-free
+ * {@link CommandRingBuffer} and applied by one dedicated engine thread, in sequence order.
+ * The books of the instruments routed to the engine are therefore only ever mutated by that thread,
+ * so their locks are never contended between writers.
+ */
+public class OrderBookEngine implements AutoCloseable {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final OrderBookRegistry orderBookRegistry;
+    private final CommandRingBuffer ringBuffer;
+    private final Thread engineThread;
+    private volatile boolean running;
+    // cleared first when closing, the engine keeps running until the submits in progress published their command
+    private volatile boolean accepting;
+    private final AtomicInteger submitsInProgress = new AtomicInteger();
+
+    public OrderBookEngine(OrderBookRegistry orderBookRegistry, int ringBufferSize, String name) {
+        this.orderBookRegistry = orderBookRegistry;
+        this.ringBuffer = new CommandRingBuffer(ringBufferSize);
+        this.engineThread = new Thread(this::run, name);
+        this.engineThread.setDaemon(true);
+    }
+
+    public void start() {
+        running = true;
+        accepting = true;
+        engineThread.start();
+        logger.info("Order book engine {} started", engineThread.getName());
+    }
+
+    /**
+     * Publishes the command to the engine, waiting for a free slot when the ring buffer is full
+     *
+     * @param command - command to apply
+     * @return the completion future of the command
+     */
+    public CompletableFuture<Long> submit(OrderCommand command) {
+        submitsInProgress.incrementAndGet();
+        try {
+            if (!accepting) {
+                throw new IllegalStateException("Order book engine is not running");
+            }
+            while (!ringBuffer.offer(command)) {
+                // back-pressure, the engine thread is behind
+                LockSupport.parkNanos(1);
+            }
+        } finally {
+            submitsInProgress.decrementAndGet();
+        }
+        return command.getCompletion();
+    }
+
+    /**
+     * Stops accepting commands, then stops the engine thread once every accepted command was applied, so no
+     * completion is left pending
+     */
+    @Override
+    public void close() throws InterruptedException {
+        accepting = false;
+        // a submit which saw the engine accepting is publishing its command, the engine must still drain it
+        while (submitsInProgress.get() > 0) {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        running = false;
+        engineThread.join();
+        logger.info("Order book engine {} stopped", engineThread.getName());
+    }
+
+    private void run() {
+        int idleCount = 0;
+        while (running) {
+            OrderCommand command = ringBuffer.poll();
+            if (command == null) {
+                idle(idleCount++);
+                continue;
+            }
+            idleCount = 0;
+            apply(command);
+        }
+        // drain what was published before stopping
+        OrderCommand command;
+        while ((command = ringBuffer.poll()) != null) {
+            apply(command);
+        }
+    }
+
+    private void apply(OrderCommand command) {
+        try {
+            command.complete(orderBookRegistry.getOrderBook(command.getInstrument()).apply(command));
+        } catch (RuntimeException e) {
+            logger.error("Failed to apply command with sequence {}", command.getSequence(), e);
+            command.getCompletion().completeExceptionally(e);
+        }
+    }
+
+    private void idle(int idleCount) {
+        if (idleCount < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (idleCount < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.trading.service.engine;
+
+import com.example.trading.service.OrderBookRegistry;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shards the instruments over several {@link OrderBookEngine}s: an instrument is always routed to the same engine,
+ * so its commands keep their order while the different instruments are applied in parallel.
+ */
+public class OrderBookEngineGroup implements AutoCloseable {
+
+    private final OrderBookEngine[] engines;
+
+    public OrderBookEngineGroup(OrderBookRegistry orderBookRegistry, int engineCount, int ringBufferSize) {
+        engines = new OrderBookEngine[engineCount];
+        for (int i = 0; i < engineCount; i++) {
+            engines[i] = new OrderBookEngine(orderBookRegistry, ringBufferSize, "order-book-engine-" + i);
+        }
+    }
+
+    public void start() {
+        for (OrderBookEngine engine : engines) {
+            engine.start();
+        }
+    }
+
+    /**
+     * Publishes the command to the engine owning its instrument
+     *
+     * @param command - command of an already resolved instrument
+     * @return the completion future of the command
+     */
+    public CompletableFuture<Long> submit(OrderCommand command) {
+        return engines[Math.floorMod(command.getInstrument().hashCode(), engines.length)].submit(command);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        for (OrderBookEngine engine : engines) {
+            engine.close();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.trading.service.engine;
+
+import com.example.trading.model.entity.Order;
+import com.example.trading.model.enums.OrderCommandType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A book mutation travelling through the {@link OrderBookEngine}. The sequence is assigned when the command
+ * is claimed in the ring buffer and the future completes once the engine thread has applied it.
+ */
+public class OrderCommand {
+
+    private final String instrument;
+    private final OrderCommandType type;
+    private final long orderId;
+    private final long priceTicks;
+    private final char side;
+    private final long size;
+    private final long maxPriceTicks;
+    private final List<OrderCommand> commands;
+    private final CompletableFuture<Long> completion = new CompletableFuture<>();
+    private long sequence = -1;
+    // written before the completion, read after it
+    private boolean applied;
+    private List<Long> removedOrderIds;
+
+    private OrderCommand(String instrument, OrderCommandType type, long orderId, long priceTicks, char side, long size) {
+        this(instrument, type, orderId, priceTicks, side, size, 0, null);
+    }
+
+    private OrderCommand(String instrument, OrderCommandType type, long orderId, long priceTicks, char side, long size,
+                         long maxPriceTicks, List<OrderCommand> commands) {
+        this.instrument = instrument;
+        this.type = type;
+        this.orderId = orderId;
+        this.priceTicks = priceTicks;
+        this.side = side;
+        this.size = size;
+        this.maxPriceTicks = maxPriceTicks;
+        this.commands = commands;
+    }
+
+    public static OrderCommand add(String instrument, Order order) {
+        return add(instrument, order.getId(), order.getPriceTicks(), order.getSide(), order.getSize());
+    }
+
+    public static OrderCommand add(String instrument, long orderId, long priceTicks, char side, long size) {
+        return new OrderCommand(instrument, OrderCommandType.ADD, orderId, priceTicks, side, size);
+    }
+
+    public static OrderCommand remove(String instrument, long orderId) {
+        return new OrderCommand(instrument, OrderCommandType.REMOVE, orderId, 0, (char) 0, 0);
+    }
+
+    public static OrderCommand update(String instrument, long orderId, long newSize) {
+        return new OrderCommand(instrument, OrderCommandType.UPDATE, orderId, 0, (char) 0, newSize);
+    }
+
+    public static OrderCommand replace(String instrument, long orderId, long newPriceTicks, long newSize) {
+        return new OrderCommand(instrument, OrderCommandType.REPLACE, orderId, newPriceTicks, (char) 0, newSize);
+    }
+
+    /**
+     * Removes every order of the side resting between the two prices, both included
+     */
+    public static OrderCommand removeRange(String instrument, char side, long minPriceTicks, long maxPriceTicks) {
+        return new OrderCommand(instrument, OrderCommandType.REMOVE_RANGE, 0, minPriceTicks, side, 0, maxPriceTicks, null);
+    }
+
+    /**
+     * Applies the commands of one instrument under a single acquisition of its book, see
+     * {@link com.example.trading.service.OrderBook#applyBatch(List)}. Each command of the batch is completed on its own.
+     */
+    public static OrderCommand batch(String instrument, List<OrderCommand> commands) {
+        return new OrderCommand(instrument, OrderCommandType.BATCH, 0, 0, (char) 0, 0, 0, commands);
+    }
+
+    /**
+     * @return the instrument of the book the command applies to, already resolved by the {@link com.example.trading.service.OrderBookRegistry}
+     */
+    public String getInstrument() {
+        return instrument;
+    }
+
+    public OrderCommandType getType() {
+        return type;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public long getPriceTicks() {
+        return priceTicks;
+    }
+
+    public char getSide() {
+        return side;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getMaxPriceTicks() {
+        return maxPriceTicks;
+    }
+
+    public List<OrderCommand> getCommands() {
+        return commands;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * @return a future completed with the sequence number of the command once it was applied to the book
+     */
+    public CompletableFuture<Long> getCompletion() {
+        return completion;
+    }
+
+    /**
+     * Completes the command once it was applied to the book
+     *
+     * @param applied - false when the order of a remove, update or replace wasn't in the book
+     */
+    public void complete(boolean applied) {
+        this.applied = applied;
+        completion.complete(sequence);
+    }
+
+    /**
+     * @return false when the order of a remove, update or replace wasn't in the book, valid once completed
+     */
+    public boolean isApplied() {
+        return applied;
+    }
+
+    /**
+     * Records an order removed by a {@link OrderCommandType#REMOVE_RANGE} command
+     *
+     * @param orderId - id of the removed order
+     */
+    public void addRemovedOrderId(long orderId) {
+        if (removedOrderIds == null) {
+            removedOrderIds = new ArrayList<>();
+        }
+        removedOrderIds.add(orderId);
+    }
+
+    /**
+     * @return the orders removed by a {@link OrderCommandType#REMOVE_RANGE} command, valid once completed
+     */
+    public List<Long> getRemovedOrderIds() {
+        return removedOrderIds == null ? List.of() : removedOrderIds;
+    }
+}
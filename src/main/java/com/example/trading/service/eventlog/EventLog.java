@@ -0,0 +1,278 @@
+package com.example.trading.service.eventlog;
+
+import com.example.trading.service.PriceTicks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous, garbage-free log of the requests, messages and book mutations, replacing the log lines of the hot
+ * path. Recording an event copies its type, thread, time, name and four long values into a preallocated slot of a
+ * bounded lock-free ring, the same multi-producer / single-consumer scheme as the engine ring buffer: nothing is
+ * formatted and nothing is allocated by the caller. A writer thread drains the ring and formats the events as
+ * key=value lines on the INFO level of this class' logger.
+ * <p>
+ * The event is dropped and counted when the ring is full, the callers never wait for the writer. The book mutations
+ * are only traced in the sampled trace mode, one mutation in `traceSampling` being recorded, the fills always are.
+ */
+public class EventLog implements AutoCloseable {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    /**
+     * Disabled log, recording does nothing
+     */
+    public static final EventLog NONE = new EventLog();
+
+    private static final int FIELDS = 7;
+    private static final int TYPE = 0;
+    private static final int THREAD = 1;
+    private static final int TIME = 2;
+    private static final int VALUES = 3;
+    private static final EventType[] TYPES = EventType.values();
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final boolean enabled;
+    private final int traceSampling;
+    private final int mask;
+    private final long[] fields;
+    private final String[] names;
+    private final AtomicLongArray slotSequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    // only touched by the consumer thread
+    private long head;
+
+    private final Thread writerThread;
+    private volatile boolean running;
+
+    /**
+     * @param capacity      - number of events the ring holds, must be a power of two
+     * @param traceSampling - one book mutation in traceSampling is traced, 0 to trace none
+     */
+    public EventLog(int capacity, int traceSampling) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two, got " + capacity);
+        }
+        if (traceSampling < 0) {
+            throw new IllegalArgumentException("traceSampling must be positive or 0, got " + traceSampling);
+        }
+        this.enabled = true;
+        this.traceSampling = traceSampling;
+        this.mask = capacity - 1;
+        this.fields = new long[capacity * FIELDS];
+        this.names = new String[capacity];
+        this.slotSequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slotSequences.set(i, i);
+        }
+        this.writerThread = new Thread(this::write, "event-log-writer");
+        this.writerThread.setDaemon(true);
+    }
+
+    private EventLog() {
+        this.enabled = false;
+        this.traceSampling = 0;
+        this.mask = 0;
+        this.fields = null;
+        this.names = null;
+        this.slotSequences = null;
+        this.writerThread = null;
+    }
+
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread.start();
+    }
+
+    /**
+     * @param name - handler method of the request, a constant
+     */
+    public void request(String name) {
+        record(EventType.REQUEST, name, 0, 0, 0, 0);
+    }
+
+    /**
+     * @param queue - queue the message was received from, a constant
+     */
+    public void message(String queue) {
+        record(EventType.MESSAGE, queue, 0, 0, 0, 0);
+    }
+
+    /**
+     * Records a fill, whatever the trace sampling
+     *
+     * @param instrument   - instrument of the book
+     * @param takerOrderId - id of the incoming order
+     * @param makerOrderId - id of the resting order
+     * @param priceTicks   - execution price in ticks
+     * @param size         - executed size
+     */
+    public void trade(String instrument, long takerOrderId, long makerOrderId, long priceTicks, long size) {
+        record(EventType.TRADE, instrument, takerOrderId, makerOrderId, priceTicks, size);
+    }
+
+    /**
+     * @return false when the book mutations are never traced, so the books don't need to call {@link #trace}
+     */
+    public boolean isTracing() {
+        return enabled && traceSampling > 0;
+    }
+
+    /**
+     * Records the mutation when it is sampled
+     *
+     * @param type       - type of the mutation
+     * @param instrument - instrument of the book
+     * @param value1     - first value, see {@link EventType}
+     * @param value2     - second value
+     * @param value3     - third value
+     * @param value4     - fourth value
+     */
+    public void trace(EventType type, String instrument, long value1, long value2, long value3, long value4) {
+        if (traceSampling == 0 || traceSampling > 1 && ThreadLocalRandom.current().nextInt(traceSampling) != 0) {
+            return;
+        }
+        record(type, instrument, value1, value2, value3, value4);
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Hands the recorded events to the handler in the order they were recorded. Must only be called by one thread,
+     * which is the writer thread once the log is started.
+     *
+     * @param handler - receiver of the events
+     * @return the number of drained events
+     */
+    public int drain(EventHandler handler) {
+        if (!enabled) {
+            return 0;
+        }
+        int drained = 0;
+        while (true) {
+            int index = (int) head & mask;
+            if (slotSequences.get(index) != head + 1) {
+                return drained;
+            }
+            int offset = index * FIELDS;
+            handler.onEvent(TYPES[(int) fields[offset + TYPE]], fields[offset + THREAD], fields[offset + TIME], names[index],
+                    fields[offset + VALUES], fields[offset + VALUES + 1], fields[offset + VALUES + 2], fields[offset + VALUES + 3]);
+            slotSequences.lazySet(index, head + names.length);
+            head++;
+            drained++;
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writerThread.join();
+    }
+
+    private void record(EventType type, String name, long value1, long value2, long value3, long value4) {
+        if (!enabled) {
+            return;
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long available = slotSequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    int offset = index * FIELDS;
+                    fields[offset + TYPE] = type.ordinal();
+                    fields[offset + THREAD] = Thread.currentThread().threadId();
+                    fields[offset + TIME] = System.currentTimeMillis();
+                    fields[offset + VALUES] = value1;
+                    fields[offset + VALUES + 1] = value2;
+                    fields[offset + VALUES + 2] = value3;
+                    fields[offset + VALUES + 3] = value4;
+                    names[index] = name;
+                    slotSequences.lazySet(index, position + 1);
+                    return;
+                }
+            } else if (available < 0) {
+                droppedCount.incrementAndGet();
+                return;
+            }
+            // another producer claimed the position in the meantime, retry with the new tail
+        }
+    }
+
+    private void write() {
+        StringBuilder line = new StringBuilder(128);
+        EventHandler formatter = (type, threadId, timeMillis, name, value1, value2, value3, value4) -> {
+            if (!logger.isInfoEnabled()) {
+                return;
+            }
+            line.setLength(0);
+            format(line, type, threadId, timeMillis, name, value1, value2, value3, value4);
+            logger.info(line.toString());
+        };
+        while (running) {
+            try {
+                if (drain(formatter) == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to write the events", e);
+            }
+        }
+        drain(formatter);
+    }
+
+    static void format(StringBuilder line, EventType type, long threadId, long timeMillis, String name,
+                       long value1, long value2, long value3, long value4) {
+        line.append("event=").append(type.name().toLowerCase())
+                .append(type == EventType.REQUEST ? " method=" : type == EventType.MESSAGE ? " queue=" : " instrument=").append(name)
+                .append(" thread=").append(threadId)
+                .append(" time=").append(timeMillis);
+        switch (type) {
+            case ADD_ORDER:
+                line.append(" orderId=").append(value1).append(" price=").append(PriceTicks.toPrice(value2))
+                        .append(" side=").append((char) value3).append(" size=").append(value4);
+                break;
+            case REMOVE_ORDER:
+                line.append(" orderId=").append(value1);
+                break;
+            case UPDATE_ORDER:
+                line.append(" orderId=").append(value1).append(" size=").append(value2);
+                break;
+            case REPLACE_ORDER:
+                line.append(" orderId=").append(value1).append(" price=").append(PriceTicks.toPrice(value2))
+                        .append(" size=").append(value3);
+                break;
+            case REMOVE_ORDERS:
+                line.append(" side=").append((char) value1).append(" minPrice=").append(PriceTicks.toPrice(value2))
+                        .append(" maxPrice=").append(PriceTicks.toPrice(value3)).append(" removed=").append(value4);
+                break;
+            case TRADE:
+                line.append(" takerOrderId=").append(value1).append(" makerOrderId=").append(value2)
+                        .append(" price=").append(PriceTicks.toPrice(value3)).append(" size=").append(value4);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Receiver of the drained events
+     */
+    @FunctionalInterface
+    public interface EventHandler {
+        void onEvent(EventType type, long threadId, long timeMillis, String name, long value1, long value2, long value3, long value4);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.trading.service.eventlog;
+
+/**
+ * Events of the {@link EventLog}. The meaning of the name and of the four values of an event depends on its type.
+ */
+public enum EventType {
+    /**
+     * HTTP request, the name is the handler method
+     */
+    REQUEST,
+    /**
+     * JMS message, the name is the queue
+     */
+    MESSAGE,
+    /**
+     * Traced add, the name is the instrument and the values are the order id, the price in ticks, the side and the size
+     */
+    ADD_ORDER,
+    /**
+     * Traced remove, the name is the instrument and the value is the order id
+     */
+    REMOVE_ORDER,
+    /**
+     * Traced amend, the name is the instrument and the values are the order id and the new size
+     */
+    UPDATE_ORDER,
+    /**
+     * Traced cancel-replace, the name is the instrument and the values are the order id, the new price in ticks and
+     * the new size
+     */
+    REPLACE_ORDER,
+    /**
+     * Traced range removal, the name is the instrument and the values are the side, the lowest and the highest price
+     * in ticks and the number of removed orders
+     */
+    REMOVE_ORDERS,
+    /**
+     * Fill, always recorded, the name is the instrument and the values are the taker and maker order ids, the price
+     * in ticks and the size
+     */
+    TRADE
+}
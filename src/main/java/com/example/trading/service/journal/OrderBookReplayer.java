@@ -0,0 +1,37 @@
+package com.example.trading.service.journal;
+
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.codec.OrderMessageHandler;
+
+/**
+ * Applies the replayed commands of the {@link OrderJournal} to the books of the registry. The books must not be
+ * journaled yet, otherwise the replayed commands would be appended again.
+ */
+public class OrderBookReplayer implements OrderMessageHandler {
+
+    private final OrderBookRegistry orderBookRegistry;
+
+    public OrderBookReplayer(OrderBookRegistry orderBookRegistry) {
+        this.orderBookRegistry = orderBookRegistry;
+    }
+
+    @Override
+    public void onAdd(String instrument, long orderId, long priceTicks, char side, long size) {
+        orderBookRegistry.getOrderBook(instrument).addOrder(orderId, priceTicks, side, size);
+    }
+
+    @Override
+    public void onRemove(String instrument, long orderId) {
+        orderBookRegistry.getOrderBook(instrument).removeOrder(orderId);
+    }
+
+    @Override
+    public void onUpdate(String instrument, long orderId, long newSize) {
+        orderBookRegistry.getOrderBook(instrument).updateOrder(orderId, newSize);
+    }
+
+    @Override
+    public void onReplace(String instrument, long orderId, long newPriceTicks, long newSize) {
+        orderBookRegistry.getOrderBook(instrument).replaceOrder(orderId, newPriceTicks, newSize);
+    }
+}
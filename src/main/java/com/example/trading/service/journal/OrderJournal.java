@@ -0,0 +1,422 @@
+package com.example.trading.service.journal;
+
+import com.example.trading.service.codec.OrderBinaryCodec;
+import com.example.trading.service.codec.OrderMessageHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static java.lang.String.format;
+
+/**
+ * Append-only write-ahead log of the order commands, made of memory-mapped segment files named after their first
+ * sequence. Each record is length-prefixed and checksummed:
+ * <pre>
+ * offset  size  field
+ *      0     4  length of the rest of the record, written last
+ *      4     4  CRC32C of the sequence and the command
+ *      8     8  sequence of the record, starting at 1
+ *     16    43  command in the {@link OrderBinaryCodec} layout
+ * </pre>
+ * The OS may write the pages of a mapped segment back in any order, so after a power loss the length of a record can
+ * be on disk while its sequence or command isn't. The replay ends at the first record with a zero length, a wrong
+ * length or a wrong checksum, and truncates the journal there: the rest of its segment is zeroed and the following
+ * segments are deleted.
+ * Appending only copies the record into the mapped segment. A flusher thread forces the appended bytes to disk and
+ * wakes the callers of {@link #awaitDurable(long)}: every append made while a force is running is covered by the next
+ * one, so concurrent producers share the fsyncs (group commit).
+ * <p>
+ * Durability is promised to the caller acknowledged after {@link #awaitDurable(long)}, not to the downstream consumers:
+ * the books apply and publish a mutation right after appending it, so during the group-commit window (one fsync,
+ * typically well under a millisecond on an SSD) the views, streams, market data and trades can show a mutation that a
+ * crash then loses. Consumers that can't tolerate it must reconcile with the book after a restart.
+ * <p>
+ * {@link #replay(OrderMessageHandler)} must be called once before the first append, it positions the writer after
+ * the last complete record.
+ */
+public class OrderJournal implements OrderMessageHandler, AutoCloseable {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    public static final int RECORD_LENGTH = 4 + 4 + 8 + OrderBinaryCodec.MESSAGE_LENGTH;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int CHECKSUM_OFFSET = 4;
+    private static final int SEQUENCE_OFFSET = 8;
+    // the sequence and the command, covered by the checksum
+    private static final int CHECKED_LENGTH = RECORD_LENGTH - SEQUENCE_OFFSET;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalNanos;
+    private final OrderBinaryCodec codec;
+    // the sequence followed by the command, at Long.BYTES
+    private final byte[] recordBuffer = new byte[CHECKED_LENGTH];
+    private final ByteBuffer recordView = ByteBuffer.wrap(recordBuffer);
+    private final CRC32C checksum = new CRC32C();
+
+    // guards the record buffer, the segment and the appended sequence. A lock rather than a monitor: the appends run
+    // on the request threads under the book lock and a roll maps and forces files, a virtual thread blocked on or
+    // holding a monitor would pin its carrier thread
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private MappedByteBuffer segment;
+    private long appendedSequence;
+    private boolean replayed;
+
+    private volatile long publishedSequence;
+    private volatile long durableSequence;
+    // a lock rather than a monitor, so the virtual threads waiting for the fsync don't pin their carrier threads
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableCondition = durableLock.newCondition();
+
+    private final Thread flusherThread;
+    private volatile boolean running;
+
+    /**
+     * @param directory           - directory of the segment files, created when missing
+     * @param segmentSize         - size in bytes of a segment file
+     * @param flushIntervalMicros - pause of the flusher when there is nothing to force
+     * @param codec               - layout of the commands
+     */
+    public OrderJournal(Path directory, int segmentSize, long flushIntervalMicros, OrderBinaryCodec codec) {
+        if (segmentSize < RECORD_LENGTH) {
+            throw new IllegalArgumentException("Journal segment size must hold at least one record");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.flushIntervalNanos = TimeUnit.MICROSECONDS.toNanos(flushIntervalMicros);
+        this.codec = codec;
+        this.flusherThread = new Thread(this::flush, "order-journal-flusher");
+        this.flusherThread.setDaemon(true);
+    }
+
+    /**
+     * Reads every complete record of the journal, oldest first, and hands the commands to the handler
+     *
+     * @param handler - receiver of the commands, typically applying them to the books
+     * @return the number of replayed commands
+     */
+    public long replay(OrderMessageHandler handler) {
+        return replay(instrument -> 0, handler);
+    }
+
+    /**
+     * Replays only the records of an instrument with a sequence greater than the last one already applied to its
+     * book, the earlier ones being covered by a snapshot
+     *
+     * @param lastAppliedSequence - last sequence already applied, by instrument
+     * @param handler             - receiver of the commands
+     * @return the number of replayed commands
+     */
+    public long replay(ToLongFunction<String> lastAppliedSequence, OrderMessageHandler handler) {
+        appendLock.lock();
+        try {
+            return replayLocked(lastAppliedSequence, handler);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private long replayLocked(ToLongFunction<String> lastAppliedSequence, OrderMessageHandler handler) {
+        if (replayed) {
+            throw new IllegalStateException("Journal was already replayed");
+        }
+        long count = 0;
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = listSegments();
+            for (int i = 0; i < segments.size(); i++) {
+                MappedByteBuffer mapped = map(segments.get(i));
+                int position = 0;
+                boolean torn = false;
+                while (position + RECORD_LENGTH <= segmentSize) {
+                    int length = mapped.getInt(position);
+                    if (length == 0) {
+                        break;
+                    }
+                    mapped.get(position + SEQUENCE_OFFSET, recordBuffer);
+                    if (length != RECORD_LENGTH - 4 || mapped.getInt(position + CHECKSUM_OFFSET) != checksum()) {
+                        torn = true;
+                        break;
+                    }
+                    long sequence = recordView.getLong(0);
+                    if (sequence > lastAppliedSequence.applyAsLong(codec.decodeInstrument(recordBuffer, Long.BYTES))) {
+                        codec.decode(recordBuffer, Long.BYTES, handler);
+                        count++;
+                    }
+                    appendedSequence = sequence;
+                    position += RECORD_LENGTH;
+                }
+                segment = mapped;
+                segment.position(position);
+                if (torn) {
+                    truncate(segments.subList(i + 1, segments.size()));
+                    break;
+                }
+            }
+            if (segment == null) {
+                segment = map(segmentPath(1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay the journal in " + directory, e);
+        }
+        publishedSequence = appendedSequence;
+        durableSequence = appendedSequence;
+        replayed = true;
+        logger.info("Replayed {} commands of the journal in {}, last sequence {}", count, directory, appendedSequence);
+        return count;
+    }
+
+    public void start() {
+        if (!replayed) {
+            throw new IllegalStateException("Journal must be replayed before it is started");
+        }
+        running = true;
+        flusherThread.start();
+    }
+
+    @Override
+    public void onAdd(String instrument, long orderId, long priceTicks, char side, long size) {
+        appendLock.lock();
+        try {
+            codec.encodeAdd(recordBuffer, Long.BYTES, instrument, orderId, priceTicks, side, size);
+            append();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void onRemove(String instrument, long orderId) {
+        appendLock.lock();
+        try {
+            codec.encodeRemove(recordBuffer, Long.BYTES, instrument, orderId);
+            append();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void onUpdate(String instrument, long orderId, long newSize) {
+        appendLock.lock();
+        try {
+            codec.encodeUpdate(recordBuffer, Long.BYTES, instrument, orderId, newSize);
+            append();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void onReplace(String instrument, long orderId, long newPriceTicks, long newSize) {
+        appendLock.lock();
+        try {
+            codec.encodeReplace(recordBuffer, Long.BYTES, instrument, orderId, newPriceTicks, newSize);
+            append();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return the sequence of the last appended command
+     */
+    public long getAppendedSequence() {
+        return publishedSequence;
+    }
+
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Blocks until the commands up to the sequence are forced to disk
+     *
+     * @param sequence - sequence to wait for, usually {@link #getAppendedSequence()}
+     */
+    public void awaitDurable(long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        durableLock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (!running) {
+                    throw new IllegalStateException("Order journal is not running");
+                }
+                durableCondition.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the journal", e);
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the segments holding only records up to the sequence, e.g. the ones covered by a snapshot.
+     * The segment being appended to is always kept.
+     *
+     * @param sequence - last sequence which doesn't need to be replayed anymore
+     * @return the number of deleted segments
+     */
+    public int deleteSegmentsUpTo(long sequence) {
+        int deleted = 0;
+        appendLock.lock();
+        try {
+            List<Path> segments = listSegments();
+            // a segment ends right before the first sequence of the next one
+            for (int i = 0; i + 1 < segments.size(); i++) {
+                if (firstSequence(segments.get(i + 1)) - 1 > sequence) {
+                    break;
+                }
+                Files.delete(segments.get(i));
+                deleted++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete the journal segments of " + directory, e);
+        } finally {
+            appendLock.unlock();
+        }
+        return deleted;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        flusherThread.join();
+        forceAppended();
+        logger.info("Order journal closed at sequence {}", durableSequence);
+    }
+
+    // called holding the append lock, the record was just encoded into the record buffer
+    private void append() {
+        if (!replayed) {
+            throw new IllegalStateException("Journal must be replayed before appending");
+        }
+        if (segment.position() + RECORD_LENGTH > segmentSize) {
+            roll();
+        }
+        long sequence = appendedSequence + 1;
+        int position = segment.position();
+        recordView.putLong(0, sequence);
+        segment.put(position + SEQUENCE_OFFSET, recordBuffer);
+        segment.putInt(position + CHECKSUM_OFFSET, checksum());
+        segment.putInt(position, RECORD_LENGTH - 4);
+        segment.position(position + RECORD_LENGTH);
+        appendedSequence = sequence;
+        publishedSequence = sequence;
+    }
+
+    // of the record buffer
+    private int checksum() {
+        checksum.reset();
+        checksum.update(recordBuffer, 0, CHECKED_LENGTH);
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * Drops everything after the last valid record: the rest of the current segment is zeroed, so the next appends
+     * overwrite the torn record, and the following segments are deleted
+     *
+     * @param followingSegments - segments after the current one
+     */
+    private void truncate(List<Path> followingSegments) throws IOException {
+        int position = segment.position();
+        logger.warn("Torn record in the journal in {} after sequence {}, truncating {} bytes and {} segments",
+                directory, appendedSequence, segmentSize - position, followingSegments.size());
+        for (int offset = position; offset < segmentSize; offset++) {
+            segment.put(offset, (byte) 0);
+        }
+        segment.force();
+        for (Path path : followingSegments) {
+            Files.delete(path);
+        }
+    }
+
+    private void roll() {
+        segment.force();
+        try {
+            segment = map(segmentPath(appendedSequence + 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to roll the journal in " + directory, e);
+        }
+    }
+
+    private void flush() {
+        while (running) {
+            if (durableSequence == publishedSequence) {
+                LockSupport.parkNanos(flushIntervalNanos);
+                continue;
+            }
+            forceAppended();
+        }
+    }
+
+    private void forceAppended() {
+        MappedByteBuffer toForce;
+        long sequence;
+        appendLock.lock();
+        try {
+            toForce = segment;
+            sequence = appendedSequence;
+        } finally {
+            appendLock.unlock();
+        }
+        // a segment replaced in between was forced when rolling
+        toForce.force();
+        durableLock.lock();
+        try {
+            durableSequence = sequence;
+            durableCondition.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping outlives the channel
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+}
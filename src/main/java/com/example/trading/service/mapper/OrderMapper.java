@@ -1,35 +1,152 @@
 package com.example.trading.service.mapper;
 
+import com.example.trading.model.dto.BookDto;
+import com.example.trading.model.dto.DepthSnapshotDto;
+import com.example.trading.model.dto.LevelDto;
 import com.example.trading.model.dto.OrderAddRequestDto;
 import com.example.trading.model.dto.OrderDto;
+import com.example.trading.model.dto.TopOfBookDto;
 import com.example.trading.model.entity.Order;
+import com.example.trading.service.DepthLevel;
+import com.example.trading.service.DepthSnapshot;
+import com.example.trading.service.OrderBookSnapshot;
+import com.example.trading.service.TickSizeRegistry;
+import com.example.trading.service.view.BookView;
+import com.example.trading.service.view.TopOfBook;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
 public class OrderMapper {
 
-    public Order mapToOrder(OrderAddRequestDto orderAddRequestDto) {
+    private final TickSizeRegistry tickSizeRegistry;
+
+    public OrderMapper(TickSizeRegistry tickSizeRegistry) {
+        this.tickSizeRegistry = tickSizeRegistry;
+    }
+
+    /**
+     * @param instrument - instrument of the book receiving the order, null for the default instrument
+     * @throws IllegalArgumentException when the price isn't a multiple of the tick size of the instrument
+     */
+    public Order mapToOrder(String instrument, OrderAddRequestDto orderAddRequestDto) {
         return new Order(
                 orderAddRequestDto.getId(),
-                orderAddRequestDto.getPrice(),
+                tickSizeRegistry.toTicks(instrument, orderAddRequestDto.getPrice()),
                 orderAddRequestDto.getSide().charAt(0),
                 orderAddRequestDto.getSize()
         );
     }
 
-    public List<OrderDto> mapToOrderDtos(List<Order> orders) {
-        return orders.stream().map(this::mapToOrderDto).collect(Collectors.toList());
+    public List<OrderDto> mapToOrderDtos(String instrument, List<Order> orders) {
+        return orders.stream().map(order -> mapToOrderDto(instrument, order)).collect(Collectors.toList());
     }
 
-    public OrderDto mapToOrderDto(Order order) {
+    public OrderDto mapToOrderDto(String instrument, Order order) {
         return new OrderDto(
                 order.getId(),
-                order.getPrice(),
+                tickSizeRegistry.toPrice(instrument, order.getPriceTicks()),
                 order.getSide(),
                 order.getSize()
         );
     }
+
+    public DepthSnapshotDto mapToDepthSnapshotDto(String instrument, DepthSnapshot depthSnapshot) {
+        return new DepthSnapshotDto(
+                instrument,
+                depthSnapshot.getSequence(),
+                mapToLevelDtos(instrument, depthSnapshot.getBids()),
+                mapToLevelDtos(instrument, depthSnapshot.getOffers())
+        );
+    }
+
+    public List<LevelDto> mapToLevelDtos(String instrument, List<DepthLevel> levels) {
+        return levels.stream()
+                .map(level -> new LevelDto(tickSizeRegistry.toPrice(instrument, level.getPriceTicks()), level.getTotalSize(), level.getOrderCount()))
+                .collect(Collectors.toList());
+    }
+
+    public BookDto mapToBookDto(BookView bookView) {
+        return new BookDto(
+                bookView.getInstrument(),
+                bookView.getSequence(),
+                mapToLevelDtos(bookView.getInstrument(), bookView.getBids()),
+                mapToLevelDtos(bookView.getInstrument(), bookView.getOffers()),
+                null,
+                null
+        );
+    }
+
+    /**
+     * Aggregates the levels from the orders of the snapshot, which come best price first and in time priority
+     */
+    public BookDto mapToBookDto(String instrument, OrderBookSnapshot orderBookSnapshot) {
+        List<LevelDto> bids = new ArrayList<>();
+        List<LevelDto> offers = new ArrayList<>();
+        List<OrderDto> bidOrders = new ArrayList<>();
+        List<OrderDto> offerOrders = new ArrayList<>();
+        int index = 0;
+        while (index < orderBookSnapshot.getOrderCount()) {
+            char side = orderBookSnapshot.getSide(index);
+            long price = orderBookSnapshot.getPrice(index);
+            BigDecimal decimalPrice = tickSizeRegistry.toPrice(instrument, price);
+            boolean isBid = side == 'B';
+            long totalSize = 0;
+            int orderCount = 0;
+            for (; index < orderBookSnapshot.getOrderCount()
+                    && orderBookSnapshot.getSide(index) == side && orderBookSnapshot.getPrice(index) == price; index++) {
+                totalSize += orderBookSnapshot.getSize(index);
+                orderCount++;
+                (isBid ? bidOrders : offerOrders).add(new OrderDto(orderBookSnapshot.getId(index), decimalPrice,
+                        side, orderBookSnapshot.getSize(index)));
+            }
+            (isBid ? bids : offers).add(new LevelDto(decimalPrice, totalSize, orderCount));
+        }
+        return new BookDto(instrument, orderBookSnapshot.getDepthSequence(), bids, offers, bidOrders, offerOrders);
+    }
+
+    /**
+     * @param instrument - instrument symbol, null for the default instrument
+     * @param priceTicks - price in ticks
+     * @return the price with the decimals of the tick size of the instrument
+     */
+    public BigDecimal mapToPrice(String instrument, long priceTicks) {
+        return tickSizeRegistry.toPrice(instrument, priceTicks);
+    }
+
+    /**
+     * @param levels - the number of levels per side, up to the depth of the snapshot
+     */
+    public TopOfBookDto mapToTopOfBookDto(String instrument, TopOfBook.Snapshot snapshot, int levels) {
+        long spread = snapshot.getSpread();
+        return new TopOfBookDto(
+                instrument,
+                snapshot.getSequence(),
+                mapToLevelDtos(instrument, snapshot, 'B', levels),
+                mapToLevelDtos(instrument, snapshot, 'O', levels),
+                spread == TopOfBook.MISSING ? null : tickSizeRegistry.toPrice(instrument, spread)
+        );
+    }
+
+    private List<LevelDto> mapToLevelDtos(String instrument, TopOfBook.Snapshot snapshot, char side, int levels) {
+        int depth = Math.min(levels, snapshot.getDepth(side));
+        List<LevelDto> levelDtos = new ArrayList<>(depth);
+        for (int index = 0; index < depth; index++) {
+            levelDtos.add(new LevelDto(tickSizeRegistry.toPrice(instrument, snapshot.getPrice(side, index)),
+                    snapshot.getTotalSize(side, index), snapshot.getOrderCount(side, index)));
+        }
+        return levelDtos;
+    }
+
+    private List<LevelDto> mapToLevelDtos(String instrument, BookView.SideView sideView) {
+        List<LevelDto> levels = new ArrayList<>(sideView.getDepth());
+        for (int index = 0; index < sideView.getDepth(); index++) {
+            levels.add(new LevelDto(tickSizeRegistry.toPrice(instrument, sideView.getPrice(index)), sideView.getTotalSize(index), sideView.getOrderCount(index)));
+        }
+        return levels;
+    }
 }
@@ -0,0 +1,151 @@
+package com.example.trading.service.marketdata;
+
+import com.example.trading.model.dto.DepthUpdateDto;
+import com.example.trading.model.dto.LevelUpdateDto;
+import com.example.trading.service.DepthListener;
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.mapper.OrderMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.jms.ConnectionFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the incremental L2 depth of every book on the `trading.marketdata.topic` topic: one
+ * {@link DepthUpdateDto} per mutation or per batch, holding each changed level once, and periodically a
+ * {@link com.example.trading.model.dto.DepthSnapshotDto} of the full depth per instrument so consumers can
+ * resynchronize. The level sequences of an instrument are consecutive, a gap means a lost update.
+ * <p>
+ * The updates are queued by the mutating threads and sent by a single publisher thread, so the books never wait on
+ * the broker. When the queue is full the update is dropped and a snapshot of its instrument is sent instead.
+ */
+@Component
+@ConditionalOnProperty(name = "trading.marketdata.enabled", havingValue = "true")
+public class MarketDataPublisher {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final long POLL_MILLIS = 100;
+
+    private final OrderBookRegistry orderBookRegistry;
+    private final OrderMapper orderMapper;
+    private final JmsTemplate jmsTemplate;
+    private final String topic;
+    private final long snapshotIntervalNanos;
+    private final BlockingQueue<DepthUpdateDto> updates;
+    // instruments which lost an update, they get a snapshot on the next loop
+    private final Set<String> resyncInstruments = ConcurrentHashMap.newKeySet();
+    private final Counter droppedCounter;
+
+    private final Thread publisherThread;
+    private volatile boolean running;
+
+    public MarketDataPublisher(OrderBookRegistry orderBookRegistry,
+                               OrderMapper orderMapper,
+                               ConnectionFactory connectionFactory,
+                               MessageConverter jacksonJmsMessageConverter,
+                               MeterRegistry meterRegistry,
+                               @Value("${trading.marketdata.topic:MarketDataTopic}") String topic,
+                               @Value("${trading.marketdata.snapshot-interval-millis:5000}") long snapshotIntervalMillis,
+                               @Value("${trading.marketdata.queue-capacity:65536}") int queueCapacity) {
+        this.orderBookRegistry = orderBookRegistry;
+        this.orderMapper = orderMapper;
+        this.jmsTemplate = new JmsTemplate(connectionFactory);
+        this.jmsTemplate.setPubSubDomain(true);
+        this.jmsTemplate.setMessageConverter(jacksonJmsMessageConverter);
+        this.topic = topic;
+        this.snapshotIntervalNanos = TimeUnit.MILLISECONDS.toNanos(snapshotIntervalMillis);
+        this.updates = new ArrayBlockingQueue<>(queueCapacity);
+        this.droppedCounter = Counter.builder("trading.marketdata.dropped")
+                .description("Depth updates dropped because the publisher was behind")
+                .register(meterRegistry);
+        this.publisherThread = new Thread(this::run, "market-data-publisher");
+        this.publisherThread.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        orderBookRegistry.addOrderBookCustomizer((instrument, orderBook) -> orderBook.addDepthListener(new DepthCollector(instrument)));
+        running = true;
+        publisherThread.start();
+        logger.info("Market data published on the topic {}", topic);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        publisherThread.join();
+    }
+
+    private void run() {
+        long nextSnapshot = System.nanoTime();
+        while (running) {
+            try {
+                if (System.nanoTime() - nextSnapshot >= 0) {
+                    orderBookRegistry.getOrderBooks().forEach(this::publishSnapshot);
+                    nextSnapshot = System.nanoTime() + snapshotIntervalNanos;
+                }
+                for (String instrument : resyncInstruments) {
+                    resyncInstruments.remove(instrument);
+                    publishSnapshot(instrument, orderBookRegistry.getOrderBook(instrument));
+                }
+                DepthUpdateDto update = updates.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                while (update != null) {
+                    jmsTemplate.convertAndSend(topic, update);
+                    update = updates.poll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Failed to publish the market data", e);
+            }
+        }
+    }
+
+    private void publishSnapshot(String instrument, OrderBook orderBook) {
+        jmsTemplate.convertAndSend(topic, orderMapper.mapToDepthSnapshotDto(instrument, orderBook.snapshotDepth(Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Collects the level updates of one book, called under the book lock
+     */
+    private class DepthCollector implements DepthListener {
+        private final String instrument;
+        private List<LevelUpdateDto> levels = new ArrayList<>();
+
+        private DepthCollector(String instrument) {
+            this.instrument = instrument;
+        }
+
+        @Override
+        public void onLevelUpdate(char side, long priceTicks, long totalSize, int orderCount, long sequence) {
+            levels.add(new LevelUpdateDto(side, orderMapper.mapToPrice(instrument, priceTicks), totalSize, orderCount, sequence));
+        }
+
+        @Override
+        public void onUpdateEnd() {
+            if (!updates.offer(new DepthUpdateDto(instrument, levels))) {
+                droppedCounter.increment();
+                resyncInstruments.add(instrument);
+            }
+            levels = new ArrayList<>();
+        }
+    }
+}
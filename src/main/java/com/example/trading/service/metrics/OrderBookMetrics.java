@@ -0,0 +1,168 @@
+package com.example.trading.service.metrics;
+
+import com.example.trading.model.enums.OrderCommandType;
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.PriceTicks;
+import com.example.trading.service.view.BookView;
+import com.example.trading.service.view.BookViewRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation of the books, cheap enough to stay on in production: a timed operation costs two
+ * System.nanoTime calls and a lock-free histogram update, and the gauges are only computed when scraped, from the
+ * published {@link BookView}s, never taking a book lock.
+ * <ul>
+ *     <li>trading.book.operation - time to apply a command, by operation. In the single-writer mode it includes the
+ *     wait for the engine thread</li>
+ *     <li>trading.book.depth.publish - time to publish the changed levels of a mutation or batch, by instrument</li>
+ *     <li>trading.journal.await - time waiting for the fsync of the journaled commands</li>
+ *     <li>trading.book.orders, trading.book.levels and trading.book.spread - gauges by instrument (and side)</li>
+ *     <li>trading.jms.lag and trading.jms.latency - time from the JMSTimestamp of a message to its reception by the
+ *     listener and to its application to the book, by queue. Both rely on the clocks of the producer and of the
+ *     application being synchronized</li>
+ * </ul>
+ */
+@Component
+public class OrderBookMetrics {
+
+    private static final Duration MINIMUM_EXPECTED_LATENCY = Duration.ofNanos(100);
+    private static final Duration MAXIMUM_EXPECTED_LATENCY = Duration.ofSeconds(10);
+
+    private final MeterRegistry meterRegistry;
+    private final OrderBookRegistry orderBookRegistry;
+    private final BookViewRegistry bookViewRegistry;
+    private final Map<OrderCommandType, Timer> operationTimers = new EnumMap<>(OrderCommandType.class);
+    private final Timer journalAwaitTimer;
+    private final Map<String, MessageTimers> queueToTimers = new ConcurrentHashMap<>();
+
+    public OrderBookMetrics(MeterRegistry meterRegistry, OrderBookRegistry orderBookRegistry, BookViewRegistry bookViewRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.orderBookRegistry = orderBookRegistry;
+        this.bookViewRegistry = bookViewRegistry;
+        for (OrderCommandType type : OrderCommandType.values()) {
+            operationTimers.put(type, latencyTimer("trading.book.operation")
+                    .description("Time to apply a command to the book")
+                    .tag("operation", type.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        this.journalAwaitTimer = latencyTimer("trading.journal.await")
+                .description("Time waiting for the journaled commands to be durable")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        orderBookRegistry.addOrderBookCustomizer(this::instrument);
+    }
+
+    /**
+     * @param type       - type of the applied command
+     * @param startNanos - System.nanoTime before applying it
+     */
+    public void recordOperation(OrderCommandType type, long startNanos) {
+        operationTimers.get(type).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordJournalAwait(long startNanos) {
+        journalAwaitTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the lag and the end-to-end latency of a message once it was applied to the book
+     *
+     * @param queue          - queue the message was received from
+     * @param jmsTimestamp   - JMSTimestamp set by the producer, 0 when the producer disabled the timestamps
+     * @param receivedMillis - wall clock time at which the listener received the message
+     */
+    public void recordMessage(String queue, long jmsTimestamp, long receivedMillis) {
+        if (jmsTimestamp <= 0) {
+            return;
+        }
+        MessageTimers timers = queueToTimers.get(queue);
+        if (timers == null) {
+            timers = queueToTimers.computeIfAbsent(queue, MessageTimers::new);
+        }
+        timers.lagTimer.record(Math.max(0, receivedMillis - jmsTimestamp), TimeUnit.MILLISECONDS);
+        timers.latencyTimer.record(Math.max(0, System.currentTimeMillis() - jmsTimestamp), TimeUnit.MILLISECONDS);
+    }
+
+    private void instrument(String instrument, OrderBook orderBook) {
+        Timer depthPublishTimer = latencyTimer("trading.book.depth.publish")
+                .description("Time to publish the changed levels of a mutation or batch to the views and the market data")
+                .tag("instrument", instrument)
+                .register(meterRegistry);
+        orderBook.setDepthPublishTimer(nanos -> depthPublishTimer.record(nanos, TimeUnit.NANOSECONDS));
+
+        Gauge.builder("trading.book.orders", bookViewRegistry, views -> orderCount(views.getView(instrument)))
+                .description("Resting orders of the book")
+                .tag("instrument", instrument)
+                .register(meterRegistry);
+        Gauge.builder("trading.book.levels", bookViewRegistry, views -> views.getView(instrument).getBids().getDepth())
+                .description("Price levels of the side")
+                .tag("instrument", instrument)
+                .tag("side", "B")
+                .register(meterRegistry);
+        Gauge.builder("trading.book.levels", bookViewRegistry, views -> views.getView(instrument).getOffers().getDepth())
+                .description("Price levels of the side")
+                .tag("instrument", instrument)
+                .tag("side", "O")
+                .register(meterRegistry);
+        Gauge.builder("trading.book.spread", bookViewRegistry, views -> spread(views.getView(instrument)))
+                .description("Best offer minus best bid, NaN when a side is empty")
+                .tag("instrument", instrument)
+                .register(meterRegistry);
+    }
+
+    private static double orderCount(BookView bookView) {
+        return orderCount(bookView.getBids()) + orderCount(bookView.getOffers());
+    }
+
+    private static long orderCount(BookView.SideView sideView) {
+        long orderCount = 0;
+        for (int index = 0; index < sideView.getDepth(); index++) {
+            orderCount += sideView.getOrderCount(index);
+        }
+        return orderCount;
+    }
+
+    private static double spread(BookView bookView) {
+        if (bookView.getBids().getDepth() == 0 || bookView.getOffers().getDepth() == 0) {
+            return Double.NaN;
+        }
+        return PriceTicks.toPrice(bookView.getOffers().getPrice(0) - bookView.getBids().getPrice(0));
+    }
+
+    private static Timer.Builder latencyTimer(String name) {
+        return Timer.builder(name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MINIMUM_EXPECTED_LATENCY)
+                .maximumExpectedValue(MAXIMUM_EXPECTED_LATENCY);
+    }
+
+    private class MessageTimers {
+        private final Timer lagTimer;
+        private final Timer latencyTimer;
+
+        private MessageTimers(String queue) {
+            this.lagTimer = latencyTimer("trading.jms.lag")
+                    .description("Time from the sending of a message to its reception by the listener")
+                    .tag("queue", queue)
+                    .register(meterRegistry);
+            this.latencyTimer = latencyTimer("trading.jms.latency")
+                    .description("Time from the sending of a message to its application to the book")
+                    .tag("queue", queue)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.trading.service.snapshot;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.OrderBookSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+
+/**
+ * Snapshot files of all the books, named after the highest journal sequence they contain. Layout, big endian:
+ * <pre>
+ * header   int magic, int version, int book count
+ * book     short instrument length, instrument UTF-8, long sequence, int order count, then the orders
+ * order    long id, long price in ticks, long size, byte side
+ * </pre>
+ * The orders of a book come in the {@link OrderBookSnapshot} order, so the time priority is implied by the position.
+ * A snapshot is written to a temporary file, forced and then renamed, a crash never leaves a partial snapshot behind.
+ */
+public class OrderBookSnapshotStore {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    public static final int ORDER_RECORD_LENGTH = 8 + 8 + 8 + 1;
+
+    private static final int MAGIC = 0x4F42534E;
+    private static final int VERSION = 1;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final Path directory;
+
+    public OrderBookSnapshotStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Writes the snapshots of the books as the newest snapshot file and deletes the older files
+     *
+     * @param instrumentToSnapshot - snapshot of every book, by instrument
+     * @return the written file
+     */
+    public Path write(Map<String, OrderBookSnapshot> instrumentToSnapshot) {
+        long maxSequence = instrumentToSnapshot.values().stream().mapToLong(OrderBookSnapshot::getSequence).max().orElse(0);
+        Path target = directory.resolve(format("%s%020d%s", SNAPSHOT_PREFIX, maxSequence, SNAPSHOT_SUFFIX));
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(instrumentToSnapshot.size());
+                for (Map.Entry<String, OrderBookSnapshot> entry : instrumentToSnapshot.entrySet()) {
+                    byte[] instrument = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                    OrderBookSnapshot snapshot = entry.getValue();
+                    ensureRemaining(channel, buffer, 2 + instrument.length + 8 + 4);
+                    buffer.putShort((short) instrument.length).put(instrument)
+                            .putLong(snapshot.getSequence()).putInt(snapshot.getOrderCount());
+                    for (int i = 0; i < snapshot.getOrderCount(); i++) {
+                        ensureRemaining(channel, buffer, ORDER_RECORD_LENGTH);
+                        buffer.putLong(snapshot.getId(i)).putLong(snapshot.getPrice(i)).putLong(snapshot.getSize(i))
+                                .put((byte) snapshot.getSide(i));
+                    }
+                }
+                flushBuffer(channel, buffer);
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (Path older : listSnapshots()) {
+                if (!older.equals(target)) {
+                    Files.delete(older);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the snapshot " + target, e);
+        }
+        return target;
+    }
+
+    /**
+     * Rebuilds the books from the newest snapshot file, the books must be empty and not journaled
+     *
+     * @param orderBookRegistry - registry receiving the books
+     * @return the sequence of every restored book by instrument, empty when there is no snapshot
+     */
+    public Map<String, Long> loadLatest(OrderBookRegistry orderBookRegistry) {
+        Map<String, Long> instrumentToSequence = new HashMap<>();
+        try {
+            if (!Files.isDirectory(directory)) {
+                return instrumentToSequence;
+            }
+            List<Path> snapshots = listSnapshots();
+            if (snapshots.isEmpty()) {
+                return instrumentToSequence;
+            }
+            Path latest = snapshots.get(snapshots.size() - 1);
+            long start = System.nanoTime();
+            long orderCount = 0;
+            try (FileChannel channel = FileChannel.open(latest, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                    throw new IllegalStateException("Unsupported snapshot file " + latest);
+                }
+                int bookCount = buffer.getInt();
+                for (int book = 0; book < bookCount; book++) {
+                    byte[] instrumentBytes = new byte[buffer.getShort()];
+                    buffer.get(instrumentBytes);
+                    String instrument = new String(instrumentBytes, StandardCharsets.UTF_8);
+                    long sequence = buffer.getLong();
+                    int bookOrderCount = buffer.getInt();
+                    OrderBook orderBook = orderBookRegistry.getOrderBook(instrument);
+                    for (int i = 0; i < bookOrderCount; i++) {
+                        long id = buffer.getLong();
+                        long price = buffer.getLong();
+                        long size = buffer.getLong();
+                        orderBook.addOrder(id, price, (char) buffer.get(), size);
+                    }
+                    instrumentToSequence.put(instrument, sequence);
+                    orderCount += bookOrderCount;
+                }
+            }
+            logger.info("Loaded {} orders of {} books from {} in {} ms", orderCount, instrumentToSequence.size(), latest,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load the snapshots of " + directory, e);
+        }
+        return instrumentToSequence;
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void ensureRemaining(FileChannel channel, ByteBuffer buffer, int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flushBuffer(channel, buffer);
+        }
+    }
+
+    private static void flushBuffer(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
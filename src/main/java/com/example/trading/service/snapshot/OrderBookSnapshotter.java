@@ -0,0 +1,82 @@
+package com.example.trading.service.snapshot;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.OrderBookSnapshot;
+import com.example.trading.service.journal.OrderJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically snapshots every book of the registry. Each book is copied under its own lock together with the journal
+ * sequence, so the copy is consistent with the journal without stopping the other books, and the file is written
+ * once all the locks are released. The journal segments covered by the snapshot are deleted afterwards.
+ */
+public class OrderBookSnapshotter implements AutoCloseable {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final OrderBookRegistry orderBookRegistry;
+    private final OrderJournal orderJournal;
+    private final OrderBookSnapshotStore orderBookSnapshotStore;
+    private final ScheduledExecutorService executor;
+
+    public OrderBookSnapshotter(OrderBookRegistry orderBookRegistry, OrderJournal orderJournal, OrderBookSnapshotStore orderBookSnapshotStore) {
+        this.orderBookRegistry = orderBookRegistry;
+        this.orderJournal = orderJournal;
+        this.orderBookSnapshotStore = orderBookSnapshotStore;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-book-snapshotter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start(long intervalSeconds) {
+        executor.scheduleWithFixedDelay(this::snapshotSafely, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return the written snapshot file
+     */
+    public Path snapshot() {
+        long start = System.nanoTime();
+        // a book created while the registry is iterated may be missing from the snapshot, its records all come after
+        // this sequence
+        long appendedBeforeCopy = orderJournal.getAppendedSequence();
+        Map<String, OrderBookSnapshot> instrumentToSnapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, OrderBook> entry : orderBookRegistry.getOrderBooks().entrySet()) {
+            instrumentToSnapshot.put(entry.getKey(), entry.getValue().snapshot(orderJournal::getAppendedSequence));
+        }
+        long copied = System.nanoTime();
+        Path file = orderBookSnapshotStore.write(instrumentToSnapshot);
+        long minSequence = instrumentToSnapshot.values().stream().mapToLong(OrderBookSnapshot::getSequence).min().orElse(0);
+        int deletedSegments = orderJournal.deleteSegmentsUpTo(Math.min(appendedBeforeCopy, minSequence));
+        if (logger.isInfoEnabled()) {
+            logger.info("Snapshot {} of {} orders written, copy {} ms, total {} ms, {} journal segments deleted", file,
+                    instrumentToSnapshot.values().stream().mapToLong(OrderBookSnapshot::getOrderCount).sum(),
+                    (copied - start) / 1_000_000, (System.nanoTime() - start) / 1_000_000, deletedSegments);
+        }
+        return file;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void snapshotSafely() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            // the next period retries, the journal still holds everything
+            logger.error("Failed to snapshot the order books", e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.trading.service.trade;
+
+import com.example.trading.model.dto.TradeDto;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.TradeListener;
+import com.example.trading.service.eventlog.EventLog;
+import com.example.trading.service.mapper.OrderMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Emits the fills of every book. Each fill is recorded in the {@link EventLog} and queued for the sender, called by a
+ * single publisher thread, e.g. to send it on a JMS topic, so the matching never waits on the broker. When the queue
+ * is full the fill is dropped and counted, the event log still has it.
+ * <p>
+ * The fills of the journal replay are the fills of the previous run, the publisher must be started after the replay.
+ */
+public class TradePublisher implements AutoCloseable {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final long POLL_MILLIS = 100;
+
+    private final OrderBookRegistry orderBookRegistry;
+    private final OrderMapper orderMapper;
+    private final EventLog eventLog;
+    private final Consumer<TradeDto> sender;
+    private final BlockingQueue<Trade> trades;
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    private final Thread publisherThread;
+    private volatile boolean running;
+
+    /**
+     * @param sender        - receiver of the fills, called by the publisher thread only
+     * @param queueCapacity - fills waiting for the sender
+     */
+    public TradePublisher(OrderBookRegistry orderBookRegistry, OrderMapper orderMapper, EventLog eventLog,
+                          Consumer<TradeDto> sender, int queueCapacity) {
+        this.orderBookRegistry = orderBookRegistry;
+        this.orderMapper = orderMapper;
+        this.eventLog = eventLog;
+        this.sender = sender;
+        this.trades = new ArrayBlockingQueue<>(queueCapacity);
+        this.publisherThread = new Thread(this::run, "trade-publisher");
+        this.publisherThread.setDaemon(true);
+    }
+
+    public void start() {
+        orderBookRegistry.addOrderBookCustomizer((instrument, orderBook) -> orderBook.setTradeListener(new BookTradeListener(instrument)));
+        running = true;
+        publisherThread.start();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        publisherThread.join();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Trade trade = trades.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                while (trade != null) {
+                    sender.accept(new TradeDto(trade.instrument, trade.takerOrderId, trade.makerOrderId,
+                            orderMapper.mapToPrice(trade.instrument, trade.priceTicks), trade.size, trade.timeMillis));
+                    trade = trades.poll();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Failed to publish the trades", e);
+            }
+        }
+    }
+
+    /**
+     * Called under the book lock, see {@link TradeListener}
+     */
+    private class BookTradeListener implements TradeListener {
+        private final String instrument;
+
+        private BookTradeListener(String instrument) {
+            this.instrument = instrument;
+        }
+
+        @Override
+        public void onTrade(long takerOrderId, long makerOrderId, long priceTicks, long size) {
+            eventLog.trade(instrument, takerOrderId, makerOrderId, priceTicks, size);
+            if (!trades.offer(new Trade(instrument, takerOrderId, makerOrderId, priceTicks, size, System.currentTimeMillis()))) {
+                droppedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private static class Trade {
+        private final String instrument;
+        private final long takerOrderId;
+        private final long makerOrderId;
+        private final long priceTicks;
+        private final long size;
+        private final long timeMillis;
+
+        private Trade(String instrument, long takerOrderId, long makerOrderId, long priceTicks, long size, long timeMillis) {
+            this.instrument = instrument;
+            this.takerOrderId = takerOrderId;
+            this.makerOrderId = makerOrderId;
+            this.priceTicks = priceTicks;
+            this.size = size;
+            this.timeMillis = timeMillis;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.trading.service.view;
+
+/**
+ * Immutable aggregated depth of one book at a depth sequence, published by the writer and read without any lock
+ */
+public class BookView {
+
+    private final String instrument;
+    private final long sequence;
+    private final SideView bids;
+    private final SideView offers;
+
+    BookView(String instrument, long sequence, SideView bids, SideView offers) {
+        this.instrument = instrument;
+        this.sequence = sequence;
+        this.bids = bids;
+        this.offers = offers;
+    }
+
+    static BookView empty(String instrument) {
+        return new BookView(instrument, 0, SideView.EMPTY, SideView.EMPTY);
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    /**
+     * @return the depth sequence of the book the view reflects
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public SideView getBids() {
+        return bids;
+    }
+
+    public SideView getOffers() {
+        return offers;
+    }
+
+    /**
+     * Levels of one side, best price first
+     */
+    public static class SideView {
+
+        static final SideView EMPTY = new SideView(new long[0], new long[0], new int[0]);
+
+        private final long[] prices;
+        private final long[] totalSizes;
+        private final int[] orderCounts;
+
+        SideView(long[] prices, long[] totalSizes, int[] orderCounts) {
+            this.prices = prices;
+            this.totalSizes = totalSizes;
+            this.orderCounts = orderCounts;
+        }
+
+        public int getDepth() {
+            return prices.length;
+        }
+
+        /**
+         * @return the price in ticks of the zero based level
+         */
+        public long getPrice(int index) {
+            return prices[index];
+        }
+
+        public long getTotalSize(int index) {
+            return totalSizes[index];
+        }
+
+        public int getOrderCount(int index) {
+            return orderCounts[index];
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.trading.service.view;
+
+import com.example.trading.model.enums.OrderSideType;
+import com.example.trading.service.DepthLevel;
+import com.example.trading.service.DepthListener;
+import com.example.trading.service.DepthSnapshot;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps a working copy of the depth of one book from its level updates and publishes an immutable {@link BookView}
+ * at the end of every mutation or batch. It runs on the writer under the book lock and costs a copy of the levels of
+ * the changed sides, independent of the number of orders; the readers only read the volatile view. The best levels
+ * also go to the {@link TopOfBook} of the book.
+ */
+class BookViewPublisher implements DepthListener {
+
+    private final String instrument;
+    private final SideBuilder bids = new SideBuilder(true);
+    private final SideBuilder offers = new SideBuilder(false);
+    private long sequence;
+    private volatile BookView view;
+    private final TopOfBook topOfBook;
+
+    BookViewPublisher(String instrument) {
+        this.instrument = instrument;
+        this.view = BookView.empty(instrument);
+        this.topOfBook = new TopOfBook(instrument);
+    }
+
+    BookView getView() {
+        return view;
+    }
+
+    TopOfBook getTopOfBook() {
+        return topOfBook;
+    }
+
+    @Override
+    public void onAttached(DepthSnapshot depthSnapshot) {
+        bids.reset(depthSnapshot.getBids());
+        offers.reset(depthSnapshot.getOffers());
+        sequence = depthSnapshot.getSequence();
+        writeTopOfBook();
+        view = new BookView(instrument, sequence, bids.toView(), offers.toView());
+    }
+
+    @Override
+    public void onLevelUpdate(char side, long priceTicks, long totalSize, int orderCount, long sequence) {
+        (side == OrderSideType.BID.getSide() ? bids : offers).update(priceTicks, totalSize, orderCount);
+        this.sequence = sequence;
+    }
+
+    @Override
+    public void onUpdateEnd() {
+        if (bids.changed || offers.changed) {
+            writeTopOfBook();
+        }
+        BookView previous = view;
+        view = new BookView(instrument, sequence,
+                bids.changed ? bids.toView() : previous.getBids(),
+                offers.changed ? offers.toView() : previous.getOffers());
+    }
+
+    private void writeTopOfBook() {
+        topOfBook.write(sequence, bids.prices, bids.totalSizes, bids.orderCounts, bids.depth,
+                offers.prices, offers.totalSizes, offers.orderCounts, offers.depth);
+    }
+
+    /**
+     * Mutable sorted levels of one side
+     */
+    private static class SideBuilder {
+        private final boolean descending;
+        private long[] prices = new long[16];
+        private long[] totalSizes = new long[16];
+        private int[] orderCounts = new int[16];
+        private int depth;
+        private boolean changed;
+
+        private SideBuilder(boolean descending) {
+            this.descending = descending;
+        }
+
+        private void reset(List<DepthLevel> levels) {
+            depth = 0;
+            for (DepthLevel level : levels) {
+                update(level.getPriceTicks(), level.getTotalSize(), level.getOrderCount());
+            }
+        }
+
+        private void update(long price, long totalSize, int orderCount) {
+            changed = true;
+            int index = indexOf(price);
+            if (index >= 0) {
+                if (orderCount == 0) {
+                    System.arraycopy(prices, index + 1, prices, index, depth - index - 1);
+                    System.arraycopy(totalSizes, index + 1, totalSizes, index, depth - index - 1);
+                    System.arraycopy(orderCounts, index + 1, orderCounts, index, depth - index - 1);
+                    depth--;
+                } else {
+                    totalSizes[index] = totalSize;
+                    orderCounts[index] = orderCount;
+                }
+                return;
+            }
+            if (orderCount == 0) {
+                return;
+            }
+            int insertionPoint = -(index + 1);
+            if (depth == prices.length) {
+                prices = Arrays.copyOf(prices, depth << 1);
+                totalSizes = Arrays.copyOf(totalSizes, depth << 1);
+                orderCounts = Arrays.copyOf(orderCounts, depth << 1);
+            }
+            System.arraycopy(prices, insertionPoint, prices, insertionPoint + 1, depth - insertionPoint);
+            System.arraycopy(totalSizes, insertionPoint, totalSizes, insertionPoint + 1, depth - insertionPoint);
+            System.arraycopy(orderCounts, insertionPoint, orderCounts, insertionPoint + 1, depth - insertionPoint);
+            prices[insertionPoint] = price;
+            totalSizes[insertionPoint] = totalSize;
+            orderCounts[insertionPoint] = orderCount;
+            depth++;
+        }
+
+        private BookView.SideView toView() {
+            changed = false;
+            return new BookView.SideView(Arrays.copyOf(prices, depth), Arrays.copyOf(totalSizes, depth),
+                    Arrays.copyOf(orderCounts, depth));
+        }
+
+        private int indexOf(long price) {
+            int low = 0;
+            int high = depth - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int compare = Long.compare(prices[middle], price);
+                if (descending) {
+                    compare = -compare;
+                }
+                if (compare < 0) {
+                    low = middle + 1;
+                } else if (compare > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
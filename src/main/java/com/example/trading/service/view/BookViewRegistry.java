@@ -0,0 +1,55 @@
+package com.example.trading.service.view;
+
+import com.example.trading.service.OrderBookRegistry;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest published {@link BookView} of every book
+ */
+@Component
+public class BookViewRegistry {
+
+    private final OrderBookRegistry orderBookRegistry;
+    private final Map<String, BookViewPublisher> instrumentToPublisher = new ConcurrentHashMap<>();
+
+    public BookViewRegistry(OrderBookRegistry orderBookRegistry) {
+        this.orderBookRegistry = orderBookRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        orderBookRegistry.addOrderBookCustomizer((instrument, orderBook) -> {
+            BookViewPublisher publisher = new BookViewPublisher(instrument);
+            orderBook.addDepthListener(publisher);
+            instrumentToPublisher.put(instrument, publisher);
+        });
+    }
+
+    /**
+     * Never blocks, whatever the writers do
+     *
+     * @param instrument - instrument symbol, null for the default instrument
+     * @return the latest view of the book, an empty one when nothing was ever sent for the instrument
+     */
+    public BookView getView(String instrument) {
+        String resolvedInstrument = orderBookRegistry.resolveInstrument(instrument);
+        BookViewPublisher publisher = instrumentToPublisher.get(resolvedInstrument);
+        return publisher == null ? BookView.empty(resolvedInstrument) : publisher.getView();
+    }
+
+    /**
+     * Never blocks, and the reads of the returned {@link TopOfBook} never allocate
+     *
+     * @param instrument - instrument symbol, null for the default instrument
+     * @return the best levels of the book, empty ones when nothing was ever sent for the instrument
+     */
+    public TopOfBook getTopOfBook(String instrument) {
+        String resolvedInstrument = orderBookRegistry.resolveInstrument(instrument);
+        BookViewPublisher publisher = instrumentToPublisher.get(resolvedInstrument);
+        return publisher == null ? new TopOfBook(resolvedInstrument) : publisher.getTopOfBook();
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.trading.service.view;
+
+import com.example.trading.model.enums.OrderSideType;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The best {@link #LEVELS} levels of each side of one book, published by the writer with a seqlock: the version is
+ * odd while the writer copies the levels and the readers retry when it changed under them. The readers take no lock,
+ * allocate nothing and never make the writer wait, the writer pays a copy of the top levels per mutation.
+ */
+public class TopOfBook {
+
+    public static final int LEVELS = 10;
+    /**
+     * Returned for a level the side doesn't have
+     */
+    public static final long MISSING = Long.MIN_VALUE;
+
+    private static final int SEQUENCE = 0;
+    private static final int BID_DEPTH = 1;
+    private static final int OFFER_DEPTH = 2;
+    private static final int BIDS = 3;
+    // price, total size and order count of every level
+    private static final int OFFERS = BIDS + LEVELS * 3;
+    private static final int LENGTH = OFFERS + LEVELS * 3;
+
+    private final String instrument;
+    private final AtomicLong version = new AtomicLong();
+    // written by the single writer of the book, read racily and validated by the version
+    private final long[] fields = new long[LENGTH];
+
+    TopOfBook(String instrument) {
+        this.instrument = instrument;
+    }
+
+    public String getInstrument() {
+        return instrument;
+    }
+
+    /**
+     * @param side  - B "Bid" or O "Offer"
+     * @param level - one based level, up to {@link #LEVELS}
+     * @return the price in ticks of the level or {@link #MISSING}
+     */
+    public long getPrice(char side, int level) {
+        return read(side, level, 0);
+    }
+
+    /**
+     * @param side  - B "Bid" or O "Offer"
+     * @param level - one based level, up to {@link #LEVELS}
+     * @return the total size of the level or {@link #MISSING}
+     */
+    public long getTotalSize(char side, int level) {
+        return read(side, level, 1);
+    }
+
+    /**
+     * Copies both sides as of one sequence
+     *
+     * @param snapshot - reusable destination
+     */
+    public void read(Snapshot snapshot) {
+        while (true) {
+            long start = version.getAcquire();
+            if ((start & 1) == 0) {
+                System.arraycopy(fields, 0, snapshot.fields, 0, LENGTH);
+                VarHandle.loadLoadFence();
+                if (version.getOpaque() == start) {
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Called by the writer of the book only
+     */
+    void write(long sequence, long[] bidPrices, long[] bidSizes, int[] bidCounts, int bidDepth,
+               long[] offerPrices, long[] offerSizes, int[] offerCounts, int offerDepth) {
+        long start = version.get();
+        version.setOpaque(start + 1);
+        VarHandle.storeStoreFence();
+        fields[SEQUENCE] = sequence;
+        fields[BID_DEPTH] = Math.min(LEVELS, bidDepth);
+        fields[OFFER_DEPTH] = Math.min(LEVELS, offerDepth);
+        copyLevels(BIDS, bidPrices, bidSizes, bidCounts, bidDepth);
+        copyLevels(OFFERS, offerPrices, offerSizes, offerCounts, offerDepth);
+        version.setRelease(start + 2);
+    }
+
+    private void copyLevels(int offset, long[] prices, long[] totalSizes, int[] orderCounts, int depth) {
+        for (int i = 0; i < Math.min(LEVELS, depth); i++) {
+            fields[offset + i * 3] = prices[i];
+            fields[offset + i * 3 + 1] = totalSizes[i];
+            fields[offset + i * 3 + 2] = orderCounts[i];
+        }
+    }
+
+    private long read(char side, int level, int field) {
+        if (level < 1 || level > LEVELS) {
+            return MISSING;
+        }
+        boolean isBid = side == OrderSideType.BID.getSide();
+        int index = (isBid ? BIDS : OFFERS) + (level - 1) * 3 + field;
+        while (true) {
+            long start = version.getAcquire();
+            if ((start & 1) == 0) {
+                long depth = fields[isBid ? BID_DEPTH : OFFER_DEPTH];
+                long value = fields[index];
+                VarHandle.loadLoadFence();
+                if (version.getOpaque() == start) {
+                    return level > depth ? MISSING : value;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Reusable copy of a {@link TopOfBook}, owned by one reader thread
+     */
+    public static class Snapshot {
+
+        private final long[] fields = new long[LENGTH];
+
+        /**
+         * @return the depth sequence of the book the snapshot reflects
+         */
+        public long getSequence() {
+            return fields[SEQUENCE];
+        }
+
+        /**
+         * @return the number of levels of the side, up to {@link #LEVELS}
+         */
+        public int getDepth(char side) {
+            return (int) fields[side == OrderSideType.BID.getSide() ? BID_DEPTH : OFFER_DEPTH];
+        }
+
+        /**
+         * @param index - zero based level, below {@link #getDepth(char)}
+         * @return the price in ticks
+         */
+        public long getPrice(char side, int index) {
+            return fields[offset(side, index)];
+        }
+
+        public long getTotalSize(char side, int index) {
+            return fields[offset(side, index) + 1];
+        }
+
+        public int getOrderCount(char side, int index) {
+            return (int) fields[offset(side, index) + 2];
+        }
+
+        /**
+         * @return the best offer minus the best bid in ticks, or {@link #MISSING} when a side is empty
+         */
+        public long getSpread() {
+            if (fields[BID_DEPTH] == 0 || fields[OFFER_DEPTH] == 0) {
+                return MISSING;
+            }
+            return fields[OFFERS] - fields[BIDS];
+        }
+
+        private static int offset(char side, int index) {
+            return (side == OrderSideType.BID.getSide() ? BIDS : OFFERS) + index * 3;
+        }
+    }
+}
@@ -1,53 +1,123 @@
 package com.example.trading.web.controller;
 
 import com.example.trading.model.dto.ApiResponseDto;
+import com.example.trading.model.dto.BookDto;
 import com.example.trading.model.dto.OrderAddRequestDto;
-import com.example.trading.model.dto.OrderDto;
+import com.example.trading.model.dto.OrderAmendRequestDto;
+import com.example.trading.model.dto.OrderBulkAddRequestDto;
+import com.example.trading.model.dto.OrderBulkCancelRequestDto;
+import com.example.trading.model.dto.OrderBulkResultDto;
+import com.example.trading.model.dto.OrderCancelAllRequestDto;
+import com.example.trading.model.dto.OrderReplaceRequestDto;
+import com.example.trading.model.dto.TopOfBookDto;
 import com.example.trading.service.OrderBookService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.example.trading.service.OrderPage;
+import com.example.trading.service.eventlog.EventLog;
+import com.example.trading.service.view.TopOfBook;
+import com.example.trading.web.stream.DepthStreamBroadcaster;
+import com.example.trading.web.stream.OrderStreamWriter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.Pattern;
+import java.math.BigDecimal;
 import java.util.List;
 
 @Validated
 @RestController("/api/v1")
 public class OrderBookController {
 
-    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final int MAX_PAGE_SIZE = 10_000;
+
+    // the sequences restart from zero with the application, the ETags must not match across restarts
+    private final String eTagPrefix = Long.toString(System.currentTimeMillis(), 36);
     private OrderBookService orderBookService;
+    private DepthStreamBroadcaster depthStreamBroadcaster;
+    private OrderStreamWriter orderStreamWriter;
+    private EventLog eventLog;
 
-    public OrderBookController(OrderBookService orderBookService) {
+    public OrderBookController(OrderBookService orderBookService, DepthStreamBroadcaster depthStreamBroadcaster,
+                               OrderStreamWriter orderStreamWriter, EventLog eventLog) {
         this.orderBookService = orderBookService;
+        this.depthStreamBroadcaster = depthStreamBroadcaster;
+        this.orderStreamWriter = orderStreamWriter;
+        this.eventLog = eventLog;
     }
 
     @PostMapping(value = "/orders", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Void> addOrder(@RequestBody @Valid OrderAddRequestDto orderAddRequestDto) {
-        logger.info("Calling method ---- addOrder ---");
+        eventLog.request("addOrder");
 
         orderBookService.addOrder(orderAddRequestDto);
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
+    @PostMapping(value = "/orders/bulk", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponseDto<OrderBulkResultDto>> addOrders(@RequestBody @Valid OrderBulkAddRequestDto orderBulkAddRequestDto) {
+        eventLog.request("addOrders");
+
+        return new ResponseEntity<>(ApiResponseDto.build(orderBookService.addOrders(orderBulkAddRequestDto)), HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/orders/bulk/cancel", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponseDto<OrderBulkResultDto>> removeOrders(@RequestBody @Valid OrderBulkCancelRequestDto orderBulkCancelRequestDto) {
+        eventLog.request("removeOrders");
+
+        return new ResponseEntity<>(ApiResponseDto.build(orderBookService.removeOrders(orderBulkCancelRequestDto)), HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/orders/cancel-all", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponseDto<OrderBulkResultDto>> removeAllOrders(@RequestBody @Valid OrderCancelAllRequestDto orderCancelAllRequestDto) {
+        eventLog.request("removeAllOrders");
+
+        return new ResponseEntity<>(ApiResponseDto.build(orderBookService.removeAllOrders(orderCancelAllRequestDto)), HttpStatus.OK);
+    }
+
+    @PutMapping(value = "/orders/{orderId}/amend", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> amendOrder(@PathVariable long orderId,
+                                           @RequestBody @Valid OrderAmendRequestDto orderAmendRequestDto) {
+        eventLog.request("amendOrder");
+
+        orderAmendRequestDto.setId(orderId);
+        orderBookService.amendOrder(orderAmendRequestDto);
+
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @PutMapping(value = "/orders/{orderId}/replace", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Void> replaceOrder(@PathVariable long orderId,
+                                             @RequestBody @Valid OrderReplaceRequestDto orderReplaceRequestDto) {
+        eventLog.request("replaceOrder");
+
+        orderReplaceRequestDto.setId(orderId);
+        orderBookService.replaceOrder(orderReplaceRequestDto);
+
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
     @GetMapping(value = "/orders/levels/{levelId}/price", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ApiResponseDto<Double>> getPrice(
+    public ResponseEntity<ApiResponseDto<BigDecimal>> getPrice(
             @PathVariable @Valid @Min(1) int levelId,
-            @RequestParam @Valid @Pattern(regexp = "^(B|O)$", message = "only `B` or `O` types are allowed") String side) {
-        logger.info("Calling method ---- getPrice ---");
+            @RequestParam @Valid @Pattern(regexp = "^(B|O)$", message = "only `B` or `O` types are allowed") String side,
+            @RequestParam(required = false) String instrument) {
+        eventLog.request("getPrice");
 
-        Double price = orderBookService.getPrice(side.charAt(0), levelId);
-        ApiResponseDto<Double> apiResponse;
+        BigDecimal price = orderBookService.getPrice(instrument, side.charAt(0), levelId);
+        ApiResponseDto<BigDecimal> apiResponse;
         if(price == null) {
             apiResponse = ApiResponseDto.createApiResponseWithWarnings(null,
-                    List.of("Couldn't compute price since there aren't sufficient offers and bids"));
+                    List.of("Couldn't compute price since there aren't sufficient levels on the side"));
         } else {
             apiResponse = ApiResponseDto.build(price);
         }
@@ -57,27 +127,105 @@ public class OrderBookController {
     @GetMapping(value = "/orders/levels/{levelId}/totalSize", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ApiResponseDto<Long>> getTotalSize(
             @PathVariable @Valid @Min(1) int levelId,
-            @RequestParam @Valid @Pattern(regexp = "^(B|O)$", message = "only `B` or `O` types are allowed") String side) {
-        logger.info("Calling method ---- getTotalSize ---");
+            @RequestParam @Valid @Pattern(regexp = "^(B|O)$", message = "only `B` or `O` types are allowed") String side,
+            @RequestParam(required = false) String instrument) {
+        eventLog.request("getTotalSize");
 
-        Long size = orderBookService.getTotalSize(side.charAt(0), levelId);
+        Long size = orderBookService.getTotalSize(instrument, side.charAt(0), levelId);
         ApiResponseDto<Long> apiResponse;
         if(size == null) {
             apiResponse = ApiResponseDto.createApiResponseWithWarnings(null,
-                    List.of("Couldn't compute size since there aren't sufficient offers and bids"));
+                    List.of("Couldn't compute size since there aren't sufficient levels on the side"));
         } else {
             apiResponse = ApiResponseDto.build(size);
         }
         return new ResponseEntity<>(apiResponse, HttpStatus.OK);
     }
 
+    /**
+     * Best bid and offer, their sizes and the spread, consistent with each other and read without locking the book
+     *
+     * @param levels - levels per side, 1 for the best bid and offer
+     */
+    @GetMapping(value = "/orders/top", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponseDto<TopOfBookDto>> getTopOfBook(
+            @RequestParam(defaultValue = "1") @Valid @Min(1) @Max(TopOfBook.LEVELS) int levels,
+            @RequestParam(required = false) String instrument) {
+        eventLog.request("getTopOfBook");
+
+        return new ResponseEntity<>(ApiResponseDto.build(orderBookService.getTopOfBook(instrument, levels)), HttpStatus.OK);
+    }
+
+    /**
+     * Streams the orders of the side in price-time priority, optionally restricted to a range of levels. With a limit,
+     * a single page is returned and the X-Next-Cursor header carries the cursor of the next page, when there is one.
+     *
+     * @param fromLevel - first level, one based
+     * @param toLevel   - last level included, the whole side when missing
+     * @param cursor    - X-Next-Cursor of the previous page
+     * @param limit     - maximum number of orders of the page
+     */
     @GetMapping(value = "/orders", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<ApiResponseDto<List<OrderDto>>> getOrdersBySideInLevelAndTimeOrdered(
-            @RequestParam @Valid @Pattern(regexp = "^(B|O)$", message = "only `B` or `O` types are allowed") String side) {
-        logger.info("Calling method ---- getOrdersBySideInLevelAndTimeOrdered ---");
+    public ResponseEntity<StreamingResponseBody> getOrdersBySideInLevelAndTimeOrdered(
+            @RequestParam @Valid @Pattern(regexp = "^(B|O)$", message = "only `B` or `O` types are allowed") String side,
+            @RequestParam(required = false) String instrument,
+            @RequestParam(defaultValue = "1") @Valid @Min(1) int fromLevel,
+            @RequestParam(required = false) @Valid @Min(1) Integer toLevel,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) @Valid @Min(1) @Max(MAX_PAGE_SIZE) Integer limit) {
+        eventLog.request("getOrdersBySideInLevelAndTimeOrdered");
 
-        List<OrderDto> orderDtos = orderBookService.getOrdersBySideInLevelAndTimeOrdered(side.charAt(0));
+        int lastLevel = toLevel == null ? Integer.MAX_VALUE : toLevel;
+        if (limit == null) {
+            return ResponseEntity.ok().body(orderStreamWriter.streamOrders(instrument, side.charAt(0), fromLevel, lastLevel));
+        }
+        OrderPage page = new OrderPage(limit);
+        orderBookService.fillOrderPage(instrument, side.charAt(0), fromLevel, lastLevel, cursor, page);
+        String nextCursor = page.getNextCursor();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(orderStreamWriter.streamPage(instrument, page, side.charAt(0)));
+    }
+
+    /**
+     * Both sides of the book at one sequence, carried by the ETag: a poll with an unchanged If-None-Match gets a 304
+     * without the book being read
+     *
+     * @param orders - true to add the orders of both sides in time priority
+     */
+    @GetMapping(value = "/book", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ApiResponseDto<BookDto>> getBook(
+            @RequestParam(required = false) String instrument,
+            @RequestParam(defaultValue = "false") boolean orders,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        eventLog.request("getBook");
+
+        if (ifNoneMatch != null && ifNoneMatch.equals(toETag(orderBookService.getBookSequence(instrument), orders))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ifNoneMatch).build();
+        }
+        BookDto bookDto = orderBookService.getBook(instrument, orders);
+
+        return ResponseEntity.ok().eTag(toETag(bookDto.getSequence(), orders)).body(ApiResponseDto.build(bookDto));
+    }
+
+    /**
+     * Server-sent events of the depth, conflated: a slow client receives the latest state
+     *
+     * @param levels     - levels per side, 1 for the best bid and offer
+     * @param instrument - instrument symbol, the default instrument when missing
+     */
+    @GetMapping(value = "/orders/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDepth(
+            @RequestParam(defaultValue = "1") @Valid @Min(1) @Max(100) int levels,
+            @RequestParam(required = false) String instrument) {
+        eventLog.request("streamDepth");
+
+        return depthStreamBroadcaster.subscribe(instrument, levels);
+    }
 
-        return new ResponseEntity<>(ApiResponseDto.build(orderDtos), HttpStatus.OK);
+    private String toETag(long sequence, boolean orders) {
+        return "\"" + eTagPrefix + "-" + sequence + (orders ? "-orders" : "") + "\"";
     }
 }
@@ -0,0 +1,213 @@
+package com.example.trading.web.listener;
+
+import com.example.trading.service.OrderBookService;
+import com.example.trading.service.eventlog.EventLog;
+import com.example.trading.service.metrics.OrderBookMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+
+import javax.jms.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Batched replacement of {@link OrderListener}: each consumer thread drains the order queues until it has
+ * `max-size` messages or `linger-micros` elapsed since the first message of the batch, applies the batch to the books
+ * in one go and commits the JMS transaction of the whole batch. With several consumers the instruments are spread
+ * over them by the JMSXGroupID the producers set, see {@link com.example.trading.config.TradingConfig}.
+ * Like the `@JmsListener` containers, the consumers start once the context is refreshed, so every book customizer
+ * (trades, market data) is attached before the first order is applied.
+ */
+@Component
+@ConditionalOnProperty(name = "trading.jms.batch.enabled", havingValue = "true")
+public class OrderBatchListener implements SmartLifecycle {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    // ActiveMQ composite destination, a single consumer receives from all the queues
+    private static final String ORDER_QUEUES = "AddOrderQueue,RemoveOrderQueue,AmendOrderQueue,ReplaceOrderQueue";
+    private static final long IDLE_RECEIVE_MILLIS = 100;
+    private static final long POLL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private final ConnectionFactory connectionFactory;
+    private final MessageConverter messageConverter;
+    private final OrderBookService orderBookService;
+    private final OrderBookMetrics orderBookMetrics;
+    private final EventLog eventLog;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final int consumerCount;
+
+    private final DistributionSummary batchSizeSummary;
+    private final Timer batchApplyTimer;
+    private final Counter failedCounter;
+
+    private volatile boolean running;
+    private final List<Thread> consumerThreads = new ArrayList<>();
+
+    public OrderBatchListener(ConnectionFactory connectionFactory,
+                              MessageConverter jacksonJmsMessageConverter,
+                              OrderBookService orderBookService,
+                              OrderBookMetrics orderBookMetrics,
+                              EventLog eventLog,
+                              MeterRegistry meterRegistry,
+                              @Value("${trading.jms.batch.max-size:500}") int maxBatchSize,
+                              @Value("${trading.jms.batch.linger-micros:200}") long lingerMicros,
+                              @Value("${trading.jms.concurrency:1}") int consumerCount) {
+        this.connectionFactory = connectionFactory;
+        this.messageConverter = jacksonJmsMessageConverter;
+        this.orderBookService = orderBookService;
+        this.orderBookMetrics = orderBookMetrics;
+        this.eventLog = eventLog;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+        this.consumerCount = consumerCount;
+
+        this.batchSizeSummary = DistributionSummary.builder("trading.jms.batch.size")
+                .description("Number of messages applied per batch")
+                .register(meterRegistry);
+        this.batchApplyTimer = Timer.builder("trading.jms.batch.apply")
+                .description("Time to apply a batch to the book")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("trading.jms.batch.failed")
+                .description("Messages of a batch which couldn't be applied")
+                .register(meterRegistry);
+        Gauge.builder("trading.jms.batch.max-size", this, listener -> listener.maxBatchSize)
+                .register(meterRegistry);
+        Gauge.builder("trading.jms.batch.linger", this, listener -> listener.lingerNanos)
+                .baseUnit("nanoseconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < consumerCount; i++) {
+            Thread consumerThread = new Thread(this::run, "order-batch-listener-" + i);
+            consumerThread.start();
+            consumerThreads.add(consumerThread);
+        }
+        logger.info("Batched order consumption started with {} consumers, max-size {} and linger {} ns", consumerCount, maxBatchSize, lingerNanos);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            for (Thread consumerThread : consumerThreads) {
+                consumerThread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        consumerThreads.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = connectionFactory.createConnection();
+                 Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+                 MessageConsumer consumer = session.createConsumer(session.createQueue(ORDER_QUEUES))) {
+                connection.start();
+                consume(session, consumer);
+            } catch (JMSException | RuntimeException e) {
+                // the session is closed without a commit, the pending batch is redelivered
+                logger.error("Batched order consumption failed, reconnecting", e);
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+    }
+
+    private void consume(Session session, MessageConsumer consumer) throws JMSException {
+        List<Object> batch = new ArrayList<>(maxBatchSize);
+        // received messages, for the lag metrics once the batch is applied
+        List<Message> messages = new ArrayList<>(maxBatchSize);
+        while (running) {
+            Message first = consumer.receive(IDLE_RECEIVE_MILLIS);
+            if (first == null) {
+                continue;
+            }
+            long receivedMillis = System.currentTimeMillis();
+            messages.add(first);
+            addToBatch(batch, first);
+            long deadline = System.nanoTime() + lingerNanos;
+            while (batch.size() < maxBatchSize) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                Message message = consumer.receiveNoWait();
+                if (message == null) {
+                    LockSupport.parkNanos(Math.min(remaining, POLL_PARK_NANOS));
+                } else {
+                    messages.add(message);
+                    addToBatch(batch, message);
+                }
+            }
+            try {
+                applyBatch(batch);
+            } catch (RuntimeException e) {
+                // redelivered later, up to the redelivery policy of the broker
+                logger.error("Failed to apply a batch of {} messages, rolling it back", messages.size(), e);
+                session.rollback();
+                batch.clear();
+                messages.clear();
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+                continue;
+            }
+            session.commit();
+            recordMessages(messages, receivedMillis);
+            batch.clear();
+            messages.clear();
+        }
+    }
+
+    private void addToBatch(List<Object> batch, Message message) {
+        try {
+            batch.add(messageConverter.fromMessage(message));
+        } catch (JMSException | RuntimeException e) {
+            // a poison message must not roll back the whole batch
+            logger.error("Skipping message which couldn't be converted", e);
+            failedCounter.increment();
+        }
+    }
+
+    private void applyBatch(List<Object> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        int failed = orderBookService.applyBatch(batch);
+        batchApplyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(batch.size());
+        if (failed > 0) {
+            failedCounter.increment(failed);
+        }
+    }
+
+    // the messages of a batch are received within the linger time, the reception of the first one stands for all
+    private void recordMessages(List<Message> messages, long receivedMillis) throws JMSException {
+        for (Message message : messages) {
+            Destination destination = message.getJMSDestination();
+            String queue = destination instanceof Queue ? ((Queue) destination).getQueueName() : ORDER_QUEUES;
+            eventLog.message(queue);
+            orderBookMetrics.recordMessage(queue, message.getJMSTimestamp(), receivedMillis);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.trading.web.listener;
+
+import com.example.trading.service.OrderBookService;
+import com.example.trading.service.codec.OrderBinaryCodec;
+import com.example.trading.service.codec.OrderMessageHandler;
+import com.example.trading.service.eventlog.EventLog;
+import com.example.trading.service.metrics.OrderBookMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.stereotype.Component;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+
+/**
+ * Consumes the add, remove, update and replace commands sent in the {@link OrderBinaryCodec} format as BytesMessages on the
+ * `trading.jms.binary-queue`. The JSON queues of {@link OrderListener} stay available for the existing producers.
+ */
+@Component
+public class OrderBinaryListener implements OrderMessageHandler {
+
+    // one decoding buffer per consumer thread
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[OrderBinaryCodec.MESSAGE_LENGTH]);
+
+    private OrderBookService orderBookService;
+    private OrderBinaryCodec orderBinaryCodec;
+    private OrderBookMetrics orderBookMetrics;
+    private EventLog eventLog;
+    private String queue;
+
+    public OrderBinaryListener(OrderBookService orderBookService, OrderBinaryCodec orderBinaryCodec,
+                               OrderBookMetrics orderBookMetrics, EventLog eventLog,
+                               @Value("${trading.jms.binary-queue:BinaryOrderQueue}") String queue) {
+        this.orderBookService = orderBookService;
+        this.orderBinaryCodec = orderBinaryCodec;
+        this.orderBookMetrics = orderBookMetrics;
+        this.eventLog = eventLog;
+        this.queue = queue;
+    }
+
+    @JmsListener(destination = "${trading.jms.binary-queue:BinaryOrderQueue}", containerFactory = "myJmsFactory")
+    public void receiveBinaryOrderMessage(BytesMessage message) throws JMSException {
+        byte[] buffer = BUFFER.get();
+        if (message.getBodyLength() != OrderBinaryCodec.MESSAGE_LENGTH) {
+            throw new MessageConversionException("Binary order message of " + message.getBodyLength()
+                    + " bytes instead of " + OrderBinaryCodec.MESSAGE_LENGTH);
+        }
+        long receivedMillis = System.currentTimeMillis();
+        eventLog.message(queue);
+        message.readBytes(buffer);
+        orderBinaryCodec.decode(buffer, 0, this);
+        orderBookMetrics.recordMessage(queue, message.getJMSTimestamp(), receivedMillis);
+    }
+
+    @Override
+    public void onAdd(String instrument, long orderId, long priceTicks, char side, long size) {
+        orderBookService.addOrder(instrument, orderId, priceTicks, side, size);
+    }
+
+    @Override
+    public void onRemove(String instrument, long orderId) {
+        orderBookService.removeOrder(instrument, orderId);
+    }
+
+    @Override
+    public void onUpdate(String instrument, long orderId, long newSize) {
+        orderBookService.updateOrder(instrument, orderId, newSize);
+    }
+
+    @Override
+    public void onReplace(String instrument, long orderId, long newPriceTicks, long newSize) {
+        orderBookService.replaceOrder(instrument, orderId, newPriceTicks, newSize);
+    }
+}
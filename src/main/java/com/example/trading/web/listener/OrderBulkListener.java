@@ -0,0 +1,69 @@
+package com.example.trading.web.listener;
+
+import com.example.trading.model.dto.OrderBulkAddRequestDto;
+import com.example.trading.model.dto.OrderBulkCancelRequestDto;
+import com.example.trading.model.dto.OrderBulkResultDto;
+import com.example.trading.model.dto.OrderCancelAllRequestDto;
+import com.example.trading.service.OrderBookService;
+import com.example.trading.service.eventlog.EventLog;
+import com.example.trading.service.metrics.OrderBookMetrics;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.jms.support.JmsHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.stereotype.Component;
+
+/**
+ * Consumes the bulk requests, each one applied to its book as a single batch. The per-order results are sent to the
+ * JMSReplyTo destination of the request, or to `OrderResultQueue` when it has none. Unlike {@link OrderListener}, it
+ * stays active in the batched mode: a bulk request already is a batch.
+ */
+@Component
+public class OrderBulkListener {
+    private static final String BULK_ADD_ORDER_QUEUE = "BulkAddOrderQueue";
+    private static final String BULK_CANCEL_ORDER_QUEUE = "BulkCancelOrderQueue";
+    private static final String CANCEL_ALL_ORDER_QUEUE = "CancelAllOrderQueue";
+
+    private OrderBookService orderBookService;
+    private OrderBookMetrics orderBookMetrics;
+    private EventLog eventLog;
+
+    public OrderBulkListener(OrderBookService orderBookService, OrderBookMetrics orderBookMetrics, EventLog eventLog) {
+        this.orderBookService = orderBookService;
+        this.orderBookMetrics = orderBookMetrics;
+        this.eventLog = eventLog;
+    }
+
+    @JmsListener(destination = BULK_ADD_ORDER_QUEUE, containerFactory = "myJmsFactory")
+    @SendTo("OrderResultQueue")
+    public OrderBulkResultDto receiveBulkAddOrderMessage(OrderBulkAddRequestDto orderBulkAddRequestDto,
+                                                         @Header(JmsHeaders.TIMESTAMP) long timestamp) {
+        eventLog.message(BULK_ADD_ORDER_QUEUE);
+        long receivedMillis = System.currentTimeMillis();
+        OrderBulkResultDto orderBulkResultDto = orderBookService.addOrders(orderBulkAddRequestDto);
+        orderBookMetrics.recordMessage(BULK_ADD_ORDER_QUEUE, timestamp, receivedMillis);
+        return orderBulkResultDto;
+    }
+
+    @JmsListener(destination = BULK_CANCEL_ORDER_QUEUE, containerFactory = "myJmsFactory")
+    @SendTo("OrderResultQueue")
+    public OrderBulkResultDto receiveBulkCancelOrderMessage(OrderBulkCancelRequestDto orderBulkCancelRequestDto,
+                                                            @Header(JmsHeaders.TIMESTAMP) long timestamp) {
+        eventLog.message(BULK_CANCEL_ORDER_QUEUE);
+        long receivedMillis = System.currentTimeMillis();
+        OrderBulkResultDto orderBulkResultDto = orderBookService.removeOrders(orderBulkCancelRequestDto);
+        orderBookMetrics.recordMessage(BULK_CANCEL_ORDER_QUEUE, timestamp, receivedMillis);
+        return orderBulkResultDto;
+    }
+
+    @JmsListener(destination = CANCEL_ALL_ORDER_QUEUE, containerFactory = "myJmsFactory")
+    @SendTo("OrderResultQueue")
+    public OrderBulkResultDto receiveCancelAllOrderMessage(OrderCancelAllRequestDto orderCancelAllRequestDto,
+                                                           @Header(JmsHeaders.TIMESTAMP) long timestamp) {
+        eventLog.message(CANCEL_ALL_ORDER_QUEUE);
+        long receivedMillis = System.currentTimeMillis();
+        OrderBulkResultDto orderBulkResultDto = orderBookService.removeAllOrders(orderCancelAllRequestDto);
+        orderBookMetrics.recordMessage(CANCEL_ALL_ORDER_QUEUE, timestamp, receivedMillis);
+        return orderBulkResultDto;
+    }
+}
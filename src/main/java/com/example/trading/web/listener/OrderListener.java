@@ -1,32 +1,65 @@
 package com.example.trading.web.listener;
 
 import com.example.trading.model.dto.OrderAddRequestDto;
+import com.example.trading.model.dto.OrderAmendRequestDto;
 import com.example.trading.model.dto.OrderDeleteRequestDto;
+import com.example.trading.model.dto.OrderReplaceRequestDto;
 import com.example.trading.service.OrderBookService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.example.trading.service.eventlog.EventLog;
+import com.example.trading.service.metrics.OrderBookMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jms.annotation.JmsListener;
+import org.springframework.jms.support.JmsHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 @Component
+@ConditionalOnProperty(name = "trading.jms.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class OrderListener {
-    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private static final String ADD_ORDER_QUEUE = "AddOrderQueue";
+    private static final String REMOVE_ORDER_QUEUE = "RemoveOrderQueue";
+    private static final String AMEND_ORDER_QUEUE = "AmendOrderQueue";
+    private static final String REPLACE_ORDER_QUEUE = "ReplaceOrderQueue";
 
     private OrderBookService orderBookService;
+    private OrderBookMetrics orderBookMetrics;
+    private EventLog eventLog;
 
-    public OrderListener(OrderBookService orderBookService) {
+    public OrderListener(OrderBookService orderBookService, OrderBookMetrics orderBookMetrics, EventLog eventLog) {
         this.orderBookService = orderBookService;
+        this.orderBookMetrics = orderBookMetrics;
+        this.eventLog = eventLog;
     }
 
-    @JmsListener(destination = "AddOrderQueue", containerFactory = "myJmsFactory")
-    public void receiveAddOrderMessage(OrderAddRequestDto orderAddRequestDto) {
-        logger.info("Calling method ---- receiveAddOrderMessage ---");
+    @JmsListener(destination = ADD_ORDER_QUEUE, containerFactory = "myJmsFactory")
+    public void receiveAddOrderMessage(OrderAddRequestDto orderAddRequestDto, @Header(JmsHeaders.TIMESTAMP) long timestamp) {
+        eventLog.message(ADD_ORDER_QUEUE);
+        long receivedMillis = System.currentTimeMillis();
         orderBookService.addOrder(orderAddRequestDto);
+        orderBookMetrics.recordMessage(ADD_ORDER_QUEUE, timestamp, receivedMillis);
     }
 
-    @JmsListener(destination = "RemoveOrderQueue", containerFactory = "myJmsFactory")
-    public void receiveOrderDeleteMessage(OrderDeleteRequestDto orderDeleteRequestDto) {
-        logger.info("Calling method ---- receiveOrderDeleteMessage ---");
+    @JmsListener(destination = REMOVE_ORDER_QUEUE, containerFactory = "myJmsFactory")
+    public void receiveOrderDeleteMessage(OrderDeleteRequestDto orderDeleteRequestDto, @Header(JmsHeaders.TIMESTAMP) long timestamp) {
+        eventLog.message(REMOVE_ORDER_QUEUE);
+        long receivedMillis = System.currentTimeMillis();
         orderBookService.removeOrder(orderDeleteRequestDto);
+        orderBookMetrics.recordMessage(REMOVE_ORDER_QUEUE, timestamp, receivedMillis);
+    }
+
+    @JmsListener(destination = AMEND_ORDER_QUEUE, containerFactory = "myJmsFactory")
+    public void receiveOrderAmendMessage(OrderAmendRequestDto orderAmendRequestDto, @Header(JmsHeaders.TIMESTAMP) long timestamp) {
+        eventLog.message(AMEND_ORDER_QUEUE);
+        long receivedMillis = System.currentTimeMillis();
+        orderBookService.amendOrder(orderAmendRequestDto);
+        orderBookMetrics.recordMessage(AMEND_ORDER_QUEUE, timestamp, receivedMillis);
+    }
+
+    @JmsListener(destination = REPLACE_ORDER_QUEUE, containerFactory = "myJmsFactory")
+    public void receiveOrderReplaceMessage(OrderReplaceRequestDto orderReplaceRequestDto, @Header(JmsHeaders.TIMESTAMP) long timestamp) {
+        eventLog.message(REPLACE_ORDER_QUEUE);
+        long receivedMillis = System.currentTimeMillis();
+        orderBookService.replaceOrder(orderReplaceRequestDto);
+        orderBookMetrics.recordMessage(REPLACE_ORDER_QUEUE, timestamp, receivedMillis);
     }
 }
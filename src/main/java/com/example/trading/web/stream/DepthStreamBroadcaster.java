@@ -0,0 +1,232 @@
+package com.example.trading.web.stream;
+
+import com.example.trading.service.DepthListener;
+import com.example.trading.service.DepthSnapshot;
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.mapper.OrderMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams the depth of the books to server-sent events subscribers, `levels` = 1 being the top of book.
+ * <p>
+ * Every `trading.stream.interval-millis` the instruments changed since the previous tick are read once and encoded
+ * once per requested number of levels, the same payload going to all the subscribers of that depth. Each subscriber
+ * keeps only its latest pending payload: a slow subscriber skips the intermediate states instead of building a
+ * backlog. The writes are done by a small pool of `trading.stream.sender-threads`, the connections themselves are
+ * asynchronous servlet requests, so no thread is held per subscriber.
+ */
+@Component
+public class DepthStreamBroadcaster {
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private static final String EVENT_NAME = "depth";
+
+    private final OrderBookRegistry orderBookRegistry;
+    private final OrderMapper orderMapper;
+    private final ObjectMapper objectMapper;
+    private final long intervalMillis;
+    private final long subscriptionTimeoutMillis;
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService senders;
+    private final Map<String, InstrumentStream> instrumentToStream = new ConcurrentHashMap<>();
+
+    public DepthStreamBroadcaster(OrderBookRegistry orderBookRegistry,
+                                  OrderMapper orderMapper,
+                                  ObjectMapper objectMapper,
+                                  @Value("${trading.stream.interval-millis:50}") long intervalMillis,
+                                  @Value("${trading.stream.sender-threads:4}") int senderThreads,
+                                  @Value("${trading.stream.subscription-timeout-millis:3600000}") long subscriptionTimeoutMillis) {
+        this.orderBookRegistry = orderBookRegistry;
+        this.orderMapper = orderMapper;
+        this.objectMapper = objectMapper;
+        this.intervalMillis = intervalMillis;
+        this.subscriptionTimeoutMillis = subscriptionTimeoutMillis;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "depth-stream-ticker"));
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> daemon(runnable, "depth-stream-sender"));
+    }
+
+    @PostConstruct
+    public void start() {
+        orderBookRegistry.addOrderBookCustomizer((instrument, orderBook) -> orderBook.addDepthListener(getStream(instrument)));
+        ticker.scheduleAtFixedRate(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdown();
+        senders.shutdown();
+        instrumentToStream.values().forEach(stream -> stream.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    /**
+     * @param instrument - instrument symbol, null for the default instrument
+     * @param levels     - number of levels per side, 1 for the top of book
+     * @return the emitter of the subscription, starting with the current depth
+     * @throws IllegalArgumentException when the instrument has no book and no more books can be created
+     */
+    public SseEmitter subscribe(String instrument, int levels) {
+        return subscribe(instrument, levels, new SseEmitter(subscriptionTimeoutMillis));
+    }
+
+    SseEmitter subscribe(String instrument, int levels, SseEmitter emitter) {
+        // the streams follow the books, bounded by the registry
+        OrderBook orderBook = orderBookRegistry.getOrderBook(instrument);
+        InstrumentStream stream = getStream(orderBookRegistry.resolveInstrument(instrument));
+        Subscriber subscriber = new Subscriber(emitter, levels);
+        subscriber.emitter.onCompletion(() -> stream.subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> stream.subscribers.remove(subscriber));
+        subscriber.emitter.onError(error -> stream.subscribers.remove(subscriber));
+        // registered before the snapshot is taken so no change is missed, a tick may then broadcast a newer depth
+        // first: the subscriber drops the older snapshot
+        stream.subscribers.add(subscriber);
+        DepthSnapshot depthSnapshot = orderBook.snapshotDepth(levels);
+        subscriber.offer(encode(stream.instrument, depthSnapshot), depthSnapshot.getSequence());
+        return subscriber.emitter;
+    }
+
+    private void tick() {
+        try {
+            for (InstrumentStream stream : instrumentToStream.values()) {
+                if (stream.subscribers.isEmpty() || !stream.changed.getAndSet(false)) {
+                    continue;
+                }
+                OrderBook orderBook = orderBookRegistry.findOrderBook(stream.instrument);
+                if (orderBook != null) {
+                    broadcast(stream, orderBook);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to broadcast the depth", e);
+        }
+    }
+
+    private void broadcast(InstrumentStream stream, OrderBook orderBook) {
+        int maxLevels = 0;
+        for (Subscriber subscriber : stream.subscribers) {
+            maxLevels = Math.max(maxLevels, subscriber.levels);
+        }
+        DepthSnapshot depthSnapshot = orderBook.snapshotDepth(maxLevels);
+        // one payload per distinct depth, shared by its subscribers
+        Map<Integer, String> levelsToPayload = new TreeMap<>();
+        for (Subscriber subscriber : stream.subscribers) {
+            String payload = levelsToPayload.computeIfAbsent(subscriber.levels,
+                    levels -> encode(stream.instrument, depthSnapshot.limit(levels)));
+            subscriber.offer(payload, depthSnapshot.getSequence());
+        }
+    }
+
+    private String encode(String instrument, DepthSnapshot depthSnapshot) {
+        try {
+            return objectMapper.writeValueAsString(orderMapper.mapToDepthSnapshotDto(instrument, depthSnapshot));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private InstrumentStream getStream(String instrument) {
+        return instrumentToStream.computeIfAbsent(instrument, InstrumentStream::new);
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static class InstrumentStream implements DepthListener {
+        private final String instrument;
+        private final AtomicBoolean changed = new AtomicBoolean();
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+        private InstrumentStream(String instrument) {
+            this.instrument = instrument;
+        }
+
+        @Override
+        public void onLevelUpdate(char side, long priceTicks, long totalSize, int orderCount, long sequence) {
+        }
+
+        @Override
+        public void onUpdateEnd() {
+            changed.set(true);
+        }
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final int levels;
+        // latest payload not sent yet, replaced when the subscriber is behind
+        private final AtomicReference<String> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // depth sequence of the latest payload offered, guarded by the subscriber
+        private long offeredSequence = -1;
+
+        private Subscriber(SseEmitter emitter, int levels) {
+            this.emitter = emitter;
+            this.levels = levels;
+        }
+
+        /**
+         * @param sequence - depth sequence of the payload, a payload older than the one offered last is dropped
+         */
+        private void offer(String payload, long sequence) {
+            synchronized (this) {
+                if (sequence <= offeredSequence) {
+                    return;
+                }
+                offeredSequence = sequence;
+                pending.set(payload);
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                String payload = pending.getAndSet(null);
+                if (payload == null) {
+                    sending.set(false);
+                    // an offer may have come after the read and before the flag was released
+                    if (pending.get() == null || !sending.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                try {
+                    emitter.send(SseEmitter.event().name(EVENT_NAME).data(payload, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // the client went away, the completion callbacks unsubscribe it
+                    emitter.completeWithError(e);
+                    pending.set(null);
+                    sending.set(false);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.trading.web.stream;
+
+import com.example.trading.service.OrderBookService;
+import com.example.trading.service.OrderPage;
+import com.example.trading.service.PriceTicks;
+import com.example.trading.service.TickSizeRegistry;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the order listings straight from {@link OrderPage}s with a streaming JSON generator, in the
+ * {@link com.example.trading.model.dto.ApiResponseDto} shape of a list of
+ * {@link com.example.trading.model.dto.OrderDto}, so neither the orders nor their dtos are materialized.
+ */
+@Component
+public class OrderStreamWriter {
+
+    // orders copied per acquisition of the book lock
+    private static final int CHUNK_SIZE = 1024;
+
+    private final OrderBookService orderBookService;
+    private final ObjectMapper objectMapper;
+    private final TickSizeRegistry tickSizeRegistry;
+
+    public OrderStreamWriter(OrderBookService orderBookService, ObjectMapper objectMapper, TickSizeRegistry tickSizeRegistry) {
+        this.orderBookService = orderBookService;
+        this.objectMapper = objectMapper;
+        this.tickSizeRegistry = tickSizeRegistry;
+    }
+
+    /**
+     * @return the body writing every order of the level range, chunk by chunk
+     */
+    public StreamingResponseBody streamOrders(String instrument, char side, int fromLevel, int toLevel) {
+        return outputStream -> {
+            OrderPage page = new OrderPage(CHUNK_SIZE);
+            int scale = tickSizeRegistry.getScale(instrument);
+            char[] priceBuffer = new char[PriceTicks.MAX_FORMATTED_LENGTH];
+            try (JsonGenerator generator = startResponse(outputStream)) {
+                String cursor = null;
+                do {
+                    orderBookService.fillOrderPage(instrument, side, fromLevel, toLevel, cursor, page);
+                    writeOrders(generator, page, side, scale, priceBuffer);
+                    cursor = page.getNextCursor();
+                } while (cursor != null);
+                endResponse(generator);
+            }
+        };
+    }
+
+    /**
+     * @return the body writing the already filled page
+     */
+    public StreamingResponseBody streamPage(String instrument, OrderPage page, char side) {
+        int scale = tickSizeRegistry.getScale(instrument);
+        return outputStream -> {
+            try (JsonGenerator generator = startResponse(outputStream)) {
+                writeOrders(generator, page, side, scale, new char[PriceTicks.MAX_FORMATTED_LENGTH]);
+                endResponse(generator);
+            }
+        };
+    }
+
+    private JsonGenerator startResponse(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("data");
+        return generator;
+    }
+
+    // the prices are written as exact decimals with the scale of the instrument, formatted into the reused buffer, the
+    // side of the page is the same for every order and is written from a single buffer
+    private static void writeOrders(JsonGenerator generator, OrderPage page, char side, int scale, char[] priceBuffer) throws IOException {
+        char[] sideBuffer = {side};
+        for (int i = 0; i < page.getCount(); i++) {
+            generator.writeStartObject();
+            generator.writeNumberField("id", page.getId(i));
+            generator.writeFieldName("price");
+            generator.writeNumber(priceBuffer, 0, PriceTicks.format(page.getPrice(i), scale, priceBuffer));
+            generator.writeFieldName("side");
+            generator.writeString(sideBuffer, 0, 1);
+            generator.writeNumberField("size", page.getSize(i));
+            generator.writeEndObject();
+        }
+    }
+
+    private static void endResponse(JsonGenerator generator) throws IOException {
+        generator.writeEndArray();
+        for (String field : new String[]{"info", "errors", "warnings"}) {
+            generator.writeArrayFieldStart(field);
+            generator.writeEndArray();
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.trading.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class LongIntHashMapTest {
+
+    @Test
+    void testPutGetAndRemove() {
+        // Given
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        // When
+        map.put(1L, 10);
+        map.put(-7L, 20);
+        int previous = map.put(1L, 30);
+        int removed = map.remove(-7L);
+
+        // Then
+        assertThat(previous).isEqualTo(10);
+        assertThat(removed).isEqualTo(20);
+        assertThat(map.get(1L)).isEqualTo(30);
+        assertThat(map.get(-7L)).isEqualTo(LongIntIndex.MISSING);
+        assertThat(map.remove(-7L)).isEqualTo(LongIntIndex.MISSING);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testAgainstHashMapWithRandomOperations() {
+        assertAgainstHashMapWithRandomOperations(new LongIntHashMap(16));
+    }
+
+    @Test
+    void testOffHeapAgainstHashMapWithRandomOperations() {
+        assertAgainstHashMapWithRandomOperations(new OffHeapLongIntHashMap(16));
+    }
+
+    @Test
+    void testMemoryDependsOnTheExpectedSizeOnly() {
+        // Given
+        LongIntIndex heap = new LongIntHashMap(1000);
+        LongIntIndex offHeap = new OffHeapLongIntHashMap(1000);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            heap.put(i, i);
+            offHeap.put(i, i);
+        }
+
+        // Then
+        assertThat(heap.memoryBytes()).isEqualTo(2048L * 12);
+        assertThat(offHeap.memoryBytes()).isEqualTo(2048L * 12);
+        assertThat(offHeap.get(999L)).isEqualTo(999);
+    }
+
+    private void assertAgainstHashMapWithRandomOperations(LongIntIndex map) {
+        // Given
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 200_000; i++) {
+            // a small key space so the probe sequences collide and the removals have to shift entries back
+            long key = random.nextInt(5_000);
+            if (random.nextBoolean()) {
+                map.put(key, i);
+                expected.put(key, i);
+            } else {
+                map.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        // Then
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 5_000; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.getOrDefault(key, LongIntIndex.MISSING));
+        }
+    }
+}
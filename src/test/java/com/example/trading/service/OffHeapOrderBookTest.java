@@ -0,0 +1,14 @@
+package com.example.trading.service;
+
+import com.example.trading.model.enums.StorageType;
+
+/**
+ * The {@link OrderBookTest} suite against the off-heap storage, small enough to grow during the tests
+ */
+public class OffHeapOrderBookTest extends OrderBookTest {
+
+    @Override
+    OrderBook createOrderBook() {
+        return new OrderBook(StorageType.OFF_HEAP, StorageType.OFF_HEAP, 16);
+    }
+}
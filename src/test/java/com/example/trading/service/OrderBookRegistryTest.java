@@ -0,0 +1,25 @@
+package com.example.trading.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+public class OrderBookRegistryTest {
+
+    @Test
+    void testBooksBeyondTheMaximumAreRejected() {
+        // Given
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT", "heap", "heap", 16, 2);
+        OrderBook defaultBook = orderBookRegistry.getOrderBook(null);
+        orderBookRegistry.getOrderBook("AAPL");
+
+        // When Then
+        assertThatThrownBy(() -> orderBookRegistry.getOrderBook("MADE-UP"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown instrument MADE-UP, the maximum of 2 instruments is reached");
+        assertThat(orderBookRegistry.getOrderBook("DEFAULT") == defaultBook).isTrue();
+        assertThat(orderBookRegistry.getOrderBooks().size()).isEqualTo(2);
+        assertThat(orderBookRegistry.findOrderBook("MADE-UP")).isNull();
+    }
+}
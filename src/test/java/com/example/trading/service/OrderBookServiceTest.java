@@ -0,0 +1,87 @@
+package com.example.trading.service;
+
+import com.example.trading.model.dto.OrderAddRequestDto;
+import com.example.trading.model.dto.OrderAmendRequestDto;
+import com.example.trading.service.mapper.OrderMapper;
+import com.example.trading.service.metrics.OrderBookMetrics;
+import com.example.trading.service.view.BookViewRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class OrderBookServiceTest {
+
+    private OrderBookRegistry orderBookRegistry;
+    private OrderBookService orderBookService;
+
+    @BeforeEach
+    void setUp() {
+        orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        orderBookService = newOrderBookService(orderBookRegistry);
+    }
+
+    @Test
+    void testInvalidRequestsOfABatchAreCountedAsFailed() {
+        // Given
+        OrderAmendRequestDto amend = new OrderAmendRequestDto();
+        amend.setId(1L);
+        amend.setSize(0L);
+        List<Object> requests = List.of(
+                addRequest(1L, "B", 10L),
+                addRequest(2L, "X", 10L),
+                addRequest(3L, "B", -5L),
+                addRequest(4L, "B", 0L),
+                addRequest(5L, null, 10L),
+                amend);
+
+        // When
+        int failed = orderBookService.applyBatch(requests);
+
+        // Then
+        assertThat(failed).isEqualTo(5);
+        OrderBook orderBook = orderBookRegistry.getOrderBook("DEFAULT");
+        assertThat(orderBook.getDepth('B')).isEqualTo(1);
+        assertThat(orderBook.getTotalSize('B', 1)).isEqualTo(10L);
+        assertThat(orderBook.getDepth('O')).isEqualTo(0);
+    }
+
+    @Test
+    void testBatchSkipsTheInstrumentsWithoutABook() {
+        // Given
+        OrderBookRegistry cappedRegistry = new OrderBookRegistry("DEFAULT", "heap", "heap", 16, 1);
+        OrderBookService cappedService = newOrderBookService(cappedRegistry);
+        OrderAddRequestDto unknownInstrument = addRequest(2L, "B", 10L);
+        unknownInstrument.setInstrument("MADE-UP");
+
+        // When
+        int failed = cappedService.applyBatch(List.of(addRequest(1L, "B", 10L), unknownInstrument));
+
+        // Then
+        assertThat(failed).isEqualTo(1);
+        assertThat(cappedRegistry.getOrderBook("DEFAULT").getTotalSize('B', 1)).isEqualTo(10L);
+        assertThat(cappedRegistry.findOrderBook("MADE-UP")).isNull();
+    }
+
+    private static OrderAddRequestDto addRequest(long id, String side, long size) {
+        OrderAddRequestDto order = new OrderAddRequestDto();
+        order.setId(id);
+        order.setPrice(new BigDecimal("10.0"));
+        order.setSide(side);
+        order.setSize(size);
+        return order;
+    }
+
+    private static OrderBookService newOrderBookService(OrderBookRegistry orderBookRegistry) {
+        BookViewRegistry bookViewRegistry = new BookViewRegistry(orderBookRegistry);
+        TickSizeRegistry tickSizeRegistry = new TickSizeRegistry(orderBookRegistry, "0.0001", "");
+        return new OrderBookService(orderBookRegistry, new OrderMapper(tickSizeRegistry), bookViewRegistry,
+                new OrderBookMetrics(new SimpleMeterRegistry(), orderBookRegistry, bookViewRegistry), tickSizeRegistry,
+                Optional.empty(), Optional.empty());
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.trading.service;
 
 import com.example.trading.model.entity.Order;
+import com.example.trading.service.engine.OrderCommand;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
@@ -23,7 +24,11 @@ public class OrderBookTest {
 
     @BeforeEach
     void setUp() {
-        orderBook = new OrderBook();
+        orderBook = createOrderBook();
+    }
+
+    OrderBook createOrderBook() {
+        return new OrderBook();
     }
 
     @Test
@@ -137,6 +142,300 @@ public class OrderBookTest {
         assertThat(totalSize).isEqualTo(450);
     }
 
+    @Test
+    void testGetTotalSizeFollowsRemovesAndUpdates() throws InterruptedException {
+        // Given
+        createOrdersUsingExecutorService();
+        orderBook.addOrder(new Order(55, 100.00d, 'O', 25));
+
+        // When
+        orderBook.updateOrder(52, 75);
+        orderBook.removeOrder(55);
+        orderBook.addOrder(new Order(56, 100.00d, 'O', 5));
+
+        // Then
+        assertThat(orderBook.getTotalSize('O', 1)).isEqualTo(80L);
+    }
+
+    @Test
+    void testGetPriceAndTotalSizeOfDeepSideAreIndependentOfTheOtherSide() throws InterruptedException {
+        // Given
+        createOrdersUsingExecutorService();
+        orderBook.addOrder(new Order(5, 99.95d, 'B', 100));
+
+        // When
+        Double bidPriceLevel5 = orderBook.getPrice('B', 5);
+        Long bidSizeLevel5 = orderBook.getTotalSize('B', 5);
+        Double offerPriceLevel5 = orderBook.getPrice('O', 5);
+        Long offerSizeLevel5 = orderBook.getTotalSize('O', 5);
+        List<Order> bidOrders = orderBook.getOrdersBySideInLevelAndTimeOrdered('B');
+
+        // Then
+        assertThat(bidPriceLevel5).isEqualTo(99.95);
+        assertThat(bidSizeLevel5).isEqualTo(100L);
+        assertThat(offerPriceLevel5).isNull();
+        assertThat(offerSizeLevel5).isNull();
+        assertThat(bidOrders.stream().map(Order::getId).collect(Collectors.toList())).isEqualTo(Arrays.asList(1L, 3L, 2L, 4L, 5L));
+    }
+
+    @Test
+    void testOneSidedBook() {
+        // Given
+        orderBook.addOrder(new Order(1, 99.99d, 'B', 80));
+        orderBook.addOrder(new Order(2, 99.98d, 'B', 20));
+
+        // When
+        Double bidPriceLevel2 = orderBook.getPrice('B', 2);
+        Double offerPriceLevel1 = orderBook.getPrice('O', 1);
+
+        // Then
+        assertThat(bidPriceLevel2).isEqualTo(99.98);
+        assertThat(offerPriceLevel1).isNull();
+        assertThat(orderBook.getDepth('B')).isEqualTo(2);
+        assertThat(orderBook.getDepth('O')).isEqualTo(0);
+    }
+
+    @Test
+    void testCrossingOrderSweepsTheOppositeSideInPriceTimePriority() throws InterruptedException {
+        // Given
+        createOrdersUsingExecutorService();
+        orderBook.addOrder(new Order(55, 100.00d, 'O', 25));
+        List<String> trades = new ArrayList<>();
+        orderBook.setTradeListener((takerOrderId, makerOrderId, priceTicks, size) ->
+                trades.add(takerOrderId + "/" + makerOrderId + "/" + PriceTicks.toPrice(priceTicks) + "/" + size));
+
+        // When
+        orderBook.addOrder(new Order(6, 100.01d, 'B', 300));
+
+        // Then
+        assertThat(trades).isEqualTo(Arrays.asList("6/52/100.0/175", "6/55/100.0/25", "6/51/100.01/100"));
+        assertThat(orderBook.getPrice('O', 1)).isEqualTo(100.01);
+        assertThat(orderBook.getTotalSize('O', 1)).isEqualTo(100L);
+        assertThat(orderBook.getPrice('B', 1)).isEqualTo(99.99);
+        assertThat(orderBook.getOrdersBySideInLevelAndTimeOrdered('O').stream().map(Order::getId).collect(Collectors.toList()))
+                .isEqualTo(Arrays.asList(51L, 53L, 54L));
+    }
+
+    @Test
+    void testCrossingOrderRestsTheRemainingSize() throws InterruptedException {
+        // Given
+        createOrdersUsingExecutorService();
+
+        // When
+        orderBook.addOrder(new Order(56, 99.98d, 'O', 300));
+        orderBook.removeOrder(1L);
+
+        // Then
+        assertThat(orderBook.getPrice('O', 1)).isEqualTo(99.98);
+        assertThat(orderBook.getTotalSize('O', 1)).isEqualTo(45L);
+        assertThat(orderBook.getPrice('B', 1)).isEqualTo(99.97);
+        assertThat(orderBook.getDepth('B')).isEqualTo(2);
+    }
+
+    @Test
+    void testApplyBatchContinuesAfterAFailingCommand() {
+        // Given
+        List<OrderCommand> commands = Arrays.asList(
+                OrderCommand.add("DEFAULT", new Order(1, 99.99d, 'B', 80)),
+                OrderCommand.add("DEFAULT", new Order(1, 99.98d, 'B', 20)),
+                OrderCommand.add("DEFAULT", new Order(2, 99.99d, 'B', 20)),
+                OrderCommand.remove("DEFAULT", 3));
+
+        // When
+        int failed = orderBook.applyBatch(commands);
+
+        // Then
+        assertThat(failed).isEqualTo(1);
+        assertThat(commands.get(1).getCompletion().isCompletedExceptionally()).isTrue();
+        assertThat(commands.get(0).isApplied()).isTrue();
+        assertThat(commands.get(3).isApplied()).isFalse();
+        assertThat(orderBook.getTotalSize('B', 1)).isEqualTo(100L);
+        assertThat(orderBook.getDepth('B')).isEqualTo(1);
+    }
+
+    @Test
+    void testDepthUpdatesAreCoalescedPerBatch() {
+        // Given
+        List<String> updates = new ArrayList<>();
+        orderBook.addOrder(1L, 1_000_000L, 'O', 100L);
+        orderBook.addDepthListener(new DepthListener() {
+            @Override
+            public void onLevelUpdate(char side, long priceTicks, long totalSize, int orderCount, long sequence) {
+                updates.add(side + " " + priceTicks + " " + totalSize + " " + orderCount + " " + sequence);
+            }
+
+            @Override
+            public void onUpdateEnd() {
+                updates.add("end");
+            }
+        });
+        List<OrderCommand> commands = Arrays.asList(
+                OrderCommand.add("DEFAULT", 2L, 990_000L, 'B', 10L),
+                OrderCommand.add("DEFAULT", 3L, 990_000L, 'B', 20L),
+                OrderCommand.update("DEFAULT", 2L, 5L),
+                OrderCommand.add("DEFAULT", 4L, 1_000_000L, 'B', 100L));
+
+        // When
+        orderBook.applyBatch(commands);
+        orderBook.removeOrder(3L);
+
+        // Then
+        assertThat(updates.size()).isEqualTo(5);
+        assertThat(updates.get(0)).isEqualTo("B 990000 25 2 1");
+        assertThat(updates.get(1)).isEqualTo("O 1000000 0 0 2");
+        assertThat(updates.get(2)).isEqualTo("end");
+        assertThat(updates.get(3)).isEqualTo("B 990000 5 1 3");
+        assertThat(updates.get(4)).isEqualTo("end");
+        assertThat(orderBook.snapshotDepth(10).getSequence()).isEqualTo(3L);
+    }
+
+    @Test
+    void testFillPageResumesAfterTheCursor() {
+        // Given
+        orderBook.addOrder(1L, 1_000_000L, 'B', 10L);
+        orderBook.addOrder(2L, 1_000_000L, 'B', 20L);
+        orderBook.addOrder(3L, 990_000L, 'B', 30L);
+        orderBook.addOrder(4L, 980_000L, 'B', 40L);
+        OrderPage page = new OrderPage(2);
+
+        // When
+        orderBook.fillPage('B', 1, Integer.MAX_VALUE, false, 0, 0, 0, page);
+        long[] firstPage = {page.getId(0), page.getId(1)};
+        boolean firstHasMore = page.hasMore();
+        orderBook.fillPage('B', 1, Integer.MAX_VALUE, true, page.getPrice(1), page.getId(1), page.getPriority(1), page);
+        long[] secondPage = {page.getId(0), page.getId(1)};
+        boolean secondHasMore = page.hasMore();
+        orderBook.fillPage('B', 2, 2, false, 0, 0, 0, page);
+
+        // Then
+        assertThat(firstPage[0]).isEqualTo(1L);
+        assertThat(firstPage[1]).isEqualTo(2L);
+        assertThat(firstHasMore).isTrue();
+        assertThat(secondPage[0]).isEqualTo(3L);
+        assertThat(secondPage[1]).isEqualTo(4L);
+        assertThat(secondHasMore).isFalse();
+        assertThat(page.getCount()).isEqualTo(1);
+        assertThat(page.getId(0)).isEqualTo(3L);
+    }
+
+    @Test
+    void testFillPageResumesAfterTheCursorOrderWhichLeft() {
+        // Given
+        orderBook.addOrder(1L, 1_000_000L, 'O', 10L);
+        orderBook.addOrder(2L, 1_000_000L, 'O', 20L);
+        orderBook.addOrder(3L, 1_010_000L, 'O', 30L);
+        OrderPage page = new OrderPage(1);
+        orderBook.fillPage('O', 1, Integer.MAX_VALUE, false, 0, 0, 0, page);
+        long priority = page.getPriority(0);
+
+        // When
+        orderBook.removeOrder(1L);
+        orderBook.fillPage('O', 1, Integer.MAX_VALUE, true, 1_000_000L, 1L, priority, page);
+
+        // Then
+        assertThat(page.getId(0)).isEqualTo(2L);
+        assertThat(page.getNextCursor()).isEqualTo("1000000:2:" + page.getPriority(0));
+    }
+
+    @Test
+    void testFillPageSkipsNoOrderWhenTheCursorOrderIsAmendedUpwards() {
+        // Given
+        orderBook.addOrder(1L, 1_000_000L, 'O', 10L);
+        orderBook.addOrder(2L, 1_000_000L, 'O', 20L);
+        orderBook.addOrder(3L, 1_000_000L, 'O', 30L);
+        orderBook.addOrder(4L, 1_010_000L, 'O', 40L);
+        OrderPage page = new OrderPage(1);
+        orderBook.fillPage('O', 1, Integer.MAX_VALUE, false, 0, 0, 0, page);
+        long priority = page.getPriority(0);
+
+        // When
+        orderBook.updateOrder(1L, 50L);
+        List<Long> resumed = new ArrayList<>();
+        orderBook.fillPage('O', 1, Integer.MAX_VALUE, true, 1_000_000L, 1L, priority, page);
+        while (page.getCount() > 0) {
+            resumed.add(page.getId(0));
+            if (!page.hasMore()) {
+                break;
+            }
+            orderBook.fillPage('O', 1, Integer.MAX_VALUE, true, page.getPrice(0), page.getId(0), page.getPriority(0), page);
+        }
+
+        // Then
+        // the amended order went behind 2 and 3, it is listed again at its new place
+        assertThat(resumed).isEqualTo(List.of(2L, 3L, 1L, 4L));
+    }
+
+    @Test
+    void testUpdateOrderKeepsThePriorityOnlyWhenTheSizeDecreases() {
+        // Given
+        orderBook.addOrder(new Order(1, 100.00d, 'O', 100));
+        orderBook.addOrder(new Order(2, 100.00d, 'O', 100));
+        orderBook.addOrder(new Order(3, 100.00d, 'O', 100));
+
+        // When
+        orderBook.updateOrder(1, 40);
+        orderBook.updateOrder(2, 150);
+
+        // Then
+        assertThat(orderBook.getOrdersBySideInLevelAndTimeOrdered('O').stream().map(Order::getId).collect(Collectors.toList()))
+                .isEqualTo(Arrays.asList(1L, 3L, 2L));
+        assertThat(orderBook.getTotalSize('O', 1)).isEqualTo(290L);
+    }
+
+    @Test
+    void testReplaceOrderMovesItToTheEndOfTheNewLevel() throws InterruptedException {
+        // Given
+        createOrdersUsingExecutorService();
+
+        // When
+        orderBook.replaceOrder(52, PriceTicks.toTicks(100.01d), 50);
+
+        // Then
+        assertThat(orderBook.getPrice('O', 1)).isEqualTo(100.01);
+        assertThat(orderBook.getTotalSize('O', 1)).isEqualTo(250L);
+        assertThat(orderBook.getDepth('O')).isEqualTo(3);
+        assertThat(orderBook.getOrdersBySideInLevelAndTimeOrdered('O').stream().map(Order::getId).collect(Collectors.toList()))
+                .isEqualTo(Arrays.asList(51L, 52L, 53L, 54L));
+    }
+
+    @Test
+    void testReplaceOrderMatchesWhenTheNewPriceCrosses() throws InterruptedException {
+        // Given
+        createOrdersUsingExecutorService();
+        List<String> trades = new ArrayList<>();
+        orderBook.setTradeListener((takerOrderId, makerOrderId, priceTicks, size) ->
+                trades.add(takerOrderId + "/" + makerOrderId + "/" + size));
+
+        // When
+        orderBook.replaceOrder(2, PriceTicks.toTicks(100.00d), 200);
+
+        // Then
+        assertThat(trades).isEqualTo(Arrays.asList("2/52/175"));
+        assertThat(orderBook.getPrice('B', 1)).isEqualTo(100.00);
+        assertThat(orderBook.getTotalSize('B', 1)).isEqualTo(25L);
+        assertThat(orderBook.getPrice('O', 1)).isEqualTo(100.01);
+        assertThat(orderBook.getDepth('B')).isEqualTo(4);
+    }
+
+    @Test
+    void testRemoveOrdersRemovesOnlyTheLevelsOfThePriceRange() throws InterruptedException {
+        // Given
+        createOrdersUsingExecutorService();
+        orderBook.addOrder(new Order(55, 100.01d, 'O', 25));
+        List<Long> removedOrderIds = new ArrayList<>();
+
+        // When
+        int removed = orderBook.removeOrders('O', PriceTicks.toTicks(100.01d), PriceTicks.toTicks(100.02d), removedOrderIds::add);
+
+        // Then
+        assertThat(removed).isEqualTo(3);
+        assertThat(removedOrderIds).isEqualTo(Arrays.asList(51L, 55L, 53L));
+        assertThat(orderBook.getOrdersBySideInLevelAndTimeOrdered('O').stream().map(Order::getId).collect(Collectors.toList()))
+                .isEqualTo(Arrays.asList(52L, 54L));
+        assertThat(orderBook.getDepth('B')).isEqualTo(4);
+        assertThat(orderBook.removeOrder(51L)).isFalse();
+    }
+
     private void createOrdersUsingExecutorService() throws InterruptedException {
         List<Order> bidList = new ArrayList<>();
         List<Order> offerList = new ArrayList<>();
@@ -0,0 +1,67 @@
+package com.example.trading.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+public class TickSizeRegistryTest {
+
+    private final TickSizeRegistry tickSizeRegistry = new TickSizeRegistry(new OrderBookRegistry("DEFAULT"), "0.0001", "EURUSD=0.0005, AAPL=0.01");
+
+    @Test
+    void testTheSamePriceFromTwoSourcesGivesTheSameTicks() {
+        // When
+        long fromText = tickSizeRegistry.toTicks("AAPL", new BigDecimal("100.1"));
+        long fromDouble = tickSizeRegistry.toTicks("AAPL", BigDecimal.valueOf(100.1d));
+        long withTrailingZeros = tickSizeRegistry.toTicks("AAPL", new BigDecimal("100.100"));
+
+        // Then
+        assertThat(fromText).isEqualTo(1_001_000L);
+        assertThat(fromDouble).isEqualTo(1_001_000L);
+        assertThat(withTrailingZeros).isEqualTo(1_001_000L);
+    }
+
+    @Test
+    void testPricesOffTheTickSizeAreRejected() {
+        // Then
+        assertThatThrownBy(() -> tickSizeRegistry.toTicks("AAPL", new BigDecimal("100.015")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Price 100.015 of AAPL is not a multiple of the tick size 0.01");
+        assertThatThrownBy(() -> tickSizeRegistry.toTicks("EURUSD", new BigDecimal("1.08751")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tickSizeRegistry.validateTicks("EURUSD", 10_876L))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> tickSizeRegistry.toTicks(null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Missing price");
+        assertThat(tickSizeRegistry.toTicks("EURUSD", new BigDecimal("1.0875"))).isEqualTo(10_875L);
+        assertThat(tickSizeRegistry.toTicks(null, new BigDecimal("99.9999"))).isEqualTo(999_999L);
+    }
+
+    @Test
+    void testPricesAreWrittenWithTheDecimalsOfTheTickSize() {
+        // Given
+        char[] buffer = new char[PriceTicks.MAX_FORMATTED_LENGTH];
+
+        // When
+        int length = PriceTicks.format(1_001_000L, tickSizeRegistry.getScale("AAPL"), buffer);
+
+        // Then
+        assertThat(tickSizeRegistry.toPrice("AAPL", 1_001_000L).toPlainString()).isEqualTo("100.10");
+        assertThat(tickSizeRegistry.toPrice("EURUSD", 10_875L).toPlainString()).isEqualTo("1.0875");
+        assertThat(tickSizeRegistry.toPrice(null, 1_000_000L).toPlainString()).isEqualTo("100.0000");
+        assertThat(new String(buffer, 0, length)).isEqualTo("100.10");
+        assertThat(new String(buffer, 0, PriceTicks.format(-5L, 4, buffer))).isEqualTo("-0.0005");
+        assertThat(new String(buffer, 0, PriceTicks.format(1_001_050L, 2, buffer))).isEqualTo("100.1050");
+    }
+
+    @Test
+    void testTickSizesFinerThanTheBookResolutionAreRejected() {
+        // When Then
+        assertThatThrownBy(() -> new TickSizeRegistry(new OrderBookRegistry("DEFAULT"), "0.0001", "EURUSD=0.00005"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
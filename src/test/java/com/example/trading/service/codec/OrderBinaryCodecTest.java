@@ -0,0 +1,102 @@
+package com.example.trading.service.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+public class OrderBinaryCodecTest {
+
+    private final OrderBinaryCodec codec = new OrderBinaryCodec();
+
+    @Test
+    void testRoundtripOfAddRemoveUpdateAndReplace() {
+        // Given
+        byte[] buffer = new byte[4 * OrderBinaryCodec.MESSAGE_LENGTH];
+        codec.encodeAdd(buffer, 0, "EURUSD", 1L, 1_234_500L, 'B', 200L);
+        codec.encodeRemove(buffer, OrderBinaryCodec.MESSAGE_LENGTH, "EURUSD", 2L);
+        codec.encodeUpdate(buffer, 2 * OrderBinaryCodec.MESSAGE_LENGTH, "EURUSD", 3L, 50L);
+        codec.encodeReplace(buffer, 3 * OrderBinaryCodec.MESSAGE_LENGTH, "EURUSD", 4L, 1_235_000L, 75L);
+        RecordingHandler handler = new RecordingHandler();
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            codec.decode(buffer, i * OrderBinaryCodec.MESSAGE_LENGTH, handler);
+        }
+
+        // Then
+        assertThat(handler.decoded.size()).isEqualTo(4);
+        assertThat(handler.decoded.get(0)).isEqualTo("add EURUSD 1 1234500 B 200");
+        assertThat(handler.decoded.get(1)).isEqualTo("remove EURUSD 2");
+        assertThat(handler.decoded.get(2)).isEqualTo("update EURUSD 3 50");
+        assertThat(handler.decoded.get(3)).isEqualTo("replace EURUSD 4 1235000 75");
+    }
+
+    @Test
+    void testDefaultInstrumentIsDecodedAsNull() {
+        // Given
+        byte[] buffer = new byte[OrderBinaryCodec.MESSAGE_LENGTH];
+        codec.encodeAdd(buffer, 0, null, 7L, -100L, 'O', 1L);
+        RecordingHandler handler = new RecordingHandler();
+
+        // When
+        codec.decode(buffer, 0, handler);
+
+        // Then
+        assertThat(handler.decoded.get(0)).isEqualTo("add null 7 -100 O 1");
+    }
+
+    @Test
+    void testInvalidSideAndSizeAreDecodedAsSent() {
+        // Given
+        byte[] buffer = new byte[OrderBinaryCodec.MESSAGE_LENGTH];
+        codec.encodeAdd(buffer, 0, "EURUSD", 8L, 1_234_500L, 'X', -5L);
+        RecordingHandler handler = new RecordingHandler();
+
+        // When
+        codec.decode(buffer, 0, handler);
+
+        // Then
+        assertThat(handler.decoded.get(0)).isEqualTo("add EURUSD 8 1234500 X -5");
+    }
+
+    @Test
+    void testUnknownTypeIsRejected() {
+        // Given
+        byte[] buffer = new byte[OrderBinaryCodec.MESSAGE_LENGTH];
+        codec.encodeRemove(buffer, 0, "EURUSD", 9L);
+        buffer[0] = 9;
+
+        // When Then
+        assertThatThrownBy(() -> codec.decode(buffer, 0, new RecordingHandler()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown order message type 9");
+    }
+
+    private static class RecordingHandler implements OrderMessageHandler {
+        private final List<String> decoded = new ArrayList<>();
+
+        @Override
+        public void onAdd(String instrument, long orderId, long priceTicks, char side, long size) {
+            decoded.add("add " + instrument + " " + orderId + " " + priceTicks + " " + side + " " + size);
+        }
+
+        @Override
+        public void onRemove(String instrument, long orderId) {
+            decoded.add("remove " + instrument + " " + orderId);
+        }
+
+        @Override
+        public void onUpdate(String instrument, long orderId, long newSize) {
+            decoded.add("update " + instrument + " " + orderId + " " + newSize);
+        }
+
+        @Override
+        public void onReplace(String instrument, long orderId, long newPriceTicks, long newSize) {
+            decoded.add("replace " + instrument + " " + orderId + " " + newPriceTicks + " " + newSize);
+        }
+    }
+}
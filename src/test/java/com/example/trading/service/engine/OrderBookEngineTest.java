@@ -0,0 +1,224 @@
+package com.example.trading.service.engine;
+
+import com.example.trading.model.dto.OrderAddRequestDto;
+import com.example.trading.model.dto.OrderDeleteRequestDto;
+import com.example.trading.model.entity.Order;
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.OrderBookService;
+import com.example.trading.service.TickSizeRegistry;
+import com.example.trading.service.mapper.OrderMapper;
+import com.example.trading.service.metrics.OrderBookMetrics;
+import com.example.trading.service.view.BookViewRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+public class OrderBookEngineTest {
+
+    private OrderBook orderBook;
+    private OrderBookEngine orderBookEngine;
+
+    @BeforeEach
+    void setUp() {
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        orderBook = orderBookRegistry.getOrderBook("DEFAULT");
+        // small ring buffer so the producers have to wait for free slots
+        orderBookEngine = new OrderBookEngine(orderBookRegistry, 8, "order-book-engine-test");
+        orderBookEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        orderBookEngine.close();
+    }
+
+    @Test
+    void testCommandsAreAppliedInSequenceOrder() {
+        // When
+        CompletableFuture<Long> first = orderBookEngine.submit(OrderCommand.add("DEFAULT", new Order(1, 99.99d, 'B', 80)));
+        CompletableFuture<Long> second = orderBookEngine.submit(OrderCommand.add("DEFAULT", new Order(2, 99.99d, 'B', 20)));
+        CompletableFuture<Long> third = orderBookEngine.submit(OrderCommand.add("DEFAULT", new Order(51, 100.00d, 'O', 175)));
+        CompletableFuture<Long> fourth = orderBookEngine.submit(OrderCommand.remove("DEFAULT", 1));
+
+        // Then
+        assertThat(first.join()).isEqualTo(0L);
+        assertThat(second.join()).isEqualTo(1L);
+        assertThat(third.join()).isEqualTo(2L);
+        assertThat(fourth.join()).isEqualTo(3L);
+        assertThat(orderBook.getTotalSize('B', 1)).isEqualTo(20L);
+    }
+
+    @Test
+    void testBatchCommandCompletesEachCommandOfTheBatch() {
+        // Given
+        List<OrderCommand> commands = List.of(
+                OrderCommand.add("DEFAULT", new Order(1, 99.99d, 'B', 80)),
+                OrderCommand.remove("DEFAULT", 2),
+                OrderCommand.removeRange("DEFAULT", 'B', Long.MIN_VALUE, Long.MAX_VALUE));
+
+        // When
+        orderBookEngine.submit(OrderCommand.batch("DEFAULT", commands)).join();
+
+        // Then
+        assertThat(commands.get(0).isApplied()).isTrue();
+        assertThat(commands.get(1).isApplied()).isFalse();
+        assertThat(commands.get(2).getRemovedOrderIds()).isEqualTo(List.of(1L));
+        assertThat(orderBook.getDepth('B')).isEqualTo(0);
+    }
+
+    @Test
+    void testConcurrentProducers() throws InterruptedException {
+        // Given
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<Long>> completions = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            Order order = new Order(i, i % 2 == 0 ? 99.99d : 100.00d, i % 2 == 0 ? 'B' : 'O', 10);
+            CompletableFuture<Long> completion = new CompletableFuture<>();
+            completions.add(completion);
+            executorService.execute(() -> completion.complete(orderBookEngine.submit(OrderCommand.add("DEFAULT", order)).join()));
+        }
+        executorService.shutdown();
+        executorService.awaitTermination(60_000L, TimeUnit.MILLISECONDS);
+
+        // Then
+        List<Long> sequences = completions.stream().map(CompletableFuture::join).sorted().collect(Collectors.toList());
+        assertThat(sequences.get(0)).isEqualTo(0L);
+        assertThat(sequences.get(999)).isEqualTo(999L);
+        assertThat(sequences.stream().distinct().count()).isEqualTo(1000L);
+        assertThat(orderBook.getTotalSize('B', 1)).isEqualTo(5000L);
+        assertThat(orderBook.getTotalSize('O', 1)).isEqualTo(5000L);
+    }
+
+    @Test
+    void testCloseCompletesEveryAcceptedCommand() throws InterruptedException {
+        // Given
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<Long>> completions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Order order = new Order(i, 99.99d, 'B', 10);
+            CompletableFuture<Long> completion = new CompletableFuture<>();
+            completions.add(completion);
+            executorService.execute(() -> {
+                try {
+                    orderBookEngine.submit(OrderCommand.add("DEFAULT", order))
+                            .whenComplete((sequence, error) -> completion.complete(sequence));
+                } catch (IllegalStateException e) {
+                    completion.complete(-1L);
+                }
+            });
+        }
+
+        // When
+        orderBookEngine.close();
+        executorService.shutdown();
+        executorService.awaitTermination(60_000L, TimeUnit.MILLISECONDS);
+
+        // Then
+        long applied = completions.stream().map(completion -> completion.orTimeout(10, TimeUnit.SECONDS).join())
+                .filter(sequence -> sequence >= 0).count();
+        assertThat(orderBook.getTotalSize('B', 1)).isEqualTo(applied * 10);
+        assertThatThrownBy(() -> orderBookEngine.submit(OrderCommand.remove("DEFAULT", 1)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testEngineGroupKeepsTheInstrumentsApart() throws InterruptedException {
+        // Given
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        OrderBookEngineGroup orderBookEngineGroup = new OrderBookEngineGroup(orderBookRegistry, 4, 8);
+        orderBookEngineGroup.start();
+
+        // When
+        List<CompletableFuture<Long>> completions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String instrument = "INSTRUMENT-" + (i % 10);
+            completions.add(orderBookEngineGroup.submit(OrderCommand.add(instrument, new Order(i, 99.99d, 'B', 10))));
+        }
+        completions.forEach(CompletableFuture::join);
+        orderBookEngineGroup.close();
+
+        // Then
+        assertThat(orderBookRegistry.getOrderBooks().size()).isEqualTo(10);
+        assertThat(orderBookRegistry.getOrderBook("INSTRUMENT-3").getOrdersBySideInLevelAndTimeOrdered('B')
+                .stream().map(Order::getId).collect(Collectors.toList()))
+                .isEqualTo(List.of(3L, 13L, 23L, 33L, 43L, 53L, 63L, 73L, 83L, 93L));
+    }
+
+    @Test
+    void testRejectedCommandReachesTheServiceCallerUnwrapped() throws InterruptedException {
+        // Given
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        OrderBookEngineGroup orderBookEngineGroup = new OrderBookEngineGroup(orderBookRegistry, 1, 8);
+        orderBookEngineGroup.start();
+        OrderBookService orderBookService = newOrderBookService(orderBookRegistry, orderBookEngineGroup);
+        orderBookService.addOrder("DEFAULT", 1L, 999_900L, 'B', 80L);
+
+        // When Then
+        assertThatThrownBy(() -> orderBookService.updateOrder("DEFAULT", 1L, 0L))
+                .isInstanceOf(IllegalArgumentException.class);
+        orderBookEngineGroup.close();
+    }
+
+    @Test
+    void testBatchOfTheServiceIsAppliedAsOneCommandPerInstrument() throws InterruptedException {
+        // Given
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        OrderBookEngineGroup orderBookEngineGroup = new OrderBookEngineGroup(orderBookRegistry, 2, 8);
+        orderBookEngineGroup.start();
+        OrderBookService orderBookService = newOrderBookService(orderBookRegistry, orderBookEngineGroup);
+        List<Object> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(addRequest(i % 2 == 0 ? "AAPL" : "MSFT", i / 2));
+        }
+        // duplicated id
+        requests.add(addRequest("AAPL", 0));
+        OrderDeleteRequestDto delete = new OrderDeleteRequestDto();
+        delete.setInstrument("MSFT");
+        delete.setId(9);
+        requests.add(delete);
+
+        // When
+        int failed = orderBookService.applyBatch(requests);
+        orderBookEngineGroup.close();
+
+        // Then
+        assertThat(failed).isEqualTo(1);
+        assertThat(orderBookRegistry.getOrderBook("AAPL").getTotalSize('B', 1)).isEqualTo(100L);
+        assertThat(orderBookRegistry.getOrderBook("MSFT").getTotalSize('B', 1)).isEqualTo(90L);
+    }
+
+    private static OrderAddRequestDto addRequest(String instrument, long id) {
+        OrderAddRequestDto order = new OrderAddRequestDto();
+        order.setInstrument(instrument);
+        order.setId(id);
+        order.setPrice(new BigDecimal("99.99"));
+        order.setSide("B");
+        order.setSize(10L);
+        return order;
+    }
+
+    private static OrderBookService newOrderBookService(OrderBookRegistry orderBookRegistry, OrderBookEngineGroup orderBookEngineGroup) {
+        BookViewRegistry bookViewRegistry = new BookViewRegistry(orderBookRegistry);
+        TickSizeRegistry tickSizeRegistry = new TickSizeRegistry(orderBookRegistry, "0.0001", "");
+        return new OrderBookService(orderBookRegistry, new OrderMapper(tickSizeRegistry), bookViewRegistry,
+                new OrderBookMetrics(new SimpleMeterRegistry(), orderBookRegistry, bookViewRegistry), tickSizeRegistry,
+                Optional.of(orderBookEngineGroup), Optional.empty());
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.trading.service.eventlog;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.PriceTicks;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class EventLogTest {
+
+    @Test
+    void testDrainHandsTheEventsInTheOrderTheyWereRecorded() {
+        // Given
+        EventLog eventLog = new EventLog(4, 0);
+        List<String> lines = new ArrayList<>();
+
+        // When
+        eventLog.request("addOrder");
+        eventLog.message("AddOrderQueue");
+        int drained = eventLog.drain((type, threadId, timeMillis, name, value1, value2, value3, value4) -> lines.add(type + " " + name));
+
+        // Then
+        assertThat(drained).isEqualTo(2);
+        assertThat(lines.get(0)).isEqualTo("REQUEST addOrder");
+        assertThat(lines.get(1)).isEqualTo("MESSAGE AddOrderQueue");
+        assertThat(eventLog.drain((type, threadId, timeMillis, name, value1, value2, value3, value4) -> lines.add(name))).isEqualTo(0);
+    }
+
+    @Test
+    void testEventsAreDroppedWhenTheRingIsFull() {
+        // Given
+        EventLog eventLog = new EventLog(2, 0);
+
+        // When
+        eventLog.request("first");
+        eventLog.request("second");
+        eventLog.request("third");
+        int drained = eventLog.drain((type, threadId, timeMillis, name, value1, value2, value3, value4) -> { });
+        eventLog.request("fourth");
+
+        // Then
+        assertThat(drained).isEqualTo(2);
+        assertThat(eventLog.getDroppedCount()).isEqualTo(1L);
+        assertThat(eventLog.drain((type, threadId, timeMillis, name, value1, value2, value3, value4) -> { })).isEqualTo(1);
+    }
+
+    @Test
+    void testTheBookMutationsAreTracedWithTheirArguments() {
+        // Given
+        EventLog eventLog = new EventLog(8, 1);
+        OrderBook orderBook = new OrderBook();
+        orderBook.setEventLog(eventLog, "EURUSD");
+        StringBuilder line = new StringBuilder();
+
+        // When
+        orderBook.addOrder(1L, PriceTicks.toTicks(1.5d), 'B', 100L);
+        orderBook.removeOrder(1L);
+        eventLog.drain((type, threadId, timeMillis, name, value1, value2, value3, value4) -> {
+            EventLog.format(line, type, 0, 0, name, value1, value2, value3, value4);
+            line.append('\n');
+        });
+
+        // Then
+        assertThat(line.toString()).isEqualTo(
+                "event=add_order instrument=EURUSD thread=0 time=0 orderId=1 price=1.5 side=B size=100\n"
+                        + "event=remove_order instrument=EURUSD thread=0 time=0 orderId=1\n");
+    }
+
+    @Test
+    void testReplaceAtTheSamePriceIsTracedOnce() {
+        // Given
+        EventLog eventLog = new EventLog(8, 1);
+        OrderBook orderBook = new OrderBook();
+        orderBook.setEventLog(eventLog, "EURUSD");
+        orderBook.addOrder(1L, PriceTicks.toTicks(1.5d), 'B', 100L);
+        eventLog.drain((type, threadId, timeMillis, name, value1, value2, value3, value4) -> { });
+        List<String> lines = new ArrayList<>();
+
+        // When
+        orderBook.replaceOrder(1L, PriceTicks.toTicks(1.5d), 150L);
+        eventLog.drain((type, threadId, timeMillis, name, value1, value2, value3, value4) -> lines.add(type.name()));
+
+        // Then
+        assertThat(lines.size()).isEqualTo(1);
+        assertThat(lines.get(0)).isEqualTo("REPLACE_ORDER");
+        assertThat(orderBook.getTotalSize('B', 1)).isEqualTo(150L);
+    }
+
+    @Test
+    void testTheDisabledLogRecordsNothing() {
+        // When
+        EventLog.NONE.request("addOrder");
+
+        // Then
+        assertThat(EventLog.NONE.isTracing()).isFalse();
+        assertThat(EventLog.NONE.drain((type, threadId, timeMillis, name, value1, value2, value3, value4) -> { })).isEqualTo(0);
+    }
+}
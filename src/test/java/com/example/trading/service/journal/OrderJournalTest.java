@@ -0,0 +1,118 @@
+package com.example.trading.service.journal;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.codec.OrderBinaryCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class OrderJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReplayRebuildsTheBooks() throws InterruptedException {
+        // Given
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        OrderJournal orderJournal = newJournal(1 << 16);
+        orderJournal.replay(new OrderBookReplayer(orderBookRegistry));
+        orderBookRegistry.setJournal(orderJournal);
+        orderJournal.start();
+        OrderBook orderBook = orderBookRegistry.getOrderBook("EURUSD");
+        orderBook.addOrder(1L, 100_000L, 'B', 10L);
+        orderBook.addOrder(2L, 100_000L, 'B', 20L);
+        orderBook.addOrder(3L, 110_000L, 'O', 5L);
+        orderBook.updateOrder(1L, 15L);
+        orderBook.removeOrder(3L);
+        orderBook.removeOrder(42L);
+        orderJournal.awaitDurable(orderJournal.getAppendedSequence());
+        orderJournal.close();
+
+        // When
+        OrderBookRegistry recoveredRegistry = new OrderBookRegistry("DEFAULT");
+        long replayed = newJournal(1 << 16).replay(new OrderBookReplayer(recoveredRegistry));
+
+        // Then
+        OrderBook recoveredBook = recoveredRegistry.getOrderBook("EURUSD");
+        assertThat(replayed).isEqualTo(5L);
+        assertThat(recoveredBook.getTotalSize('B', 1)).isEqualTo(35L);
+        assertThat(recoveredBook.getOrdersBySideInLevelAndTimeOrdered('B').get(0).getId()).isEqualTo(2L);
+        assertThat(recoveredBook.getDepth('O')).isEqualTo(0);
+    }
+
+    @Test
+    void testAppendingContinuesAfterReplayAcrossSegments() throws InterruptedException {
+        // Given
+        int segmentSize = 3 * OrderJournal.RECORD_LENGTH;
+        OrderJournal orderJournal = newJournal(segmentSize);
+        orderJournal.replay(new OrderBookReplayer(new OrderBookRegistry("DEFAULT")));
+        for (long id = 1; id <= 4; id++) {
+            orderJournal.onAdd("EURUSD", id, 100_000L, 'B', 1L);
+        }
+        orderJournal.close();
+
+        // When
+        OrderJournal reopenedJournal = newJournal(segmentSize);
+        reopenedJournal.replay(new OrderBookReplayer(new OrderBookRegistry("DEFAULT")));
+        reopenedJournal.onAdd("EURUSD", 5L, 100_000L, 'B', 1L);
+        reopenedJournal.close();
+        OrderBookRegistry recoveredRegistry = new OrderBookRegistry("DEFAULT");
+        long replayed = newJournal(segmentSize).replay(instrument -> 2L, new OrderBookReplayer(recoveredRegistry));
+
+        // Then
+        assertThat(reopenedJournal.getAppendedSequence()).isEqualTo(5L);
+        assertThat(replayed).isEqualTo(3L);
+        assertThat(recoveredRegistry.getOrderBook("EURUSD").getTotalSize('B', 1)).isEqualTo(3L);
+    }
+
+    @Test
+    void testReplayStopsAtATornRecordAndTruncatesTheJournal() throws Exception {
+        // Given
+        int segmentSize = 2 * OrderJournal.RECORD_LENGTH;
+        OrderJournal orderJournal = newJournal(segmentSize);
+        orderJournal.replay(new OrderBookReplayer(new OrderBookRegistry("DEFAULT")));
+        for (long id = 1; id <= 4; id++) {
+            orderJournal.onAdd("EURUSD", id, 100_000L, 'B', 1L);
+        }
+        orderJournal.close();
+        // the length of the second record reached the disk but not its last command byte
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.sorted().collect(Collectors.toList());
+        }
+        try (FileChannel channel = FileChannel.open(segments.get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{42}), 2L * OrderJournal.RECORD_LENGTH - 1);
+        }
+
+        // When
+        OrderJournal reopenedJournal = newJournal(segmentSize);
+        long replayed = reopenedJournal.replay(new OrderBookReplayer(new OrderBookRegistry("DEFAULT")));
+        reopenedJournal.onAdd("EURUSD", 5L, 100_000L, 'B', 2L);
+        reopenedJournal.close();
+        OrderBookRegistry recoveredRegistry = new OrderBookRegistry("DEFAULT");
+        long replayedAfterAppend = newJournal(segmentSize).replay(new OrderBookReplayer(recoveredRegistry));
+
+        // Then
+        assertThat(replayed).isEqualTo(1L);
+        assertThat(Files.exists(segments.get(1))).isFalse();
+        assertThat(reopenedJournal.getAppendedSequence()).isEqualTo(2L);
+        assertThat(replayedAfterAppend).isEqualTo(2L);
+        assertThat(recoveredRegistry.getOrderBook("EURUSD").getTotalSize('B', 1)).isEqualTo(3L);
+    }
+
+    private OrderJournal newJournal(int segmentSize) {
+        return new OrderJournal(directory, segmentSize, 100, new OrderBinaryCodec());
+    }
+}
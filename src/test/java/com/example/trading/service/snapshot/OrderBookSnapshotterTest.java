@@ -0,0 +1,120 @@
+package com.example.trading.service.snapshot;
+
+import com.example.trading.model.entity.Order;
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.codec.OrderBinaryCodec;
+import com.example.trading.service.journal.OrderBookReplayer;
+import com.example.trading.service.journal.OrderJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class OrderBookSnapshotterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSnapshotKeepsTimePriority() {
+        // Given
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        OrderBook orderBook = orderBookRegistry.getOrderBook("EURUSD");
+        orderBook.addOrder(1L, 100_000L, 'B', 10L);
+        orderBook.addOrder(2L, 100_000L, 'B', 20L);
+        orderBook.addOrder(3L, 90_000L, 'B', 30L);
+        orderBook.addOrder(4L, 110_000L, 'O', 40L);
+        orderBook.updateOrder(1L, 15L);
+        OrderBookSnapshotStore orderBookSnapshotStore = new OrderBookSnapshotStore(directory);
+        orderBookSnapshotStore.write(Map.of("EURUSD", orderBook.snapshot(() -> 7L)));
+
+        // When
+        OrderBookRegistry recoveredRegistry = new OrderBookRegistry("DEFAULT");
+        Map<String, Long> instrumentToSequence = orderBookSnapshotStore.loadLatest(recoveredRegistry);
+
+        // Then
+        List<Order> bids = recoveredRegistry.getOrderBook("EURUSD").getOrdersBySideInLevelAndTimeOrdered('B');
+        assertThat(instrumentToSequence.get("EURUSD")).isEqualTo(7L);
+        assertThat(bids.size()).isEqualTo(3);
+        assertThat(bids.get(0).getId()).isEqualTo(2L);
+        assertThat(bids.get(1).getId()).isEqualTo(1L);
+        assertThat(bids.get(1).getSize()).isEqualTo(15L);
+        assertThat(bids.get(2).getId()).isEqualTo(3L);
+        assertThat(recoveredRegistry.getOrderBook("EURUSD").getTotalSize('O', 1)).isEqualTo(40L);
+    }
+
+    @Test
+    void testRecoveryFromSnapshotAndFollowingJournal() throws InterruptedException {
+        // Given
+        Path journalDirectory = directory.resolve("journal");
+        int segmentSize = 2 * OrderJournal.RECORD_LENGTH;
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        OrderJournal orderJournal = new OrderJournal(journalDirectory, segmentSize, 100, new OrderBinaryCodec());
+        orderJournal.replay(new OrderBookReplayer(orderBookRegistry));
+        orderBookRegistry.setJournal(orderJournal);
+        OrderBookSnapshotStore orderBookSnapshotStore = new OrderBookSnapshotStore(directory.resolve("snapshot"));
+        OrderBookSnapshotter orderBookSnapshotter = new OrderBookSnapshotter(orderBookRegistry, orderJournal, orderBookSnapshotStore);
+        orderBookRegistry.getOrderBook("EURUSD").addOrder(1L, 100_000L, 'B', 10L);
+        orderBookRegistry.getOrderBook("EURUSD").addOrder(2L, 100_000L, 'B', 20L);
+        orderBookRegistry.getOrderBook("GBPUSD").addOrder(3L, 120_000L, 'O', 30L);
+        orderBookSnapshotter.snapshot();
+        orderBookRegistry.getOrderBook("EURUSD").removeOrder(1L);
+        orderBookRegistry.getOrderBook("GBPUSD").addOrder(4L, 120_000L, 'O', 40L);
+        orderJournal.close();
+
+        // When
+        OrderBookRegistry recoveredRegistry = new OrderBookRegistry("DEFAULT");
+        Map<String, Long> instrumentToSequence = orderBookSnapshotStore.loadLatest(recoveredRegistry);
+        long replayed = new OrderJournal(journalDirectory, segmentSize, 100, new OrderBinaryCodec())
+                .replay(instrument -> instrumentToSequence.getOrDefault(instrument, 0L), new OrderBookReplayer(recoveredRegistry));
+
+        // Then
+        assertThat(replayed).isEqualTo(2L);
+        assertThat(recoveredRegistry.getOrderBook("EURUSD").getTotalSize('B', 1)).isEqualTo(20L);
+        assertThat(recoveredRegistry.getOrderBook("GBPUSD").getTotalSize('O', 1)).isEqualTo(70L);
+    }
+
+    @Test
+    void testBookCreatedDuringTheSnapshotKeepsItsJournal() throws InterruptedException {
+        // Given
+        Path journalDirectory = directory.resolve("journal");
+        int segmentSize = 2 * OrderJournal.RECORD_LENGTH;
+        OrderJournal orderJournal = new OrderJournal(journalDirectory, segmentSize, 100, new OrderBinaryCodec());
+        // the books created once the iteration of the snapshot started are not in it
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT") {
+            @Override
+            public Map<String, OrderBook> getOrderBooks() {
+                Map<String, OrderBook> iterated = new LinkedHashMap<>(super.getOrderBooks());
+                getOrderBook("GBPUSD").addOrder(3L, 120_000L, 'O', 30L);
+                getOrderBook("GBPUSD").addOrder(4L, 120_000L, 'O', 40L);
+                getOrderBook("EURUSD").addOrder(5L, 100_000L, 'B', 50L);
+                return iterated;
+            }
+        };
+        orderJournal.replay(new OrderBookReplayer(orderBookRegistry));
+        orderBookRegistry.setJournal(orderJournal);
+        OrderBookSnapshotStore orderBookSnapshotStore = new OrderBookSnapshotStore(directory.resolve("snapshot"));
+        OrderBookSnapshotter orderBookSnapshotter = new OrderBookSnapshotter(orderBookRegistry, orderJournal, orderBookSnapshotStore);
+        orderBookRegistry.getOrderBook("EURUSD").addOrder(1L, 100_000L, 'B', 10L);
+        orderBookRegistry.getOrderBook("EURUSD").addOrder(2L, 100_000L, 'B', 20L);
+
+        // When
+        orderBookSnapshotter.snapshot();
+        orderJournal.close();
+        OrderBookRegistry recoveredRegistry = new OrderBookRegistry("DEFAULT");
+        Map<String, Long> instrumentToSequence = orderBookSnapshotStore.loadLatest(recoveredRegistry);
+        new OrderJournal(journalDirectory, segmentSize, 100, new OrderBinaryCodec())
+                .replay(instrument -> instrumentToSequence.getOrDefault(instrument, 0L), new OrderBookReplayer(recoveredRegistry));
+
+        // Then
+        assertThat(instrumentToSequence.containsKey("GBPUSD")).isFalse();
+        assertThat(recoveredRegistry.getOrderBook("EURUSD").getTotalSize('B', 1)).isEqualTo(80L);
+        assertThat(recoveredRegistry.getOrderBook("GBPUSD").getTotalSize('O', 1)).isEqualTo(70L);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.trading.service.trade;
+
+import com.example.trading.model.dto.TradeDto;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.OrderBookService;
+import com.example.trading.service.TickSizeRegistry;
+import com.example.trading.service.eventlog.EventLog;
+import com.example.trading.service.mapper.OrderMapper;
+import com.example.trading.service.metrics.OrderBookMetrics;
+import com.example.trading.service.view.BookViewRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class TradePublisherTest {
+
+    @Test
+    void testCrossingOrderFillsReachTheSender() throws InterruptedException {
+        // Given
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        BookViewRegistry bookViewRegistry = new BookViewRegistry(orderBookRegistry);
+        bookViewRegistry.start();
+        TickSizeRegistry tickSizeRegistry = new TickSizeRegistry(orderBookRegistry, "0.0001", "AAPL=0.01");
+        OrderMapper orderMapper = new OrderMapper(tickSizeRegistry);
+        OrderBookService orderBookService = new OrderBookService(orderBookRegistry, orderMapper, bookViewRegistry,
+                new OrderBookMetrics(new SimpleMeterRegistry(), orderBookRegistry, bookViewRegistry), tickSizeRegistry,
+                Optional.empty(), Optional.empty());
+        BlockingQueue<TradeDto> sent = new LinkedBlockingQueue<>();
+        TradePublisher tradePublisher = new TradePublisher(orderBookRegistry, orderMapper, EventLog.NONE, sent::add, 16);
+        tradePublisher.start();
+        orderBookService.addOrder("AAPL", 1L, 1_001_000L, 'O', 30L);
+        orderBookService.addOrder("AAPL", 2L, 1_002_000L, 'O', 50L);
+
+        // When
+        orderBookService.addOrder("AAPL", 3L, 1_002_000L, 'B', 40L);
+        TradeDto first = sent.poll(5, TimeUnit.SECONDS);
+        TradeDto second = sent.poll(5, TimeUnit.SECONDS);
+        tradePublisher.close();
+
+        // Then
+        assertThat(first.getInstrument()).isEqualTo("AAPL");
+        assertThat(first.getTakerOrderId()).isEqualTo(3L);
+        assertThat(first.getMakerOrderId()).isEqualTo(1L);
+        assertThat(first.getPrice().toPlainString()).isEqualTo("100.10");
+        assertThat(first.getSize()).isEqualTo(30L);
+        assertThat(second.getMakerOrderId()).isEqualTo(2L);
+        assertThat(second.getPrice().toPlainString()).isEqualTo("100.20");
+        assertThat(second.getSize()).isEqualTo(10L);
+        assertThat(sent.isEmpty()).isTrue();
+        assertThat(tradePublisher.getDroppedCount()).isEqualTo(0L);
+    }
+}
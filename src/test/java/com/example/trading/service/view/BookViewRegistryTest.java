@@ -0,0 +1,84 @@
+package com.example.trading.service.view;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.engine.OrderCommand;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class BookViewRegistryTest {
+
+    @Test
+    void testViewFollowsTheBookAndStaysImmutable() {
+        // Given
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        // a book filled before the views are attached, e.g. by the journal replay
+        orderBookRegistry.getOrderBook("EURUSD").addOrder(1L, 1_000_000L, 'O', 10L);
+        BookViewRegistry bookViewRegistry = new BookViewRegistry(orderBookRegistry);
+        bookViewRegistry.start();
+        OrderBook orderBook = orderBookRegistry.getOrderBook("EURUSD");
+        BookView initialView = bookViewRegistry.getView("EURUSD");
+
+        // When
+        orderBook.addOrder(2L, 990_000L, 'B', 20L);
+        orderBook.addOrder(3L, 980_000L, 'B', 30L);
+        orderBook.addOrder(4L, 990_000L, 'B', 5L);
+        orderBook.addOrder(5L, 1_000_000L, 'B', 10L);
+        BookView view = bookViewRegistry.getView("EURUSD");
+
+        // Then
+        assertThat(initialView.getOffers().getDepth()).isEqualTo(1);
+        assertThat(initialView.getBids().getDepth()).isEqualTo(0);
+        assertThat(view.getSequence()).isGreaterThan(initialView.getSequence());
+        assertThat(view.getOffers().getDepth()).isEqualTo(0);
+        assertThat(view.getBids().getDepth()).isEqualTo(2);
+        assertThat(view.getBids().getPrice(0)).isEqualTo(990_000L);
+        assertThat(view.getBids().getTotalSize(0)).isEqualTo(25L);
+        assertThat(view.getBids().getOrderCount(0)).isEqualTo(2);
+        assertThat(view.getBids().getPrice(1)).isEqualTo(980_000L);
+        assertThat(bookViewRegistry.getView("GBPUSD").getSequence()).isEqualTo(0L);
+    }
+
+    @Test
+    void testTopOfBookReadsAreConsistentWhileTheBookChanges() throws InterruptedException {
+        // Given
+        OrderBookRegistry orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        BookViewRegistry bookViewRegistry = new BookViewRegistry(orderBookRegistry);
+        bookViewRegistry.start();
+        OrderBook orderBook = orderBookRegistry.getOrderBook("EURUSD");
+        orderBook.addOrder(1L, 990_000L, 'B', 10L);
+        orderBook.addOrder(2L, 1_000_000L, 'O', 10L);
+        TopOfBook topOfBook = bookViewRegistry.getTopOfBook("EURUSD");
+        // every batch moves both sides by the same size, a torn read would see different sizes
+        Thread writer = new Thread(() -> {
+            for (long size = 11; size < 20_000; size++) {
+                orderBook.applyBatch(List.of(OrderCommand.update("EURUSD", 1L, size), OrderCommand.update("EURUSD", 2L, size)));
+            }
+        });
+        TopOfBook.Snapshot snapshot = new TopOfBook.Snapshot();
+        int inconsistentReads = 0;
+
+        // When
+        writer.start();
+        while (writer.isAlive()) {
+            topOfBook.read(snapshot);
+            if (snapshot.getTotalSize('B', 0) != snapshot.getTotalSize('O', 0)) {
+                inconsistentReads++;
+            }
+        }
+        writer.join();
+        topOfBook.read(snapshot);
+
+        // Then
+        assertThat(inconsistentReads).isEqualTo(0);
+        assertThat(snapshot.getDepth('B')).isEqualTo(1);
+        assertThat(snapshot.getTotalSize('O', 0)).isEqualTo(19_999L);
+        assertThat(snapshot.getSpread()).isEqualTo(10_000L);
+        assertThat(topOfBook.getPrice('B', 1)).isEqualTo(990_000L);
+        assertThat(topOfBook.getPrice('B', 2)).isEqualTo(TopOfBook.MISSING);
+        assertThat(bookViewRegistry.getTopOfBook("GBPUSD").getTotalSize('O', 1)).isEqualTo(TopOfBook.MISSING);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.trading.web.listener;
+
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.OrderBookService;
+import com.example.trading.service.TickSizeRegistry;
+import com.example.trading.service.codec.OrderBinaryCodec;
+import com.example.trading.service.eventlog.EventLog;
+import com.example.trading.service.mapper.OrderMapper;
+import com.example.trading.service.metrics.OrderBookMetrics;
+import com.example.trading.service.view.BookViewRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
+
+public class OrderBinaryListenerTest {
+
+    private final OrderBinaryCodec codec = new OrderBinaryCodec();
+    private final byte[] buffer = new byte[OrderBinaryCodec.MESSAGE_LENGTH];
+    private OrderBookRegistry orderBookRegistry;
+    private OrderBinaryListener orderBinaryListener;
+
+    @BeforeEach
+    void setUp() {
+        orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        BookViewRegistry bookViewRegistry = new BookViewRegistry(orderBookRegistry);
+        TickSizeRegistry tickSizeRegistry = new TickSizeRegistry(orderBookRegistry, "0.0001", "");
+        OrderBookMetrics orderBookMetrics = new OrderBookMetrics(new SimpleMeterRegistry(), orderBookRegistry, bookViewRegistry);
+        OrderBookService orderBookService = new OrderBookService(orderBookRegistry, new OrderMapper(tickSizeRegistry),
+                bookViewRegistry, orderBookMetrics, tickSizeRegistry, Optional.empty(), Optional.empty());
+        orderBinaryListener = new OrderBinaryListener(orderBookService, codec, orderBookMetrics, EventLog.NONE, "BinaryOrderQueue");
+    }
+
+    @Test
+    void testAddWithAnUnknownSideIsRejected() {
+        // Given
+        codec.encodeAdd(buffer, 0, null, 1L, 999_900L, 'X', 80L);
+
+        // When Then
+        assertThatThrownBy(() -> codec.decode(buffer, 0, orderBinaryListener))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("only `B` or `O` types are allowed");
+        assertThat(orderBookRegistry.getOrderBook("DEFAULT").getDepth('B')).isEqualTo(0);
+        assertThat(orderBookRegistry.getOrderBook("DEFAULT").getDepth('O')).isEqualTo(0);
+    }
+
+    @Test
+    void testAddWithoutAPositiveSizeIsRejected() {
+        // Given
+        codec.encodeAdd(buffer, 0, null, 1L, 999_900L, 'B', 0L);
+
+        // When Then
+        assertThatThrownBy(() -> codec.decode(buffer, 0, orderBinaryListener))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Size must be positive");
+        assertThat(orderBookRegistry.getOrderBook("DEFAULT").getDepth('B')).isEqualTo(0);
+    }
+
+    @Test
+    void testValidAddRestsInTheBook() {
+        // Given
+        codec.encodeAdd(buffer, 0, null, 1L, 999_900L, 'B', 80L);
+
+        // When
+        codec.decode(buffer, 0, orderBinaryListener);
+
+        // Then
+        assertThat(orderBookRegistry.getOrderBook("DEFAULT").getTotalSize('B', 1)).isEqualTo(80L);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.trading.web.stream;
+
+import com.example.trading.service.OrderBook;
+import com.example.trading.service.OrderBookRegistry;
+import com.example.trading.service.TickSizeRegistry;
+import com.example.trading.service.mapper.OrderMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+
+public class DepthStreamBroadcasterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private OrderBookRegistry orderBookRegistry;
+    private DepthStreamBroadcaster depthStreamBroadcaster;
+
+    @BeforeEach
+    void setUp() {
+        orderBookRegistry = new OrderBookRegistry("DEFAULT");
+        TickSizeRegistry tickSizeRegistry = new TickSizeRegistry(orderBookRegistry, "0.0001", "");
+        depthStreamBroadcaster = new DepthStreamBroadcaster(orderBookRegistry, new OrderMapper(tickSizeRegistry),
+                objectMapper, 5, 1, 60_000);
+        depthStreamBroadcaster.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        depthStreamBroadcaster.stop();
+    }
+
+    @Test
+    void testSubscriptionStartsWithTheCurrentDepth() throws Exception {
+        // Given
+        OrderBook orderBook = orderBookRegistry.getOrderBook("DEFAULT");
+        orderBook.addOrder(1L, 999_900L, 'B', 80L);
+        orderBook.addOrder(2L, 1_000_000L, 'O', 30L);
+        RecordingEmitter emitter = new RecordingEmitter(null);
+
+        // When
+        depthStreamBroadcaster.subscribe(null, 1, emitter);
+        JsonNode initial = emitter.next();
+
+        // Then
+        assertThat(initial.get("instrument").asText()).isEqualTo("DEFAULT");
+        assertThat(initial.get("bids").get(0).get("totalSize").asLong()).isEqualTo(80L);
+        assertThat(initial.get("offers").get(0).get("totalSize").asLong()).isEqualTo(30L);
+    }
+
+    @Test
+    void testSlowSubscriberReceivesOnlyTheLatestDepth() throws Exception {
+        // Given
+        OrderBook orderBook = orderBookRegistry.getOrderBook("DEFAULT");
+        CountDownLatch released = new CountDownLatch(1);
+        // blocks the sender on the initial snapshot while the book keeps changing
+        RecordingEmitter emitter = new RecordingEmitter(released);
+        depthStreamBroadcaster.subscribe(null, 1, emitter);
+
+        // When
+        for (int i = 1; i <= 5; i++) {
+            orderBook.addOrder(i, 999_900L, 'B', 10L);
+            Thread.sleep(30);
+        }
+        released.countDown();
+        JsonNode initial = emitter.next();
+        JsonNode latest = emitter.next();
+
+        // Then
+        assertThat(initial.get("bids").size()).isEqualTo(0);
+        assertThat(latest.get("bids").get(0).get("totalSize").asLong()).isEqualTo(50L);
+        assertThat(latest.get("sequence").asLong() > initial.get("sequence").asLong()).isTrue();
+        assertThat(emitter.payloads.poll(100, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    private class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> payloads = new LinkedBlockingQueue<>();
+        private final CountDownLatch released;
+
+        private RecordingEmitter(CountDownLatch released) {
+            this.released = released;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                if (released != null) {
+                    released.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (MediaType.APPLICATION_JSON.equals(data.getMediaType())) {
+                    payloads.add((String) data.getData());
+                }
+            }
+        }
+
+        private JsonNode next() throws Exception {
+            String payload = payloads.poll(5, TimeUnit.SECONDS);
+            assertThat(payload).isNotNull();
+            return objectMapper.readTree(payload);
+        }
+    }
+}